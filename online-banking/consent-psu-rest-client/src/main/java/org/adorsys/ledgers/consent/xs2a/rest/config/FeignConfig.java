@@ -21,6 +21,7 @@ package org.adorsys.ledgers.consent.xs2a.rest.config;
 import feign.Client;
 import okhttp3.Interceptor;
 import okhttp3.Response;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
@@ -36,22 +37,21 @@ public class FeignConfig {
         return new NullHeaderInterceptor();
     }
 
+    /**
+     * Fallback for applications without a shared Feign client, e.g. the profiled one of EnableHttpClientProfiles
+     */
     @Bean
-    public Client feignClient(okhttp3.OkHttpClient client) {
-        return new feign.okhttp.OkHttpClient(client);
-    }
-
-    @Bean
-    public okhttp3.OkHttpClient okHttpClient() {
-        return new okhttp3.OkHttpClient.Builder()
-                   .connectTimeout(60, TimeUnit.SECONDS)
-                   .readTimeout(60, TimeUnit.SECONDS)
-                   .writeTimeout(60, TimeUnit.SECONDS)
-                   .followRedirects(false)
-                   .followSslRedirects(false)
-                   .retryOnConnectionFailure(true)
-                   .addInterceptor(new RedirectInterceptor())
-                   .build();
+    @ConditionalOnMissingBean(Client.class)
+    public Client feignClient() {
+        return new feign.okhttp.OkHttpClient(new okhttp3.OkHttpClient.Builder()
+                                                 .connectTimeout(60, TimeUnit.SECONDS)
+                                                 .readTimeout(60, TimeUnit.SECONDS)
+                                                 .writeTimeout(60, TimeUnit.SECONDS)
+                                                 .followRedirects(false)
+                                                 .followSslRedirects(false)
+                                                 .retryOnConnectionFailure(true)
+                                                 .addInterceptor(new RedirectInterceptor())
+                                                 .build());
     }
 
     static class RedirectInterceptor implements Interceptor {
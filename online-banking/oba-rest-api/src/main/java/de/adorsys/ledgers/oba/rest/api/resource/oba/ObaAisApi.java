@@ -26,20 +26,27 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.Authorization;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
 
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
 @Api(value = ObaAisApi.BASE_PATH, tags = "Online Banking Account Information")
 public interface ObaAisApi {
     String BASE_PATH = "/api/v1/ais";
     String LOCAL_DATE_YYYY_MM_DD_FORMAT = "yyyy-MM-dd";
     String DATE_TO_QUERY_PARAM = "dateTo";
     String DATE_FROM_QUERY_PARAM = "dateFrom";
+    String NDJSON_VALUE = "application/x-ndjson";
+    String CSV_VALUE = "text/csv";
 
     /**
      * @param userLogin login of current user
@@ -82,6 +89,20 @@ public interface ObaAisApi {
                                                                @RequestParam(name = DATE_TO_QUERY_PARAM, required = false) @DateTimeFormat(pattern = LOCAL_DATE_YYYY_MM_DD_FORMAT) LocalDate dateTo,
                                                                @RequestParam(required = false, defaultValue = "0") int page, @RequestParam(required = false, defaultValue = "25") int size);
 
+    /**
+     * @param accountId selected accounts id
+     * @param dateFrom  date from which the user requests to see transactions
+     * @param dateTo    date until which user requests to see transactions
+     * @param accept    requested format: JSON array (default), newline delimited JSON or CSV
+     * @return transactions for account, written while they are read from ledgers
+     */
+    @GetMapping(path = "/transactions/{accountId}/export", produces = {APPLICATION_JSON_VALUE, NDJSON_VALUE, CSV_VALUE})
+    @ApiOperation(value = "Export transactions for queried account per dates selected", authorizations = @Authorization(value = "apiKey"))
+    ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable(name = "accountId") String accountId,
+                                                             @RequestParam(name = DATE_FROM_QUERY_PARAM, required = false) @DateTimeFormat(pattern = LOCAL_DATE_YYYY_MM_DD_FORMAT) LocalDate dateFrom,
+                                                             @RequestParam(name = DATE_TO_QUERY_PARAM, required = false) @DateTimeFormat(pattern = LOCAL_DATE_YYYY_MM_DD_FORMAT) LocalDate dateTo,
+                                                             @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept);
+
     /**
      * @return List of pending periodic payments
      */
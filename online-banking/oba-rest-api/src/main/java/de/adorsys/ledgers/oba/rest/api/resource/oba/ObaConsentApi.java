@@ -20,6 +20,7 @@ package de.adorsys.ledgers.oba.rest.api.resource.oba;
 
 import de.adorsys.ledgers.oba.service.api.domain.CreatePiisConsentRequestTO;
 import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsent;
+import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsentCursorPage;
 import de.adorsys.ledgers.oba.service.api.domain.TppInfoTO;
 import de.adorsys.ledgers.util.domain.CustomPageImpl;
 import io.swagger.annotations.Api;
@@ -27,12 +28,14 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.Authorization;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @Api(value = ObaConsentApi.BASE_PATH, tags = "Online Banking Consents")
 public interface ObaConsentApi {
     String BASE_PATH = "/api/v1/consents";
+    String NDJSON_VALUE = "application/x-ndjson";
 
     /**
      * @param userLogin login of current user
@@ -52,6 +55,26 @@ public interface ObaConsentApi {
                                                            @RequestParam(required = false, defaultValue = "0") int page,
                                                            @RequestParam(required = false, defaultValue = "25") int size);
 
+    /**
+     * @param userLogin login of current user
+     * @return all AIS Consents for user as newline delimited JSON, read from CMS page by page
+     */
+    @GetMapping(path = "/{userLogin}/stream", produces = NDJSON_VALUE)
+    @ApiOperation(value = "Stream all AIS Consents", authorizations = @Authorization(value = "apiKey"))
+    ResponseEntity<StreamingResponseBody> consentsStream(@PathVariable("userLogin") String userLogin);
+
+    /**
+     * @param userLogin login of current user
+     * @param cursor    cursor returned with the previous page, omitted for the first page
+     * @param size      page size, ignored when a cursor is given; capped at oba.consents.max-page-size
+     * @return page of AIS Consents for user and the cursor of the next page
+     */
+    @GetMapping(path = "/{userLogin}/cursor")
+    @ApiOperation(value = "Get AIS Consents page by cursor", authorizations = @Authorization(value = "apiKey"))
+    ResponseEntity<ObaAisConsentCursorPage> consentsByCursor(@PathVariable("userLogin") String userLogin,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false, defaultValue = "25") int size);
+
     /**
      * @param consentId identifier of consent
      */
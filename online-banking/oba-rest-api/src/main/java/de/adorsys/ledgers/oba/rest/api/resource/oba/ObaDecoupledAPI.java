@@ -22,13 +22,20 @@ import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.Authorization;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @Api(value = ObaDecoupledAPI.BASE_PATH, tags = "Online Banking Decoupled")
 public interface ObaDecoupledAPI {
     String BASE_PATH = "/api/v1/decoupled";
+    String NOTIFICATION_EVENT = "decoupled";
 
     @ApiOperation(value = "Confirm/Cancel Decoupled operation", authorizations = @Authorization(value = "apiKey"))
     @PostMapping(path = "/execute")
@@ -37,4 +44,24 @@ public interface ObaDecoupledAPI {
     @ApiOperation(value = "Send decoupled notification to users device", authorizations = @Authorization(value = "apiKey"))
     @PostMapping(path = "/message")
     ResponseEntity<Boolean> sendNotification(@RequestBody DecoupledConfRequest message);
+
+    /**
+     * Alternative to the STOMP subscription: every decoupled notification of the current user is sent as
+     * a server-sent event named {@value #NOTIFICATION_EVENT} with the JSON notification as data.
+     *
+     * @return event stream open until the configured timeout, clients reconnect afterwards
+     */
+    @ApiOperation(value = "Stream decoupled notifications of the current user", authorizations = @Authorization(value = "apiKey"))
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter notificationStream();
+
+    /**
+     * Long-poll alternative to the STOMP subscription.
+     *
+     * @return the pending decoupled notifications of the current user as soon as there is one,
+     * an empty list if none arrived within the configured timeout
+     */
+    @ApiOperation(value = "Wait for decoupled notifications of the current user", authorizations = @Authorization(value = "apiKey"))
+    @GetMapping(path = "/poll")
+    DeferredResult<ResponseEntity<List<DecoupledConfRequest>>> pollNotifications();
 }
@@ -18,15 +18,14 @@
 
 package de.adorsys.ledgers.oba.rest.client;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import de.adorsys.ledgers.oba.rest.utils.NullHeaderInterceptor;
 import feign.Client;
 import feign.codec.Decoder;
 import okhttp3.Interceptor;
 import okhttp3.Response;
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
 import org.springframework.cloud.openfeign.support.SpringDecoder;
@@ -42,10 +41,7 @@ import java.util.concurrent.TimeUnit;
 public class FeignConfig {
 
     @Bean
-    public Decoder feignDecoder() {
-        var objectMapper = new ObjectMapper();
-        objectMapper.configure(DeserializationFeature.UNWRAP_ROOT_VALUE, false);
-        objectMapper.registerModule(new JavaTimeModule());
+    public Decoder feignDecoder(ObjectMapper objectMapper) {
         var jacksonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
         ObjectFactory<HttpMessageConverters> objectFactory = () -> new HttpMessageConverters(jacksonConverter);
         return new ResponseEntityDecoder(new SpringDecoder(objectFactory));
@@ -56,22 +52,21 @@ public class FeignConfig {
         return new NullHeaderInterceptor();
     }
 
+    /**
+     * Fallback for applications without a shared Feign client, e.g. the profiled one of EnableHttpClientProfiles
+     */
     @Bean
-    public Client feignClient(okhttp3.OkHttpClient client) {
-        return new feign.okhttp.OkHttpClient(client);
-    }
-
-    @Bean
-    public okhttp3.OkHttpClient okHttpClient() {
-        return new okhttp3.OkHttpClient.Builder()
-                   .connectTimeout(60, TimeUnit.SECONDS)
-                   .readTimeout(60, TimeUnit.SECONDS)
-                   .writeTimeout(60, TimeUnit.SECONDS)
-                   .followRedirects(false)
-                   .followSslRedirects(false)
-                   .retryOnConnectionFailure(true)
-                   .addInterceptor(new RedirectInterceptor())
-                   .build();
+    @ConditionalOnMissingBean(Client.class)
+    public Client feignClient() {
+        return new feign.okhttp.OkHttpClient(new okhttp3.OkHttpClient.Builder()
+                                                 .connectTimeout(60, TimeUnit.SECONDS)
+                                                 .readTimeout(60, TimeUnit.SECONDS)
+                                                 .writeTimeout(60, TimeUnit.SECONDS)
+                                                 .followRedirects(false)
+                                                 .followSslRedirects(false)
+                                                 .retryOnConnectionFailure(true)
+                                                 .addInterceptor(new RedirectInterceptor())
+                                                 .build());
     }
 
     static class RedirectInterceptor implements Interceptor {
@@ -18,15 +18,32 @@
 
 package de.adorsys.ledgers.oba.rest.server.auth;
 
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
+import de.adorsys.ledgers.keycloak.client.api.KeycloakTokenService;
+import de.adorsys.ledgers.keycloak.client.mapper.KeycloakAuthMapper;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
+import de.adorsys.psd2.sandbox.auth.TokenValidationProperties;
+import de.adorsys.psd2.sandbox.auth.TokenValidationService;
 
 @Configuration
 public class AuthConfig {
 	@Bean
-	public AuthRequestInterceptor getClientAuth() {
-		return new AuthRequestInterceptor();
+	public ScopedAuthRequestInterceptor getClientAuth() {
+		return new ScopedAuthRequestInterceptor();
+	}
+
+	@Bean
+	@ConfigurationProperties(prefix = "sandbox.token-validation")
+	public TokenValidationProperties tokenValidationProperties() {
+		return new TokenValidationProperties();
+	}
+
+	@Bean
+	public TokenValidationService tokenValidationService(KeycloakTokenService tokenService, KeycloakAuthMapper authMapper,
+														 TokenValidationProperties tokenValidationProperties) {
+		return new TokenValidationService(tokenService, authMapper, tokenValidationProperties);
 	}
 }
@@ -24,13 +24,13 @@ import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.oba.service.api.domain.UserAuthentication;
 import de.adorsys.ledgers.oba.service.api.service.TokenAuthenticationService;
 import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
+import de.adorsys.psd2.sandbox.auth.route.RouteTable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import javax.servlet.FilterChain;
@@ -39,15 +39,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 @Slf4j
 @RequiredArgsConstructor
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
-    private static final List<String> EXCLUDED_URLS = Arrays.asList("/**/auth", "/**/login");
-    private static final AntPathMatcher matcher = new AntPathMatcher();
+    private static final RouteTable<String> EXCLUDED_URLS = RouteTable.of("/**/auth", "/**/login");
 
     private final TokenAuthenticationService tokenAuthenticationService;
     private final AuthRequestInterceptor authInterceptor;
@@ -58,17 +56,21 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
             log.trace("doFilter start");
         }
         authInterceptor.setAccessToken(null);
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null) {
-            UserAuthentication userAuthentication = tokenAuthenticationService.getAuthentication(readAccessTokenHeader(request));
-            if (userAuthentication != null) {
-                BearerTokenTO bearerToken = userAuthentication.getBearerToken();
-                AccessTokenTO token = bearerToken.getAccessTokenObject();
-                SecurityContextHolder.getContext().setAuthentication(new MiddlewareAuthentication(token.getSub(), bearerToken, buildAuthorities(token)));
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null) {
+                UserAuthentication userAuthentication = tokenAuthenticationService.getAuthentication(readAccessTokenHeader(request));
+                if (userAuthentication != null) {
+                    BearerTokenTO bearerToken = userAuthentication.getBearerToken();
+                    AccessTokenTO token = bearerToken.getAccessTokenObject();
+                    SecurityContextHolder.getContext().setAuthentication(new MiddlewareAuthentication(token.getSub(), bearerToken, buildAuthorities(token)));
+                }
             }
-        }
 
-        filterChain.doFilter(request, response);
+            filterChain.doFilter(request, response);
+        } finally {
+            authInterceptor.setAccessToken(null);
+        }
 
         if (log.isTraceEnabled()) {
             log.trace("doFilter end");
@@ -77,8 +79,7 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        return EXCLUDED_URLS.stream()
-                   .anyMatch(p -> matcher.match(p, request.getServletPath()));
+        return EXCLUDED_URLS.matches(request.getServletPath());
     }
 
 
@@ -19,10 +19,11 @@
 package de.adorsys.ledgers.oba.rest.server.config.mapper;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import de.adorsys.ledgers.oba.service.api.domain.ObaCmsBulkPayment;
 import de.adorsys.ledgers.oba.service.api.domain.ObaCmsPeriodicPayment;
 import de.adorsys.ledgers.oba.service.api.domain.ObaCmsSinglePayment;
@@ -31,30 +32,52 @@ import de.adorsys.psd2.xs2a.core.profile.PaymentType;
 
 import java.io.IOException;
 
+/**
+ * Binds a CMS payment to the OBA type of its paymentType in a single pass: only the fields preceding paymentType
+ * are buffered, the rest of the object is read straight from the parser.
+ */
 public class CmsPaymentDeserializer extends StdDeserializer<BaseCmsPayment> {
     private static final long serialVersionUID = 158931754435907227L;
-    private ObjectMapper mapper;
+    private static final String PAYMENT_TYPE = "paymentType";
 
-    public CmsPaymentDeserializer(ObjectMapper mapper) {
+    public CmsPaymentDeserializer() {
         super(BaseCmsPayment.class);
-        this.mapper = mapper;
     }
 
     @Override
     public BaseCmsPayment deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-        JsonNode node = p.getCodec().readTree(p);
-        String paymentTypeValue = node.get("paymentType").asText();
+        TokenBuffer buffer = new TokenBuffer(p, ctxt);
+        String paymentTypeValue = bufferUntilPaymentType(p, buffer);
         PaymentType paymentType = PaymentType.getByValue(paymentTypeValue).orElseThrow(
             () -> new IllegalStateException(String.format("Unknown payment type %s", paymentTypeValue)));
+
+        JsonParser payment = JsonParserSequence.createFlattened(false, buffer.asParser(p), p);
+        payment.nextToken();
         switch (paymentType) {
             case SINGLE:
-                return mapper.convertValue(node, ObaCmsSinglePayment.class);
+                return ctxt.readValue(payment, ObaCmsSinglePayment.class);
             case BULK:
-                return mapper.convertValue(node, ObaCmsBulkPayment.class);
+                return ctxt.readValue(payment, ObaCmsBulkPayment.class);
             case PERIODIC:
-                return mapper.convertValue(node, ObaCmsPeriodicPayment.class);
+                return ctxt.readValue(payment, ObaCmsPeriodicPayment.class);
             default:
                 throw new IllegalStateException(String.format("Unknown payment type %s", paymentType.name()));
         }
     }
+
+    // Copies the fields up to and including paymentType, leaving the parser on the paymentType value
+    private String bufferUntilPaymentType(JsonParser p, TokenBuffer buffer) throws IOException {
+        buffer.writeStartObject();
+        JsonToken token = p.currentToken() == JsonToken.START_OBJECT ? p.nextToken() : p.currentToken();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String fieldName = p.getCurrentName();
+            p.nextToken();
+            buffer.writeFieldName(fieldName);
+            buffer.copyCurrentStructure(p);
+            if (PAYMENT_TYPE.equals(fieldName) && p.getValueAsString() != null) {
+                return p.getValueAsString();
+            }
+        }
+        throw new IllegalStateException("Payment type is missing");
+    }
 }
@@ -16,31 +16,36 @@
  * contact us at psd2@adorsys.com.
  */
 
-package de.adorsys.ledgers.oba.app.config;
+package de.adorsys.ledgers.oba.rest.server.config.mapper;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import de.adorsys.ledgers.oba.rest.server.config.mapper.CmsPaymentDeserializer;
-import de.adorsys.ledgers.oba.rest.server.config.mapper.CmsSinglePaymentDeserializer;
 import de.adorsys.psd2.consent.api.pis.BaseCmsPayment;
 import de.adorsys.psd2.consent.api.pis.CmsSinglePayment;
-import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
-import javax.annotation.PostConstruct;
-
+/**
+ * The single ObjectMapper of OBA: MVC, the Feign decoders of the CMS and ledgers clients and all services share it,
+ * so serializers and deserializers are introspected once per type.
+ */
 @Configuration
-@RequiredArgsConstructor
 public class ObaObjectMapperConfig {
-    private final ObjectMapper objectMapper;
 
-    @PostConstruct
-    public void postConstruct() {
+    @Bean
+    @Primary
+    public ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
+        return configure(builder.createXmlMapper(false).build());
+    }
+
+    public static ObjectMapper configure(ObjectMapper objectMapper) {
         SimpleModule module = new SimpleModule();
-        module.addDeserializer(BaseCmsPayment.class, new CmsPaymentDeserializer(objectMapper))
-            .addDeserializer(CmsSinglePayment.class, new CmsSinglePaymentDeserializer(objectMapper));
-        objectMapper.registerModule(module)
-            .registerModule(new JavaTimeModule());
+        module.addDeserializer(BaseCmsPayment.class, new CmsPaymentDeserializer())
+            .addDeserializer(CmsSinglePayment.class, new CmsSinglePaymentDeserializer());
+        return objectMapper.registerModule(module)
+                   .registerModule(new JavaTimeModule());
     }
 }
@@ -26,6 +26,7 @@ import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
 import de.adorsys.psd2.sandbox.auth.filter.LoginAuthenticationFilter;
 import de.adorsys.psd2.sandbox.auth.filter.RefreshTokenFilter;
 import de.adorsys.psd2.sandbox.auth.filter.TokenAuthenticationFilter;
+import de.adorsys.psd2.sandbox.auth.route.RouteRequestMatcher;
 import de.adorsys.ledgers.oba.service.api.service.TokenAuthenticationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -63,7 +64,7 @@ public class WebSecurityConfig {
         protected void configure(HttpSecurity http) throws Exception {
             http.antMatcher("/api/v1/**")
                 .authorizeRequests()
-                .antMatchers(APP_WHITELIST).permitAll()
+                .requestMatchers(new RouteRequestMatcher(APP_WHITELIST)).permitAll()
                 .and()
                 .authorizeRequests().anyRequest()
                 .authenticated()
@@ -90,15 +91,8 @@ public class WebSecurityConfig {
         @Override
         protected void configure(HttpSecurity http) throws Exception {
             http
-                .authorizeRequests().antMatchers(APP_INDEX_WHITELIST).permitAll()
-                .and()
-                .authorizeRequests().antMatchers(APP_SCA_WHITELIST).permitAll()
-                .and()
-                .authorizeRequests().antMatchers(APP_WHITELIST).permitAll()
-                .and()
-                .authorizeRequests().antMatchers(SWAGGER_WHITELIST).permitAll()
-                .and()
-                .authorizeRequests().antMatchers(ACTUATOR_WHITELIST).permitAll()
+                .authorizeRequests()
+                .requestMatchers(new RouteRequestMatcher(APP_INDEX_WHITELIST, APP_SCA_WHITELIST, APP_WHITELIST, SWAGGER_WHITELIST, ACTUATOR_WHITELIST)).permitAll()
                 .and()
                 .cors()
                 .and()
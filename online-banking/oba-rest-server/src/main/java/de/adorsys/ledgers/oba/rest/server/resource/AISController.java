@@ -22,20 +22,23 @@ import de.adorsys.ledgers.middleware.api.domain.account.AccountDetailsTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
+import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisAccountAccessInfoTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisConsentTO;
 import de.adorsys.ledgers.middleware.client.rest.AccountRestClient;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.OauthRestClient;
 import de.adorsys.ledgers.oba.rest.api.resource.AISApi;
 import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.ledgers.oba.service.api.domain.ConsentAuthorizeResponse;
 import de.adorsys.ledgers.oba.service.api.domain.ConsentWorkflow;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
+import de.adorsys.ledgers.oba.service.api.service.AccountListCacheService;
 import de.adorsys.ledgers.oba.service.api.service.AuthorizationService;
 import de.adorsys.ledgers.oba.service.api.service.RedirectConsentService;
 import de.adorsys.ledgers.oba.service.api.service.TokenAuthenticationService;
+import de.adorsys.ledgers.oba.service.api.service.WorkflowCacheService;
 import de.adorsys.psd2.consent.api.ais.AisAccountConsentAuthorisation;
 import de.adorsys.psd2.consent.api.ais.CmsAisConsentResponse;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
@@ -87,9 +90,11 @@ public class AISController implements AISApi {
     private final HttpServletResponse response;
     private final ResponseUtils responseUtils;
     private final MiddlewareAuthentication middlewareAuth;
-    private final AuthRequestInterceptor authInterceptor;
+    private final ScopedAuthRequestInterceptor authInterceptor;
     private final AuthorizationService authService;
     private final TokenAuthenticationService authenticationService;
+    private final WorkflowCacheService workflowCache;
+    private final AccountListCacheService accountListCache;
 
     @Override
     public ResponseEntity<ConsentAuthorizeResponse> login(String encryptedConsentId, String authorisationId, String login, String pin) {
@@ -101,6 +106,7 @@ public class AISController implements AISApi {
             GlobalScaResponseTO ledgersResponse = authenticationService.login(login, pin, authorisationId);
             workflow.storeSCAResponse(ledgersResponse);
             AuthUtils.checkIfUserInitiatedOperation(ledgersResponse, workflow.getConsentResponse().getAccountConsent().getPsuIdDataList());
+            xisService.resetFailedCount(encryptedConsentId);
         } catch (FeignException | ObaException e) {
             xisService.resolveFailedLoginAttempt(encryptedConsentId, workflow.consentId(), login, workflow.authId(), OpTypeTO.CONSENT);
         }
@@ -160,10 +166,9 @@ public class AISController implements AISApi {
 
         ConsentStatus consentStatus = workflow.getConsentResponse().getAccountConsent().getConsentStatus();
         CmsAisConsentResponse consentResponse = workflow.getConsentResponse();
-        authInterceptor.setAccessToken(workflow.getScaResponse().getBearerToken().getAccess_token());
-        String tppOkRedirectUri = isOauth2Integrated
+        String tppOkRedirectUri = authInterceptor.callWithAccessToken(workflow.getScaResponse().getBearerToken().getAccess_token(), () -> isOauth2Integrated
             ? requireNonNull(oauthRestClient.oauthCode(consentResponse.getTppOkRedirectUri()).getBody()).getRedirectUri()
-            : authService.resolveAuthConfirmationCodeRedirectUri(consentResponse.getTppOkRedirectUri(), authConfirmationCode);
+            : authService.resolveAuthConfirmationCodeRedirectUri(consentResponse.getTppOkRedirectUri(), authConfirmationCode));
         String tppNokRedirectUri = Optional.ofNullable(consentResponse.getTppNokRedirectUri())
             .filter(StringUtils::isNotBlank)
             .orElse(consentResponse.getTppOkRedirectUri());
@@ -173,6 +178,7 @@ public class AISController implements AISApi {
             : tppNokRedirectUri;
         ConsentAuthorizeResponse consentAuthorizeResponse = workflow.getAuthResponse();
         consentAuthorizeResponse.setRedirectUrl(redirectURL);
+        accountListCache.evict(AuthUtils.psuId(workflow.bearerToken()));
         return ResponseEntity.ok(consentAuthorizeResponse);
     }
 
@@ -185,10 +191,12 @@ public class AISController implements AISApi {
     @Override
     public ResponseEntity<ConsentAuthorizeResponse> revokeConsent(@NotNull String encryptedConsentId, @NotNull String authorisationId) {
         ConsentWorkflow workflow = redirectConsentService.identifyConsent(encryptedConsentId, authorisationId, middlewareAuth.getBearerToken());
-        authInterceptor.setAccessToken(middlewareAuth.getBearerToken().getAccess_token());
-
         String psuId = AuthUtils.psuId(middlewareAuth);
-        if (failAuthorisation(workflow.consentId(), psuId, authorisationId)) {
+        boolean isFailed = authInterceptor.callWithAccessToken(middlewareAuth.getBearerToken().getAccess_token(),
+                                                               () -> failAuthorisation(workflow.consentId(), psuId, authorisationId));
+        workflowCache.evict(encryptedConsentId, authorisationId);
+        accountListCache.evict(psuId);
+        if (isFailed) {
             return ResponseEntity.ok(buildResponseForSuccessfulConsentRevoke());
         }
 
@@ -265,12 +273,10 @@ public class AISController implements AISApi {
      * It is the responsibility of the caller to make sure the workflow ist propertly filled with a bearer token.
      */
     private List<AccountDetailsTO> listOfAccounts(ConsentWorkflow workflow) {
-        try {
-            authInterceptor.setAccessToken(workflow.bearerToken().getAccess_token());
-            return accountRestClient.getListOfAccounts().getBody();
-        } finally {
-            authInterceptor.setAccessToken(null);
-        }
+        AccessTokenTO token = workflow.bearerToken().getAccessTokenObject();
+        return accountListCache.getAccounts(token.getLogin(), token.getSub(),
+                                            () -> authInterceptor.callWithAccessToken(workflow.bearerToken().getAccess_token(),
+                                                                                      () -> accountRestClient.getListOfAccounts().getBody()));
     }
 
 
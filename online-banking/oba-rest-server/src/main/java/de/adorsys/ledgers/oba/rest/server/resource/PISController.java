@@ -21,9 +21,9 @@ package de.adorsys.ledgers.oba.rest.server.resource;
 import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.oba.rest.api.resource.PISApi;
 import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.ledgers.oba.service.api.domain.PaymentAuthorizeResponse;
 import de.adorsys.ledgers.oba.service.api.domain.PaymentWorkflow;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
@@ -53,7 +53,7 @@ public class PISController implements PISApi {
     private final HttpServletResponse response;
     private final ResponseUtils responseUtils;
     private final MiddlewareAuthentication middlewareAuth;
-    private final AuthRequestInterceptor authInterceptor;
+    private final ScopedAuthRequestInterceptor authInterceptor;
     private final TokenAuthenticationService authenticationService;
 
 
@@ -68,6 +68,7 @@ public class PISController implements PISApi {
             GlobalScaResponseTO ledgersResponse = authenticationService.login(login, pin, authorisationId);
             workflow.processSCAResponse(ledgersResponse);
             AuthUtils.checkIfUserInitiatedOperation(ledgersResponse, workflow.getPaymentResponse().getPayment().getPsuIdDatas());
+            xisService.resetFailedCount(encryptedPaymentId);
         } catch (FeignException | ObaException e) {
             xisService.resolveFailedLoginAttempt(encryptedPaymentId, workflow.paymentId(), login, workflow.authId(), OpTypeTO.PAYMENT);
         }
@@ -102,32 +103,22 @@ public class PISController implements PISApi {
     @Override
     public ResponseEntity<PaymentAuthorizeResponse> authrizedPayment(String encryptedPaymentId, String authorisationId, String authCode) {
         String psuId = AuthUtils.psuId(middlewareAuth);
-        try {
-            PaymentWorkflow identifyPaymentWorkflow = paymentService.identifyPayment(encryptedPaymentId, authorisationId, middlewareAuth.getBearerToken());
-            PaymentWorkflow authorizePaymentWorkflow = paymentService.authorizePaymentOpr(identifyPaymentWorkflow, psuId, authCode, OpTypeTO.PAYMENT);
-
-            responseUtils.addAccessTokenHeader(response, authorizePaymentWorkflow.bearerToken().getAccess_token());
-            log.info("Confirmation code: {}", authorizePaymentWorkflow.getAuthResponse().getAuthConfirmationCode());
-            return ResponseEntity.ok(authorizePaymentWorkflow.getAuthResponse());
-        } finally {
-            authInterceptor.setAccessToken(null);
-        }
+        PaymentWorkflow identifyPaymentWorkflow = paymentService.identifyPayment(encryptedPaymentId, authorisationId, middlewareAuth.getBearerToken());
+        PaymentWorkflow authorizePaymentWorkflow = paymentService.authorizePaymentOpr(identifyPaymentWorkflow, psuId, authCode, OpTypeTO.PAYMENT);
+
+        responseUtils.addAccessTokenHeader(response, authorizePaymentWorkflow.bearerToken().getAccess_token());
+        log.info("Confirmation code: {}", authorizePaymentWorkflow.getAuthResponse().getAuthConfirmationCode());
+        return ResponseEntity.ok(authorizePaymentWorkflow.getAuthResponse());
     }
 
     @Override
     public ResponseEntity<PaymentAuthorizeResponse> failPaymentAuthorisation(String encryptedPaymentId, String authorisationId) {
-        try {
-            PaymentWorkflow workflow = paymentService.identifyPayment(encryptedPaymentId, authorisationId, middlewareAuth.getBearerToken());
-
-            authInterceptor.setAccessToken(workflow.bearerToken().getAccess_token());
+        PaymentWorkflow workflow = paymentService.identifyPayment(encryptedPaymentId, authorisationId, middlewareAuth.getBearerToken());
 
-            workflow.getScaResponse().setScaStatus(ScaStatusTO.FAILED);
-            paymentService.updateAspspConsentData(workflow);
+        workflow.getScaResponse().setScaStatus(ScaStatusTO.FAILED);
+        authInterceptor.runWithAccessToken(workflow.bearerToken().getAccess_token(), () -> paymentService.updateAspspConsentData(workflow));
 
-            return ResponseEntity.ok(workflow.getAuthResponse());
-        } finally {
-            authInterceptor.setAccessToken(null);
-        }
+        return ResponseEntity.ok(workflow.getAuthResponse());
     }
 
     @Override
@@ -21,7 +21,6 @@ package de.adorsys.ledgers.oba.rest.server.resource;
 import de.adorsys.ledgers.middleware.api.domain.payment.TransactionStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.oba.rest.api.resource.PisCancellationApi;
 import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
 import de.adorsys.ledgers.oba.service.api.domain.PaymentAuthorizeResponse;
@@ -54,7 +53,6 @@ public class PisCancellationController implements PisCancellationApi {
     private final HttpServletResponse response;
     private final ResponseUtils responseUtils;
     private final MiddlewareAuthentication middlewareAuth;
-    private final AuthRequestInterceptor authInterceptor;
     private final TokenAuthenticationService authenticationService;
 
     @Override
@@ -74,6 +72,7 @@ public class PisCancellationController implements PisCancellationApi {
             GlobalScaResponseTO ledgersResponse = authenticationService.login(login, pin, authorisationId);
             workflow.processSCAResponse(ledgersResponse);
             AuthUtils.checkIfUserInitiatedOperation(ledgersResponse, workflow.getPaymentResponse().getPayment().getPsuIdDatas());
+            xisService.resetFailedCount(encryptedPaymentId);
             workflow = paymentService.initiatePaymentOpr(workflow, login, OpTypeTO.CANCEL_PAYMENT);
         } catch (FeignException | ObaException e) {
             xisService.resolveFailedLoginAttempt(encryptedPaymentId, workflow.paymentId(), login, workflow.authId(), OpTypeTO.PAYMENT);
@@ -90,15 +89,11 @@ public class PisCancellationController implements PisCancellationApi {
     public ResponseEntity<PaymentAuthorizeResponse> authorisePayment(String encryptedPaymentId, String authorisationId, String authCode) {
 
         String psuId = AuthUtils.psuId(middlewareAuth);
-        try {
-            PaymentWorkflow identifyPaymentWorkflow = paymentService.identifyPayment(encryptedPaymentId, authorisationId, middlewareAuth.getBearerToken());
-            PaymentWorkflow authorizeCancelPaymentWorkflow = paymentService.authorizePaymentOpr(identifyPaymentWorkflow, psuId, authCode, OpTypeTO.CANCEL_PAYMENT);
+        PaymentWorkflow identifyPaymentWorkflow = paymentService.identifyPayment(encryptedPaymentId, authorisationId, middlewareAuth.getBearerToken());
+        PaymentWorkflow authorizeCancelPaymentWorkflow = paymentService.authorizePaymentOpr(identifyPaymentWorkflow, psuId, authCode, OpTypeTO.CANCEL_PAYMENT);
 
-            log.info("Confirmation code: {}", authorizeCancelPaymentWorkflow.getAuthResponse().getAuthConfirmationCode());
-            return ResponseEntity.ok(authorizeCancelPaymentWorkflow.getAuthResponse());
-        } finally {
-            authInterceptor.setAccessToken(null);
-        }
+        log.info("Confirmation code: {}", authorizeCancelPaymentWorkflow.getAuthResponse().getAuthConfirmationCode());
+        return ResponseEntity.ok(authorizeCancelPaymentWorkflow.getAuthResponse());
     }
 
     @Override
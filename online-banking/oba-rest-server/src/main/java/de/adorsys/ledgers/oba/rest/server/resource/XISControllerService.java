@@ -29,6 +29,7 @@ import de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.CmsAspspConsentDataService;
 import de.adorsys.ledgers.oba.service.api.service.CommonPaymentService;
+import de.adorsys.ledgers.oba.service.api.service.WorkflowCacheService;
 import de.adorsys.psd2.sandbox.auth.SecurityConstant;
 import de.adorsys.psd2.xs2a.core.sca.AuthenticationDataHolder;
 import lombok.RequiredArgsConstructor;
@@ -62,6 +63,7 @@ public class XISControllerService {
     private final CmsAspspConsentDataService consentDataService;
     private final CmsPsuAisClient cmsPsuAisClient;
     private final CmsPsuPisClient cmsPsuPisClient;
+    private final WorkflowCacheService workflowCache;
 
     @Value("${online-banking.sca.loginpage:http://localhost:4400/}")
     private String loginPage;
@@ -138,6 +140,10 @@ public class XISControllerService {
         }
     }
 
+    public void resetFailedCount(String encryptedId) {
+        consentDataService.resetLoginFailedCount(encryptedId);
+    }
+
     public void resolveFailedLoginAttempt(String encryptedId, String id, String login, String authId, OpTypeTO opType) {
         int attemptsLeft = consentDataService.updateLoginFailedCount(encryptedId);
         if (attemptsLeft < 1) {
@@ -146,6 +152,7 @@ public class XISControllerService {
             } else {
                 failPaymentAuthorisation(id, login, authId);
             }
+            workflowCache.evict(encryptedId, authId);
         }
         String msg = attemptsLeft > 0
                          ? String.format("You have %s attempts left", attemptsLeft)
@@ -18,6 +18,7 @@
 
 package de.adorsys.ledgers.oba.rest.server.resource.oba;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.ledgers.middleware.api.domain.account.AccountDetailsTO;
 import de.adorsys.ledgers.middleware.api.domain.account.TransactionTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTO;
@@ -25,12 +26,16 @@ import de.adorsys.ledgers.middleware.client.rest.PaymentRestClient;
 import de.adorsys.ledgers.oba.rest.api.resource.oba.ObaAisApi;
 import de.adorsys.ledgers.oba.service.api.service.AisService;
 import de.adorsys.ledgers.util.domain.CustomPageImpl;
+import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -42,13 +47,18 @@ import static de.adorsys.ledgers.oba.rest.api.resource.oba.ObaAisApi.BASE_PATH;
 @RequestMapping(BASE_PATH)
 @RequiredArgsConstructor
 public class ObaAisController implements ObaAisApi {
+    private static final int EXPORT_PAGE_SIZE = 500;
+
     private final AisService aisService;
     private final PaymentRestClient paymentRestClient;
+    private final MiddlewareAuthentication auth;
+    private final ScopedAuthRequestInterceptor authInterceptor;
+    private final ObjectMapper objectMapper;
 
     @Override
     @PreAuthorize("#userLogin == authentication.principal.login")
     public ResponseEntity<List<AccountDetailsTO>> accounts(String userLogin) {
-        return ResponseEntity.ok(aisService.getAccounts(userLogin));
+        return ResponseEntity.ok(aisService.getAccounts(userLogin, auth.getBearerToken().getAccessTokenObject().getSub()));
     }
 
     @Override
@@ -58,7 +68,7 @@ public class ObaAisController implements ObaAisApi {
 
     @Override
     public ResponseEntity<List<TransactionTO>> transactions(String accountId, LocalDate dateFrom, LocalDate dateTo) {
-        return ResponseEntity.ok(aisService.getTransactions(accountId, dateFrom, dateTo));
+        return ResponseEntity.ok(aisService.getTransactions(auth.getBearerToken().getAccessTokenObject().getLogin(), accountId, dateFrom, dateTo));
     }
 
     @Override
@@ -66,6 +76,22 @@ public class ObaAisController implements ObaAisApi {
         return ResponseEntity.ok(aisService.getTransactions(accountId, dateFrom, dateTo, page, size));
     }
 
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportTransactions(String accountId, LocalDate dateFrom, LocalDate dateTo, String accept) {
+        MediaType mediaType = TransactionExportWriter.negotiate(accept);
+        // the body is written on another thread, after the filters have released the caller's token
+        String accessToken = authInterceptor.getAccessToken();
+        StreamingResponseBody body = out -> {
+            TransactionExportWriter writer = TransactionExportWriter.of(mediaType, out, objectMapper);
+            writer.start();
+            authInterceptor.runWithAccessToken(accessToken, () -> aisService.streamTransactions(accountId, dateFrom, dateTo, EXPORT_PAGE_SIZE, writer::write));
+            writer.finish();
+        };
+        return ResponseEntity.ok()
+                   .contentType(mediaType)
+                   .body(body);
+    }
+
     @Override
     public ResponseEntity<CustomPageImpl<PaymentTO>> getPendingPeriodicPayments(int page, int size) {
         return paymentRestClient.getPendingPeriodicPaymentsPaged(page, size);
@@ -21,11 +21,11 @@ package de.adorsys.ledgers.oba.rest.server.resource.oba;
 import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.StartScaOprTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.OperationInitiationRestClient;
 import de.adorsys.ledgers.middleware.client.rest.RedirectScaRestClient;
 import de.adorsys.ledgers.oba.rest.api.resource.oba.ObaCancellationApi;
 import de.adorsys.psd2.consent.psu.api.CmsPsuPisService;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -49,7 +49,7 @@ public class ObaCancellationController implements ObaCancellationApi {
     private final CmsPsuPisService cmsPsuPisService;
     private final OperationInitiationRestClient operationInitiationRestClient;
     private final RedirectScaRestClient redirectScaRestClient;
-    private final AuthRequestInterceptor auth;
+    private final ScopedAuthRequestInterceptor auth;
 
     @Override
     public ResponseEntity<GlobalScaResponseTO> initCancellation(String paymentId) {
@@ -68,8 +68,8 @@ public class ObaCancellationController implements ObaCancellationApi {
     @Override
     public ResponseEntity<Void> validateTAN(String paymentId, String cancellationId, String authCode) {
         GlobalScaResponseTO validateScaCode = redirectScaRestClient.validateScaCode(cancellationId, authCode).getBody();
-        auth.setAccessToken(requireNonNull(validateScaCode).getBearerToken().getAccess_token());
-        GlobalScaResponseTO response = operationInitiationRestClient.execution(OpTypeTO.CANCEL_PAYMENT, paymentId).getBody();
+        GlobalScaResponseTO response = auth.callWithAccessToken(requireNonNull(validateScaCode).getBearerToken().getAccess_token(),
+                                                                () -> operationInitiationRestClient.execution(OpTypeTO.CANCEL_PAYMENT, paymentId).getBody());
         HttpStatus status = resolveStatus(paymentId, requireNonNull(response));
         return new ResponseEntity<>(status);
     }
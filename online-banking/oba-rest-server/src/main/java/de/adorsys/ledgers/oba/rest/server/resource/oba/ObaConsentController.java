@@ -18,22 +18,29 @@
 
 package de.adorsys.ledgers.oba.rest.server.resource.oba;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.ledgers.oba.rest.api.resource.oba.ObaConsentApi;
 import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
 import de.adorsys.ledgers.oba.rest.server.resource.AuthUtils;
 import de.adorsys.ledgers.oba.service.api.domain.CreatePiisConsentRequestTO;
 import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsent;
+import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsentCursorPage;
 import de.adorsys.ledgers.oba.service.api.domain.TppInfoTO;
 import de.adorsys.ledgers.oba.service.api.service.ConsentService;
 import de.adorsys.ledgers.oba.service.api.service.TppInfoCmsService;
 import de.adorsys.ledgers.util.domain.CustomPageImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import static de.adorsys.ledgers.oba.rest.api.resource.oba.ObaConsentApi.BASE_PATH;
@@ -44,9 +51,12 @@ import static org.springframework.http.HttpStatus.ACCEPTED;
 @RequestMapping(BASE_PATH)
 @RequiredArgsConstructor
 public class ObaConsentController implements ObaConsentApi {
+    private static final int STREAM_BATCH_SIZE = 500;
+
     private final ConsentService consentService;
     private final MiddlewareAuthentication auth;
     private final TppInfoCmsService tppInfoCmsService;
+    private final ObjectMapper objectMapper;
 
     @Override
     @PreAuthorize("#userLogin == authentication.principal.login")
@@ -60,6 +70,21 @@ public class ObaConsentController implements ObaConsentApi {
         return ResponseEntity.ok(consentService.getListOfConsentsPaged(userLogin, page, size));
     }
 
+    @Override
+    @PreAuthorize("#userLogin == authentication.principal.login")
+    public ResponseEntity<StreamingResponseBody> consentsStream(String userLogin) {
+        StreamingResponseBody body = out -> consentService.streamConsents(userLogin, STREAM_BATCH_SIZE, batch -> writeLines(out, batch));
+        return ResponseEntity.ok()
+                   .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                   .body(body);
+    }
+
+    @Override
+    @PreAuthorize("#userLogin == authentication.principal.login")
+    public ResponseEntity<ObaAisConsentCursorPage> consentsByCursor(String userLogin, String cursor, int size) {
+        return ResponseEntity.ok(consentService.getListOfConsentsByCursor(userLogin, cursor, size));
+    }
+
     @Override
     public ResponseEntity<Boolean> revokeConsent(String consentId) {
         return ResponseEntity.ok(consentService.revokeConsent(consentId));
@@ -81,4 +106,16 @@ public class ObaConsentController implements ObaConsentApi {
     public ResponseEntity<List<TppInfoTO>> tpps() {
         return ResponseEntity.ok(tppInfoCmsService.getTpps());
     }
+
+    private void writeLines(OutputStream out, List<ObaAisConsent> consents) {
+        try {
+            for (ObaAisConsent consent : consents) {
+                out.write(objectMapper.writeValueAsBytes(consent));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
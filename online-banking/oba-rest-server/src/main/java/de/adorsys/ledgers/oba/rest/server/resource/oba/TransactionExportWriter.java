@@ -0,0 +1,205 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.resource.oba;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.opencsv.CSVWriter;
+import de.adorsys.ledgers.middleware.api.domain.account.AccountReferenceTO;
+import de.adorsys.ledgers.middleware.api.domain.account.TransactionTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.AmountTO;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static de.adorsys.ledgers.oba.rest.api.resource.oba.ObaAisApi.CSV_VALUE;
+import static de.adorsys.ledgers.oba.rest.api.resource.oba.ObaAisApi.NDJSON_VALUE;
+
+/**
+ * Writes exported transactions batch by batch as a JSON array, newline delimited JSON or CSV,
+ * flushing after every batch so the client receives rows while the next page is read.
+ */
+abstract class TransactionExportWriter {
+    static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+    static final MediaType CSV = MediaType.parseMediaType(CSV_VALUE);
+    private static final List<MediaType> SUPPORTED = List.of(MediaType.APPLICATION_JSON, NDJSON, CSV);
+
+    protected final Writer writer;
+
+    private TransactionExportWriter(OutputStream out) {
+        this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param accept value of the Accept header, may be null
+     * @return the most preferred supported media type, JSON if the client accepts anything
+     */
+    static MediaType negotiate(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> requested = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(requested);
+        return requested.stream()
+                   .flatMap(r -> SUPPORTED.stream().filter(r::includes))
+                   .findFirst()
+                   .orElse(MediaType.APPLICATION_JSON);
+    }
+
+    static TransactionExportWriter of(MediaType mediaType, OutputStream out, ObjectMapper objectMapper) {
+        if (CSV.equalsTypeAndSubtype(mediaType)) {
+            return new CsvWriter(out);
+        }
+        return NDJSON.equalsTypeAndSubtype(mediaType)
+                   ? new NdjsonWriter(out, objectMapper)
+                   : new JsonArrayWriter(out, objectMapper);
+    }
+
+    void start() {
+        run(this::writeStart);
+    }
+
+    void write(List<TransactionTO> transactions) {
+        run(() -> {
+            for (TransactionTO transaction : transactions) {
+                writeTransaction(transaction);
+            }
+            writer.flush();
+        });
+    }
+
+    void finish() {
+        run(() -> {
+            writeEnd();
+            writer.flush();
+        });
+    }
+
+    protected void writeStart() throws IOException {
+    }
+
+    protected abstract void writeTransaction(TransactionTO transaction) throws IOException;
+
+    protected void writeEnd() throws IOException {
+    }
+
+    private static void run(IoAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    private static class JsonArrayWriter extends TransactionExportWriter {
+        private final ObjectWriter transactionWriter;
+        private boolean first = true;
+
+        JsonArrayWriter(OutputStream out, ObjectMapper objectMapper) {
+            super(out);
+            this.transactionWriter = objectMapper.writerFor(TransactionTO.class);
+        }
+
+        @Override
+        protected void writeStart() throws IOException {
+            writer.write('[');
+        }
+
+        @Override
+        protected void writeTransaction(TransactionTO transaction) throws IOException {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write(transactionWriter.writeValueAsString(transaction));
+        }
+
+        @Override
+        protected void writeEnd() throws IOException {
+            writer.write(']');
+        }
+    }
+
+    private static class NdjsonWriter extends TransactionExportWriter {
+        private final ObjectWriter transactionWriter;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) {
+            super(out);
+            this.transactionWriter = objectMapper.writerFor(TransactionTO.class);
+        }
+
+        @Override
+        protected void writeTransaction(TransactionTO transaction) throws IOException {
+            writer.write(transactionWriter.writeValueAsString(transaction));
+            writer.write('\n');
+        }
+    }
+
+    private static class CsvWriter extends TransactionExportWriter {
+        private static final String[] HEADER = {"transactionId", "bookingDate", "valueDate", "amount", "currency",
+            "creditorName", "creditorIban", "debtorName", "debtorIban", "remittanceInformationUnstructured", "endToEndId"};
+
+        private final CSVWriter csv;
+
+        CsvWriter(OutputStream out) {
+            super(out);
+            this.csv = new CSVWriter(writer);
+        }
+
+        @Override
+        protected void writeStart() {
+            csv.writeNext(HEADER);
+        }
+
+        @Override
+        protected void writeTransaction(TransactionTO t) {
+            Optional<AmountTO> amount = Optional.ofNullable(t.getAmount());
+            csv.writeNext(new String[]{
+                t.getTransactionId(),
+                Objects.toString(t.getBookingDate(), null),
+                Objects.toString(t.getValueDate(), null),
+                amount.map(AmountTO::getAmount).map(Object::toString).orElse(null),
+                amount.map(AmountTO::getCurrency).map(Object::toString).orElse(null),
+                t.getCreditorName(),
+                iban(t.getCreditorAccount()),
+                t.getDebtorName(),
+                iban(t.getDebtorAccount()),
+                t.getRemittanceInformationUnstructured(),
+                t.getEndToEndId()
+            });
+        }
+
+        private static String iban(AccountReferenceTO reference) {
+            return Optional.ofNullable(reference).map(AccountReferenceTO::getIban).orElse(null);
+        }
+    }
+}
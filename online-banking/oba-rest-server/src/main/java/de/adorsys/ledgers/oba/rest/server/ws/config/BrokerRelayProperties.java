@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * External STOMP broker shared by all instances. When disabled the in-memory simple broker of the instance is used.
+ * <p>
+ * The relay only routes messages to users connected at the time of sending. It refuses to start unless the
+ * undelivered-message store is shared between instances, see {@link de.adorsys.ledgers.oba.rest.server.ws.domain.UndeliveredMessageStore#isShared()};
+ * the shipped stores are node-local.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "oba.websocket.broker-relay")
+public class BrokerRelayProperties {
+    private boolean enabled = false;
+    private String host = "localhost";
+    private int port = 61613;
+    private String virtualHost;
+    private String clientLogin = "guest";
+    private String clientPasscode = "guest";
+    private String systemLogin = "guest";
+    private String systemPasscode = "guest";
+    /**
+     * Messages to users not connected to this instance are broadcast here for the other instances to resolve.
+     */
+    private String userDestinationBroadcast = "/topic/unresolved-user-destination";
+    /**
+     * Instances share their connected users here, see {@link org.springframework.messaging.simp.user.MultiServerUserRegistry}.
+     */
+    private String userRegistryBroadcast = "/topic/simp-user-registry";
+}
@@ -18,9 +18,12 @@
 
 package de.adorsys.ledgers.oba.rest.server.ws.config;
 
+import de.adorsys.ledgers.oba.rest.server.ws.domain.UndeliveredMessageStore;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -28,15 +31,43 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 import static de.adorsys.ledgers.oba.rest.server.ws.WebSocketConstants.WS_REGISTRY_URL;
 import static de.adorsys.ledgers.oba.rest.server.ws.WebSocketConstants.WS_SUBSCRIPTION_URL;
 
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
 public class SocketBrokerConfig implements WebSocketMessageBrokerConfigurer {
+    private static final String TCP_CLIENT_CLASS = "reactor.netty.tcp.TcpClient";
+
     private final CustomHandshakeHandler handler;
+    private final BrokerRelayProperties relay;
+    private final UndeliveredMessageStore undeliveredMessages;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.setApplicationDestinationPrefixes("/app")
-            .enableSimpleBroker(WS_SUBSCRIPTION_URL);
+        config.setApplicationDestinationPrefixes("/app");
+        if (!relay.isEnabled()) {
+            config.enableSimpleBroker(WS_SUBSCRIPTION_URL);
+            return;
+        }
+        if (!undeliveredMessages.isShared()) {
+            // a message queued here for an offline user would never reach it once it subscribes at another instance
+            throw new IllegalStateException("oba.websocket.broker-relay.enabled requires a shared oba.decoupled.undelivered.store, "
+                                                + undeliveredMessages.getClass().getSimpleName() + " keeps messages on this instance");
+        }
+        if (!ClassUtils.isPresent(TCP_CLIENT_CLASS, getClass().getClassLoader())) {
+            throw new IllegalStateException("oba.websocket.broker-relay.enabled requires io.projectreactor.netty:reactor-netty on the classpath");
+        }
+        log.info("Relaying decoupled notifications to STOMP broker {}:{}", relay.getHost(), relay.getPort());
+        config.enableStompBrokerRelay(WS_SUBSCRIPTION_URL)
+            .setRelayHost(relay.getHost())
+            .setRelayPort(relay.getPort())
+            .setVirtualHost(relay.getVirtualHost())
+            .setClientLogin(relay.getClientLogin())
+            .setClientPasscode(relay.getClientPasscode())
+            .setSystemLogin(relay.getSystemLogin())
+            .setSystemPasscode(relay.getSystemPasscode())
+            .setUserDestinationBroadcast(relay.getUserDestinationBroadcast())
+            .setUserRegistryBroadcast(relay.getUserRegistryBroadcast());
     }
 
     @Override
@@ -19,17 +19,28 @@
 package de.adorsys.ledgers.oba.rest.server.ws.controller;
 
 import de.adorsys.ledgers.oba.rest.api.resource.oba.ObaDecoupledAPI;
-import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
 import de.adorsys.ledgers.oba.rest.server.ws.domain.DecoupledContext;
+import de.adorsys.ledgers.oba.rest.server.ws.domain.DecoupledPushChannels;
+import de.adorsys.ledgers.oba.rest.server.ws.domain.DecoupledPushChannels.PushChannel;
 import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
 import de.adorsys.ledgers.oba.service.api.service.DecoupledService;
+import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static de.adorsys.ledgers.oba.rest.api.resource.oba.ObaDecoupledAPI.BASE_PATH;
 import static de.adorsys.ledgers.oba.rest.server.ws.WebSocketConstants.WS_SUBSCRIPTION_URL;
@@ -41,9 +52,15 @@ import static de.adorsys.ledgers.oba.rest.server.ws.WebSocketConstants.WS_SUBSCR
 public class DecoupledController implements ObaDecoupledAPI {
     private final SimpMessagingTemplate template;
     private final DecoupledContext context;
+    private final DecoupledPushChannels pushChannels;
     private final MiddlewareAuthentication authentication;
     private final DecoupledService decoupledService;
 
+    @Value("${oba.decoupled.push.stream-timeout-seconds:1800}")
+    private long streamTimeoutSeconds;
+    @Value("${oba.decoupled.push.poll-timeout-seconds:30}")
+    private long pollTimeoutSeconds;
+
     @Override
     public ResponseEntity<Boolean> decoupled(DecoupledConfRequest message) {
         log.info("Confirmation of decoupled operation: {}, id: {}, by: {}", message.getOpType().name(), message.getObjId(), message.getAddressedUser());
@@ -54,13 +71,84 @@ public class DecoupledController implements ObaDecoupledAPI {
     public ResponseEntity<Boolean> sendNotification(DecoupledConfRequest message) {
         message.setConfirmationUrl(BASE_PATH + "/execute");
         message.setHttpMethod(HttpMethod.POST);
-        if (context.checkUserIsConnected(message.getAddressedUser())) {
-            log.info("Sending decoupled notification to connected user: {}, operation type: {}, opId: {}", message.getAddressedUser(), message.getOpType().name(), message.getObjId());
-            template.convertAndSendToUser(message.getAddressedUser(), WS_SUBSCRIPTION_URL, message);
+        String user = message.getAddressedUser();
+        if (context.checkUserIsConnected(user)) {
+            log.info("Sending decoupled notification to connected user: {}, operation type: {}, opId: {}", user, message.getOpType().name(), message.getObjId());
+            template.convertAndSendToUser(user, WS_SUBSCRIPTION_URL, message);
+        } else if (pushChannels.deliver(user, Collections.singletonList(message))) {
+            log.info("Pushed decoupled notification to user: {}, operation type: {}, opId: {}", user, message.getOpType().name(), message.getObjId());
         } else {
-            log.info("User: {} is not connected! Adding received message to messages queue.", message.getAddressedUser());
-            context.addUndeliveredMessage(message.getAddressedUser(), message);
+            log.info("User: {} is not connected! Adding received message to messages queue.", user);
+            context.addUndeliveredMessage(user, message);
+            redeliverQueued(user);
         }
         return ResponseEntity.ok(true);
     }
+
+    @Override
+    public SseEmitter notificationStream() {
+        String login = currentLogin();
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(streamTimeoutSeconds));
+        PushChannel channel = messages -> send(emitter, messages);
+        Runnable unregister = () -> pushChannels.unregister(login, channel);
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(e -> unregister.run());
+        openChannel(login, channel);
+        return emitter;
+    }
+
+    @Override
+    public DeferredResult<ResponseEntity<List<DecoupledConfRequest>>> pollNotifications() {
+        String login = currentLogin();
+        DeferredResult<ResponseEntity<List<DecoupledConfRequest>>> result =
+            new DeferredResult<>(TimeUnit.SECONDS.toMillis(pollTimeoutSeconds), ResponseEntity.ok(Collections.emptyList()));
+        PushChannel channel = messages -> result.setResult(ResponseEntity.ok(messages));
+        result.onCompletion(() -> pushChannels.unregister(login, channel));
+        openChannel(login, channel);
+        return result;
+    }
+
+    /**
+     * The channel is registered before the queue is drained, so a notification arriving in between is either
+     * pushed to the channel or found in the queue.
+     */
+    private void openChannel(String login, PushChannel channel) {
+        pushChannels.register(login, channel);
+        List<DecoupledConfRequest> undelivered = context.drainUndeliveredMessages(login);
+        if (!undelivered.isEmpty() && !channel.push(undelivered)) {
+            undelivered.forEach(m -> context.addUndeliveredMessage(login, m));
+        }
+    }
+
+    private void redeliverQueued(String user) {
+        // the user may have subscribed or opened a push channel between the check and the add and missed the queued message
+        if (context.checkUserIsConnected(user)) {
+            context.drainUndeliveredMessages(user)
+                .forEach(m -> template.convertAndSendToUser(m.getAddressedUser(), WS_SUBSCRIPTION_URL, m));
+        } else if (pushChannels.isListening(user)) {
+            List<DecoupledConfRequest> undelivered = context.drainUndeliveredMessages(user);
+            if (!undelivered.isEmpty() && !pushChannels.deliver(user, undelivered)) {
+                undelivered.forEach(m -> context.addUndeliveredMessage(user, m));
+            }
+        }
+    }
+
+    private String currentLogin() {
+        return authentication.getBearerToken().getAccessTokenObject().getLogin();
+    }
+
+    private static boolean send(SseEmitter emitter, List<DecoupledConfRequest> messages) {
+        try {
+            for (DecoupledConfRequest message : messages) {
+                emitter.send(SseEmitter.event()
+                                 .name(NOTIFICATION_EVENT)
+                                 .data(message, MediaType.APPLICATION_JSON));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Decoupled notification stream closed: {}", e.getMessage());
+            return false;
+        }
+    }
 }
@@ -24,6 +24,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
@@ -50,11 +51,14 @@ public class DecoupledSessionListener {
                           .map(Principal::getName)
                           .orElse("UNKNOWN");
         log.info("User: {} connected", user);
-        List<DecoupledConfRequest> undeliveredMessages = context.getUndeliveredMessages(user);
+        Optional.ofNullable(event)
+            .filter(e -> e.getUser() != null)
+            .map(e -> SimpMessageHeaderAccessor.getSessionId(e.getMessage().getHeaders()))
+            .ifPresent(sessionId -> context.userSubscribed(sessionId, user));
+        List<DecoupledConfRequest> undeliveredMessages = context.drainUndeliveredMessages(user);
         if (CollectionUtils.isNotEmpty(undeliveredMessages)) {
             log.info("Delivering {} messages to recently connected user: {}", undeliveredMessages.size(), user);
             undeliveredMessages.forEach(m -> template.convertAndSendToUser(m.getAddressedUser(), WS_SUBSCRIPTION_URL, m));
-            context.clearUndeliveredMessages(user);
         }
     }
 
@@ -65,5 +69,8 @@ public class DecoupledSessionListener {
                           .map(Principal::getName)
                           .orElse("UNKNOWN");
         log.info("User {} disconnected", user);
+        Optional.ofNullable(event)
+            .map(SessionDisconnectEvent::getSessionId)
+            .ifPresent(context::sessionDisconnected);
     }
 }
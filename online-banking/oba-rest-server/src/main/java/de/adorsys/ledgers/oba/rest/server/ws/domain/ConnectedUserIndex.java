@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Logins with at least one subscribed WebSocket session, so decoupled notifications can check connectivity
+ * without scanning the {@link org.springframework.messaging.simp.user.SimpUserRegistry}.
+ * <p>
+ * Sessions are tracked by id: a session subscribing to several destinations is counted once and
+ * repeated disconnect events of one session are ignored.
+ */
+@Component
+public class ConnectedUserIndex implements MeterBinder {
+    private final ConcurrentMap<String, String> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> sessionsPerUser = new ConcurrentHashMap<>();
+
+    public void onSubscribe(String sessionId, String login) {
+        if (sessions.putIfAbsent(sessionId, login) == null) {
+            sessionsPerUser.merge(login, 1, Integer::sum);
+        }
+    }
+
+    public void onDisconnect(String sessionId) {
+        String login = sessions.remove(sessionId);
+        if (login != null) {
+            sessionsPerUser.computeIfPresent(login, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    public boolean isConnected(String login) {
+        return sessionsPerUser.containsKey(login);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("oba.decoupled.connected.users", sessionsPerUser, ConcurrentMap::size)
+            .description("Users with a subscribed WebSocket session")
+            .register(registry);
+        Gauge.builder("oba.decoupled.connected.sessions", sessions, ConcurrentMap::size)
+            .description("Subscribed WebSocket sessions")
+            .register(registry);
+    }
+}
@@ -18,41 +18,47 @@
 
 package de.adorsys.ledgers.oba.rest.server.ws.domain;
 
+import de.adorsys.ledgers.oba.rest.server.ws.config.BrokerRelayProperties;
 import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
-import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.user.SimpUser;
 import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
+import java.util.List;
 
-@Data
 @Component
 @RequiredArgsConstructor
 public class DecoupledContext {
-    private final Map<String, List<DecoupledConfRequest>> undeliveredDecoupledMessages = new HashMap<>();
+    private final UndeliveredMessageStore undeliveredMessages;
+    private final ConnectedUserIndex connectedUsers;
     private final SimpUserRegistry simpUserRegistry;
+    private final BrokerRelayProperties relay;
 
-    public List<DecoupledConfRequest> getUndeliveredMessages(String userLogin) {
-        return Optional.ofNullable(undeliveredDecoupledMessages.get(userLogin))
-                   .orElseGet(ArrayList::new);
+    /**
+     * Removes and returns the messages kept for the user while it was not connected.
+     */
+    public List<DecoupledConfRequest> drainUndeliveredMessages(String login) {
+        return undeliveredMessages.drain(login);
     }
 
-    public void addUndeliveredMessage(String login, DecoupledConfRequest message) {
-        List<DecoupledConfRequest> unsentMessages = getUndeliveredMessages(login);
-        unsentMessages.add(message);
-        undeliveredDecoupledMessages.put(login, unsentMessages);
+    public boolean addUndeliveredMessage(String login, DecoupledConfRequest message) {
+        return undeliveredMessages.add(login, message);
     }
 
-    public void clearUndeliveredMessages(String login) {
-        undeliveredDecoupledMessages.remove(login);
+    /**
+     * With a broker relay the registry also holds the users connected to the other instances,
+     * messages to them are routed through the broker.
+     */
+    public boolean checkUserIsConnected(String login) {
+        return connectedUsers.isConnected(login)
+                   || relay.isEnabled() && simpUserRegistry.getUser(login) != null;
     }
 
-    public boolean checkUserIsConnected(String login) {
-        return simpUserRegistry.getUsers().stream()
-                   .map(SimpUser::getName)
-                   .anyMatch(login::equals);
+    public void userSubscribed(String sessionId, String login) {
+        connectedUsers.onSubscribe(sessionId, login);
+    }
 
+    public void sessionDisconnected(String sessionId) {
+        connectedUsers.onDisconnect(sessionId);
     }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent event streams and pending long-polls of users receiving decoupled notifications without a
+ * STOMP session. A channel stays registered until it is closed, a long-poll closes itself after one delivery.
+ */
+@Component
+public class DecoupledPushChannels implements MeterBinder {
+    private final ConcurrentMap<String, Set<PushChannel>> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger channelCount = new AtomicInteger();
+
+    public void register(String login, PushChannel channel) {
+        channels.compute(login, (k, registered) -> {
+            Set<PushChannel> target = registered == null ? ConcurrentHashMap.newKeySet() : registered;
+            if (target.add(channel)) {
+                channelCount.incrementAndGet();
+            }
+            return target;
+        });
+    }
+
+    public void unregister(String login, PushChannel channel) {
+        channels.computeIfPresent(login, (k, registered) -> {
+            if (registered.remove(channel)) {
+                channelCount.decrementAndGet();
+            }
+            return registered.isEmpty() ? null : registered;
+        });
+    }
+
+    public boolean isListening(String login) {
+        return channels.containsKey(login);
+    }
+
+    /**
+     * Pushes the messages to every open channel of the user.
+     *
+     * @return {@code false} if no channel accepted the messages
+     */
+    public boolean deliver(String login, List<DecoupledConfRequest> messages) {
+        Set<PushChannel> registered = channels.get(login);
+        if (registered == null) {
+            return false;
+        }
+        boolean delivered = false;
+        for (PushChannel channel : registered) {
+            delivered |= channel.push(messages);
+        }
+        return delivered;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("oba.decoupled.push.channels", channelCount, AtomicInteger::get)
+            .description("Open server-sent event streams and pending long-polls")
+            .register(registry);
+        Gauge.builder("oba.decoupled.push.users", channels, ConcurrentMap::size)
+            .description("Users with an open server-sent event stream or pending long-poll")
+            .register(registry);
+    }
+
+    @FunctionalInterface
+    public interface PushChannel {
+
+        /**
+         * @return {@code false} if the channel is closed and did not take the messages
+         */
+        boolean push(List<DecoupledConfRequest> messages);
+    }
+}
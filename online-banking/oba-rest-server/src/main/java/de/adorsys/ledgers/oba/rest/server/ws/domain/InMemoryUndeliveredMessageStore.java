@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Node-local {@link UndeliveredMessageStore}.
+ * <p>
+ * Every message expires together with its authorisation ({@link DecoupledConfRequest#getAuthorizationTTL()}).
+ * When a user queue is full its oldest message is dropped; when the store is full new messages are dropped.
+ * All mutations of a user queue happen inside the map's per-key compute, so adding and draining never race.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "oba.decoupled.undelivered.store", havingValue = "local", matchIfMissing = true)
+public class InMemoryUndeliveredMessageStore implements UndeliveredMessageStore, MeterBinder {
+    private final ConcurrentMap<String, Deque<UndeliveredMessage>> messages = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong nextSweepAt = new AtomicLong();
+    private final int maxPerUser;
+    private final int maxTotal;
+    private final long defaultTtlMillis;
+    private final long sweepIntervalMillis;
+    private final LongSupplier clock;
+
+    @Autowired
+    public InMemoryUndeliveredMessageStore(@Value("${oba.decoupled.undelivered.max-per-user:20}") int maxPerUser,
+                                           @Value("${oba.decoupled.undelivered.max-total:10000}") int maxTotal,
+                                           @Value("${oba.decoupled.undelivered.default-ttl-seconds:300}") long defaultTtlSeconds,
+                                           @Value("${oba.decoupled.undelivered.sweep-interval-seconds:60}") long sweepIntervalSeconds) {
+        this(maxPerUser, maxTotal, defaultTtlSeconds, sweepIntervalSeconds, System::currentTimeMillis);
+    }
+
+    InMemoryUndeliveredMessageStore(int maxPerUser, int maxTotal, long defaultTtlSeconds, long sweepIntervalSeconds, LongSupplier clock) {
+        this.maxPerUser = maxPerUser;
+        this.maxTotal = maxTotal;
+        this.defaultTtlMillis = TimeUnit.SECONDS.toMillis(defaultTtlSeconds);
+        this.sweepIntervalMillis = TimeUnit.SECONDS.toMillis(sweepIntervalSeconds);
+        this.clock = clock;
+        this.nextSweepAt.set(clock.getAsLong() + sweepIntervalMillis);
+    }
+
+    @Override
+    public boolean add(String login, DecoupledConfRequest message) {
+        return add(login, message, expiresAt(message));
+    }
+
+    boolean add(String login, DecoupledConfRequest message, long expiresAt) {
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        UndeliveredMessage entry = new UndeliveredMessage(message, expiresAt);
+        boolean[] added = {false};
+        messages.compute(login, (k, queue) -> {
+            Deque<UndeliveredMessage> target = queue == null ? new ArrayDeque<>() : queue;
+            removeExpired(target, now);
+            if (target.size() >= maxPerUser) {
+                target.pollFirst();
+                size.decrementAndGet();
+                dropped.incrementAndGet();
+                log.warn("Undelivered message queue of user: {} is full, dropping the oldest message", login);
+            }
+            if (size.incrementAndGet() > maxTotal) {
+                size.decrementAndGet();
+            } else {
+                target.addLast(entry);
+                added[0] = true;
+            }
+            return target.isEmpty() ? null : target;
+        });
+        if (!added[0]) {
+            dropped.incrementAndGet();
+            log.warn("Undelivered message store is full, dropping message: {} for user: {}", message.getObjId(), login);
+        }
+        return added[0];
+    }
+
+    @Override
+    public List<DecoupledConfRequest> drain(String login) {
+        Deque<UndeliveredMessage> queue = messages.remove(login);
+        if (queue == null) {
+            return Collections.emptyList();
+        }
+        removeExpired(queue, clock.getAsLong());
+        size.addAndGet(-queue.size());
+        List<DecoupledConfRequest> result = new ArrayList<>(queue.size());
+        queue.forEach(m -> result.add(m.getMessage()));
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    long expiresAt(DecoupledConfRequest message) {
+        return clock.getAsLong() + ttlMillis(message);
+    }
+
+    /**
+     * Visits the not yet expired messages, each user queue is visited while no other thread can modify it.
+     */
+    void forEach(MessageVisitor visitor) {
+        long now = clock.getAsLong();
+        messages.keySet().forEach(login -> messages.computeIfPresent(login, (k, queue) -> {
+            queue.stream()
+                .filter(m -> m.getExpiresAt() > now)
+                .forEach(m -> visitor.visit(login, m.getMessage(), m.getExpiresAt()));
+            return queue;
+        }));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("oba.decoupled.undelivered.messages", size, AtomicInteger::get)
+            .description("Decoupled notifications waiting for their user to subscribe")
+            .register(registry);
+        Gauge.builder("oba.decoupled.undelivered.users", messages, ConcurrentMap::size)
+            .description("Users with waiting decoupled notifications")
+            .register(registry);
+        FunctionCounter.builder("oba.decoupled.undelivered.dropped", dropped, AtomicLong::get)
+            .description("Decoupled notifications dropped because a queue was full")
+            .register(registry);
+        FunctionCounter.builder("oba.decoupled.undelivered.expired", expired, AtomicLong::get)
+            .description("Decoupled notifications expired before delivery")
+            .register(registry);
+    }
+
+    private long ttlMillis(DecoupledConfRequest message) {
+        return message.getAuthorizationTTL() > 0
+                   ? TimeUnit.SECONDS.toMillis(message.getAuthorizationTTL())
+                   : defaultTtlMillis;
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweepAt.get();
+        if (now < due || !nextSweepAt.compareAndSet(due, now + sweepIntervalMillis)) {
+            return;
+        }
+        messages.keySet().forEach(login -> messages.computeIfPresent(login, (k, queue) -> {
+            removeExpired(queue, now);
+            return queue.isEmpty() ? null : queue;
+        }));
+    }
+
+    private void removeExpired(Deque<UndeliveredMessage> queue, long now) {
+        Iterator<UndeliveredMessage> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getExpiresAt() <= now) {
+                iterator.remove();
+                size.decrementAndGet();
+                expired.incrementAndGet();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface MessageVisitor {
+        void visit(String login, DecoupledConfRequest message, long expiresAt);
+    }
+
+    @Data
+    private static class UndeliveredMessage {
+        private final DecoupledConfRequest message;
+        private final long expiresAt;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.ledgers.oba.rest.server.ws.domain.UndeliveredMessageJournal.JournalRecord;
+import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link UndeliveredMessageStore} surviving restarts: the messages are held by an {@link InMemoryUndeliveredMessageStore}
+ * and every change is appended to an {@link UndeliveredMessageJournal}, which is replayed and compacted on startup.
+ * <p>
+ * oba.decoupled.journal.sync-every trades durability for throughput: 1 forces every record to disk, larger values
+ * force every n records and 0 leaves flushing to the operating system. Journal write failures are logged and the
+ * message is still kept in memory. Only messages the memory store accepted are journaled.
+ * <p>
+ * Drained and expired records stay in the journal until it spans more than one segment and at least
+ * oba.decoupled.journal.compact-garbage-ratio of its records are garbage, so the live messages are rewritten
+ * once per that many changes rather than on every change.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "oba.decoupled.undelivered.store", havingValue = "journal")
+public class JournaledUndeliveredMessageStore implements UndeliveredMessageStore, MeterBinder, DisposableBean {
+    private final InMemoryUndeliveredMessageStore messages;
+    private final UndeliveredMessageJournal journal;
+    private final ObjectMapper mapper;
+    private final double compactGarbageRatio;
+    private final AtomicLong journalFailures = new AtomicLong();
+
+    @Autowired
+    public JournaledUndeliveredMessageStore(ObjectMapper mapper,
+                                            @Value("${oba.decoupled.journal.directory:./data/decoupled-journal}") String directory,
+                                            @Value("${oba.decoupled.journal.segment-size-mb:16}") int segmentSizeMb,
+                                            @Value("${oba.decoupled.journal.sync-every:1}") int syncEvery,
+                                            @Value("${oba.decoupled.journal.compact-garbage-ratio:0.5}") double compactGarbageRatio,
+                                            @Value("${oba.decoupled.undelivered.max-per-user:20}") int maxPerUser,
+                                            @Value("${oba.decoupled.undelivered.max-total:10000}") int maxTotal,
+                                            @Value("${oba.decoupled.undelivered.default-ttl-seconds:300}") long defaultTtlSeconds,
+                                            @Value("${oba.decoupled.undelivered.sweep-interval-seconds:60}") long sweepIntervalSeconds) {
+        this(mapper, Paths.get(directory), segmentSizeMb << 20, syncEvery, compactGarbageRatio,
+             new InMemoryUndeliveredMessageStore(maxPerUser, maxTotal, defaultTtlSeconds, sweepIntervalSeconds, System::currentTimeMillis),
+             System::currentTimeMillis);
+    }
+
+    JournaledUndeliveredMessageStore(ObjectMapper mapper, Path directory, int segmentSize, int syncEvery, double compactGarbageRatio,
+                                     InMemoryUndeliveredMessageStore messages, LongSupplier clock) {
+        this.mapper = mapper;
+        this.compactGarbageRatio = compactGarbageRatio;
+        this.messages = messages;
+        try {
+            this.journal = new UndeliveredMessageJournal(directory, segmentSize, syncEvery);
+            long now = clock.getAsLong();
+            journal.replay(record -> restore(record, now));
+            journal.compact(liveRecords());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover undelivered message journal at " + directory, e);
+        }
+        log.info("Recovered {} undelivered decoupled messages from journal {}", messages.size(), directory);
+    }
+
+    @Override
+    public synchronized boolean add(String login, DecoupledConfRequest message) {
+        long expiresAt = messages.expiresAt(message);
+        if (!messages.add(login, message, expiresAt)) {
+            return false;
+        }
+        try {
+            journal.append(JournalRecord.add(login, expiresAt, mapper.writeValueAsBytes(message)));
+        } catch (IOException e) {
+            journalFailures.incrementAndGet();
+            log.error("Could not journal decoupled message: {} for user: {}", message.getObjId(), login, e);
+        }
+        compactIfWasteful();
+        return true;
+    }
+
+    @Override
+    public synchronized List<DecoupledConfRequest> drain(String login) {
+        List<DecoupledConfRequest> drained = messages.drain(login);
+        if (!drained.isEmpty()) {
+            try {
+                journal.append(JournalRecord.drain(login));
+            } catch (IOException e) {
+                journalFailures.incrementAndGet();
+                log.error("Could not journal delivery of decoupled messages to user: {}", login, e);
+            }
+            compactIfWasteful();
+        }
+        return drained;
+    }
+
+    @Override
+    public int size() {
+        return messages.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        messages.bindTo(registry);
+        FunctionCounter.builder("oba.decoupled.journal.failures", journalFailures, AtomicLong::get)
+            .description("Undelivered message journal writes that failed")
+            .register(registry);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        journal.close();
+    }
+
+    private void restore(JournalRecord record, long now) {
+        if (record.getType() == UndeliveredMessageJournal.DRAIN) {
+            messages.drain(record.getLogin());
+        } else if (record.getExpiresAt() > now) {
+            try {
+                messages.add(record.getLogin(), mapper.readValue(record.getPayload(), DecoupledConfRequest.class), record.getExpiresAt());
+            } catch (IOException e) {
+                log.warn("Skipping unreadable journaled decoupled message for user: {}", record.getLogin());
+            }
+        }
+    }
+
+    /**
+     * Rewriting costs one record per live message, so it only pays off once the garbage outweighs them.
+     */
+    private void compactIfWasteful() {
+        long records = journal.recordCount();
+        if (journal.segmentCount() <= 1 || records - messages.size() < records * compactGarbageRatio) {
+            return;
+        }
+        try {
+            journal.compact(liveRecords());
+        } catch (IOException e) {
+            journalFailures.incrementAndGet();
+            log.error("Could not compact undelivered message journal", e);
+        }
+    }
+
+    private List<JournalRecord> liveRecords() {
+        List<JournalRecord> live = new ArrayList<>(messages.size());
+        messages.forEach((login, message, expiresAt) -> {
+            try {
+                live.add(JournalRecord.add(login, expiresAt, mapper.writeValueAsBytes(message)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return live;
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of memory mapped segment files.
+ * <p>
+ * Every record is stored as {@code length, crc32, type, expiresAt, login, payload}. Reading a segment stops at the
+ * first zero length or checksum mismatch, so a record torn by a crash is ignored. A full segment is continued in
+ * a new one.
+ * <p>
+ * {@link #compact(List)} writes the live records to new {@code .compact} segments, which replay ignores. Once they
+ * are on disk the manifest is atomically replaced with their first sequence number; that is the commit point.
+ * Only then are they renamed to regular segments and the older segments deleted. Recovery finishes or discards
+ * an interrupted compaction depending on the manifest, so a crash never replays a message twice.
+ * Not thread-safe, callers serialize access.
+ */
+@Slf4j
+class UndeliveredMessageJournal implements Closeable {
+    static final byte ADD = 1;
+    static final byte DRAIN = 2;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final String MANIFEST = "journal.manifest";
+    private static final int RECORD_HEADER = Integer.BYTES * 2;
+    private static final int BODY_HEADER = 1 + Long.BYTES + Short.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int syncEvery;
+    private long sequence;
+    private int segmentCount;
+    private long recordCount;
+    private MappedByteBuffer current;
+    private int unsynced;
+    private String rollSuffix = SEGMENT_SUFFIX;
+    private final List<Path> compacting = new ArrayList<>();
+
+    UndeliveredMessageJournal(Path directory, int segmentSize, int syncEvery) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.syncEvery = syncEvery;
+        recover();
+        List<Path> segments = segments(SEGMENT_SUFFIX);
+        this.sequence = Math.max(readManifest(), segments.isEmpty() ? 0 : sequenceOf(segments.get(segments.size() - 1)));
+        this.segmentCount = segments.size();
+    }
+
+    /**
+     * Reads the complete records of all segments in the order they were written.
+     */
+    void replay(Consumer<JournalRecord> handler) throws IOException {
+        recordCount = 0;
+        for (Path segment : segments(SEGMENT_SUFFIX)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), handler.andThen(r -> recordCount++));
+            }
+        }
+    }
+
+    void append(JournalRecord record) throws IOException {
+        byte[] login = record.getLogin().getBytes(StandardCharsets.UTF_8);
+        int length = BODY_HEADER + login.length + record.getPayload().length;
+        if (RECORD_HEADER + length > segmentSize) {
+            throw new IOException("Journal record of " + length + " bytes exceeds the segment size");
+        }
+        if (current == null || current.remaining() < RECORD_HEADER + length) {
+            roll();
+        }
+        ByteBuffer body = ByteBuffer.allocate(length)
+                              .put(record.getType())
+                              .putLong(record.getExpiresAt())
+                              .putShort((short) login.length)
+                              .put(login)
+                              .putInt(record.getPayload().length)
+                              .put(record.getPayload());
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        current.putInt(length)
+            .putInt((int) crc.getValue())
+            .put(body.array());
+        unsynced++;
+        recordCount++;
+        if (syncEvery > 0 && unsynced >= syncEvery) {
+            sync();
+        }
+    }
+
+    /**
+     * Replaces all segments by new ones holding only the live records. If it fails, the journal is left as before
+     * and appends continue in a fresh segment.
+     */
+    void compact(List<JournalRecord> live) throws IOException {
+        List<Path> obsolete = segments(SEGMENT_SUFFIX);
+        int obsoleteCount = segmentCount;
+        long obsoleteRecords = recordCount;
+        try {
+            rollSuffix = COMPACT_SUFFIX;
+            roll();
+            for (JournalRecord record : live) {
+                append(record);
+            }
+            sync();
+            writeManifest(sequenceOf(compacting.get(0)));
+        } catch (IOException e) {
+            abortCompaction();
+            recordCount = obsoleteRecords;
+            throw e;
+        } finally {
+            rollSuffix = SEGMENT_SUFFIX;
+        }
+        // last first, so the compact segments left by a crash in between still start at the manifest sequence
+        for (int i = compacting.size() - 1; i >= 0; i--) {
+            Path segment = compacting.get(i);
+            Files.move(segment, segmentPath(sequenceOf(segment), SEGMENT_SUFFIX));
+        }
+        compacting.clear();
+        for (Path segment : obsolete) {
+            Files.deleteIfExists(segment);
+        }
+        segmentCount -= obsoleteCount;
+        recordCount = live.size();
+        log.info("Compacted undelivered message journal to {} records", live.size());
+    }
+
+    int segmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Records in the segments, including drained and expired ones.
+     */
+    long recordCount() {
+        return recordCount;
+    }
+
+    void sync() {
+        if (current != null && unsynced > 0) {
+            current.force();
+            unsynced = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        sync();
+        current = null;
+    }
+
+    private void roll() throws IOException {
+        sync();
+        Path segment = segmentPath(++sequence, rollSuffix);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            current = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segmentCount++;
+        if (COMPACT_SUFFIX.equals(rollSuffix)) {
+            compacting.add(segment);
+        }
+    }
+
+    private void abortCompaction() throws IOException {
+        current = null;
+        unsynced = 0;
+        for (Path segment : compacting) {
+            Files.deleteIfExists(segment);
+        }
+        segmentCount -= compacting.size();
+        compacting.clear();
+    }
+
+    /**
+     * Compact segments starting at the manifest sequence were committed before a crash and replace the older
+     * segments; any other compact segments belong to a compaction that never committed.
+     */
+    private void recover() throws IOException {
+        long base = readManifest();
+        List<Path> compacted = segments(COMPACT_SUFFIX);
+        boolean committed = !compacted.isEmpty() && sequenceOf(compacted.get(0)) == base;
+        for (Path segment : compacted) {
+            if (committed) {
+                Files.move(segment, segmentPath(sequenceOf(segment), SEGMENT_SUFFIX));
+            } else {
+                Files.delete(segment);
+            }
+        }
+        for (Path segment : segments(SEGMENT_SUFFIX)) {
+            if (sequenceOf(segment) < base) {
+                Files.delete(segment);
+            }
+        }
+    }
+
+    private long readManifest() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        return Files.exists(manifest)
+                   ? Long.parseLong(new String(Files.readAllBytes(manifest), StandardCharsets.US_ASCII).trim())
+                   : 0;
+    }
+
+    private void writeManifest(long base) throws IOException {
+        Path next = directory.resolve(MANIFEST + ".tmp");
+        try (FileChannel channel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(Long.toString(base).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(next, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path segmentPath(long segmentSequence, String suffix) {
+        return directory.resolve(String.format("%020d%s", segmentSequence, suffix));
+    }
+
+    private List<Path> segments(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(suffix))
+                       .sorted()
+                       .collect(Collectors.toList());
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+
+    private static void read(ByteBuffer buffer, Consumer<JournalRecord> handler) {
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < BODY_HEADER || length > buffer.remaining()) {
+                return;
+            }
+            byte[] body = new byte[length];
+            buffer.get(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Skipping the rest of an undelivered message journal segment after a corrupt record");
+                return;
+            }
+            handler.accept(JournalRecord.of(ByteBuffer.wrap(body)));
+        }
+    }
+
+    @Data
+    static class JournalRecord {
+        private final byte type;
+        private final String login;
+        private final long expiresAt;
+        private final byte[] payload;
+
+        static JournalRecord add(String login, long expiresAt, byte[] payload) {
+            return new JournalRecord(ADD, login, expiresAt, payload);
+        }
+
+        static JournalRecord drain(String login) {
+            return new JournalRecord(DRAIN, login, 0, new byte[0]);
+        }
+
+        private static JournalRecord of(ByteBuffer body) {
+            byte type = body.get();
+            long expiresAt = body.getLong();
+            byte[] login = new byte[Short.toUnsignedInt(body.getShort())];
+            body.get(login);
+            byte[] payload = new byte[body.getInt()];
+            body.get(payload);
+            return new JournalRecord(type, new String(login, StandardCharsets.UTF_8), expiresAt, payload);
+        }
+    }
+}
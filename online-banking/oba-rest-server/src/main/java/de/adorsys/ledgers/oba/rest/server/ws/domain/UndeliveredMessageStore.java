@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
+
+import java.util.List;
+
+/**
+ * Decoupled notifications addressed to users without a WebSocket subscription, kept until the user subscribes.
+ * <p>
+ * The shipped implementations ("local" and "journal") keep the messages on the current instance. When several
+ * instances share a broker relay a user may subscribe at another instance than the one that queued its messages,
+ * so the relay only starts with an implementation that returns {@code true} from {@link #isShared()}; set
+ * oba.decoupled.undelivered.store to another value and register an implementation backed by a shared store.
+ */
+public interface UndeliveredMessageStore {
+
+    /**
+     * Queues a message until its user subscribes or its authorisation expires.
+     *
+     * @return {@code false} if the message was dropped because the store is full
+     */
+    boolean add(String login, DecoupledConfRequest message);
+
+    /**
+     * Atomically removes and returns all not yet expired messages of the user in the order they were added.
+     */
+    List<DecoupledConfRequest> drain(String login);
+
+    /**
+     * @return number of queued messages
+     */
+    int size();
+
+    /**
+     * @return {@code true} if messages queued at one instance can be drained at any other instance
+     */
+    default boolean isShared() {
+        return false;
+    }
+}
@@ -39,6 +39,7 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.HashSet;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -87,6 +88,18 @@ class JWTAuthenticationFilterTest {
         assertTrue(result);
     }
 
+    @Test
+    void shouldNotFilter_protectedUrl() {
+        // Given
+        when(request.getServletPath()).thenReturn("/api/v1/login/accounts");
+
+        // When
+        boolean result = filter.shouldNotFilter(request);
+
+        // Then
+        assertFalse(result);
+    }
+
     private BearerTokenTO getBearer() {
         AccessTokenTO token = new AccessTokenTO();
         token.setLogin("anton.brueckner");
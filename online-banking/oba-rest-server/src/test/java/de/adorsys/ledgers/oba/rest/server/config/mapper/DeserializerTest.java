@@ -21,24 +21,35 @@ package de.adorsys.ledgers.oba.rest.server.config.mapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.adorsys.ledgers.oba.service.api.domain.ObaCmsBulkPayment;
+import de.adorsys.ledgers.oba.service.api.domain.ObaCmsPeriodicPayment;
+import de.adorsys.ledgers.oba.service.api.domain.ObaCmsSinglePayment;
 import de.adorsys.psd2.consent.api.pis.BaseCmsPayment;
 import de.adorsys.psd2.consent.api.pis.CmsPaymentResponse;
 import de.adorsys.psd2.consent.api.pis.CmsSinglePayment;
+import de.adorsys.psd2.xs2a.core.profile.PaymentType;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.core.io.DefaultResourceLoader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DeserializerTest {
     private static final SimpleModule MODULE = new SimpleModule();
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     static {
-        MODULE.addDeserializer(BaseCmsPayment.class, new CmsPaymentDeserializer(MAPPER))
-            .addDeserializer(CmsSinglePayment.class, new CmsSinglePaymentDeserializer(MAPPER));
+        MODULE.addDeserializer(BaseCmsPayment.class, new CmsPaymentDeserializer())
+            .addDeserializer(CmsSinglePayment.class, new CmsSinglePaymentDeserializer());
         MAPPER.registerModule(MODULE)
             .registerModule(new JavaTimeModule());
     }
@@ -49,4 +60,75 @@ class DeserializerTest {
         CmsPaymentResponse result = MAPPER.readValue(stream, CmsPaymentResponse.class);
         assertNotNull(result);
     }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 1000})
+    void paymentDeserializer_bulkTypeAfterEntries(int entries) throws IOException {
+        // Given
+        String json = "{\"paymentId\":\"bulkId\",\"payments\":" + singlePayments(entries) + ",\"paymentType\":\"bulk-payments\",\"debtorName\":\"debtor\"}";
+
+        // When
+        BaseCmsPayment result = MAPPER.readValue(json, BaseCmsPayment.class);
+
+        // Then
+        assertTrue(result instanceof ObaCmsBulkPayment);
+        ObaCmsBulkPayment bulk = (ObaCmsBulkPayment) result;
+        assertEquals("bulkId", bulk.getPaymentId());
+        assertEquals("debtor", bulk.getDebtorName());
+        assertEquals(PaymentType.BULK, bulk.getPaymentType());
+        assertEquals(entries, bulk.getPayments().size());
+        assertTrue(bulk.getPayments().get(entries - 1) instanceof ObaCmsSinglePayment);
+        assertEquals("e2e-" + (entries - 1), bulk.getPayments().get(entries - 1).getEndToEndIdentification());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 1000})
+    void paymentDeserializer_bulkTypeFirst(int entries) throws IOException {
+        // Given
+        String json = "{\"paymentType\":\"bulk-payments\",\"paymentId\":\"bulkId\",\"payments\":" + singlePayments(entries) + "}";
+
+        // When
+        BaseCmsPayment result = MAPPER.readValue(json, BaseCmsPayment.class);
+
+        // Then
+        assertTrue(result instanceof ObaCmsBulkPayment);
+        assertEquals(entries, ((ObaCmsBulkPayment) result).getPayments().size());
+    }
+
+    @Test
+    void paymentDeserializer_single() throws IOException {
+        // When
+        BaseCmsPayment result = MAPPER.readValue("{\"paymentId\":\"singleId\",\"paymentType\":\"payments\",\"creditorName\":\"creditor\"}", BaseCmsPayment.class);
+
+        // Then
+        assertTrue(result instanceof ObaCmsSinglePayment);
+        assertEquals("singleId", result.getPaymentId());
+        assertEquals("creditor", ((ObaCmsSinglePayment) result).getCreditorName());
+    }
+
+    @Test
+    void paymentDeserializer_periodic() throws IOException {
+        // When
+        BaseCmsPayment result = MAPPER.readValue("{\"paymentType\":\"periodic-payments\",\"paymentId\":\"periodicId\"}", BaseCmsPayment.class);
+
+        // Then
+        assertTrue(result instanceof ObaCmsPeriodicPayment);
+        assertEquals("periodicId", result.getPaymentId());
+    }
+
+    @Test
+    void paymentDeserializer_missingType() {
+        assertThrows(IllegalStateException.class, () -> MAPPER.readValue("{\"paymentId\":\"id\"}", BaseCmsPayment.class));
+    }
+
+    @Test
+    void paymentDeserializer_unknownType() {
+        assertThrows(IllegalStateException.class, () -> MAPPER.readValue("{\"paymentType\":\"unknown\"}", BaseCmsPayment.class));
+    }
+
+    private static String singlePayments(int entries) {
+        return IntStream.range(0, entries)
+                   .mapToObj(i -> "{\"endToEndIdentification\":\"e2e-" + i + "\",\"creditorName\":\"creditor\",\"paymentType\":\"payments\"}")
+                   .collect(Collectors.joining(",", "[", "]"));
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.config.mapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.ledgers.middleware.api.domain.account.TransactionTO;
+import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
+import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
+import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
+import de.adorsys.ledgers.util.domain.CustomPageImpl;
+import de.adorsys.psd2.consent.api.ais.CmsAisConsentResponse;
+import de.adorsys.psd2.consent.api.pis.CmsPaymentResponse;
+import de.adorsys.psd2.xs2a.core.profile.PaymentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObaObjectMapperConfigTest {
+    private final ObjectMapper mapper = new ObaObjectMapperConfig().objectMapper(new Jackson2ObjectMapperBuilder());
+
+    @Test
+    void cmsPaymentResponse() throws IOException {
+        // Given
+        InputStream stream = new DefaultResourceLoader().getResource("CmsBulkResponse.json").getInputStream();
+
+        // When
+        CmsPaymentResponse result = mapper.readValue(stream, CmsPaymentResponse.class);
+
+        // Then
+        assertEquals("KFv0mqGbQUUo0xtEcKSV9E", result.getPayment().getPaymentId());
+        assertEquals(PaymentType.BULK, result.getPayment().getPaymentType());
+    }
+
+    @Test
+    void cmsAisConsentResponse() throws IOException {
+        // When
+        CmsAisConsentResponse result = mapper.readValue("{\"authorisationId\":\"authId\",\"tppOkRedirectUri\":\"ok\",\"tppNokRedirectUri\":\"nok\",\"unknown\":1}", CmsAisConsentResponse.class);
+
+        // Then
+        assertEquals("authId", result.getAuthorisationId());
+        assertEquals("nok", result.getTppNokRedirectUri());
+    }
+
+    @Test
+    void globalScaResponse() throws IOException {
+        // Given
+        GlobalScaResponseTO response = new GlobalScaResponseTO();
+        response.setOpType(OpTypeTO.PAYMENT);
+        response.setScaStatus(ScaStatusTO.PSUAUTHENTICATED);
+        response.setStatusDate(LocalDateTime.of(2020, 1, 1, 12, 0, 30));
+
+        // When
+        String json = mapper.writeValueAsString(response);
+        GlobalScaResponseTO result = mapper.readValue(json, GlobalScaResponseTO.class);
+
+        // Then
+        assertEquals(response.getStatusDate(), result.getStatusDate());
+        assertEquals(ScaStatusTO.PSUAUTHENTICATED, result.getScaStatus());
+    }
+
+    @Test
+    void transactionPage() throws IOException {
+        // Given
+        String json = "{\"number\":0,\"size\":1,\"nextPage\":true,\"content\":[{\"transactionId\":\"tr1\",\"bookingDate\":\"2020-01-02\"}]}";
+
+        // When
+        CustomPageImpl<TransactionTO> result = mapper.readValue(json, new TypeReference<CustomPageImpl<TransactionTO>>() {});
+
+        // Then
+        assertTrue(result.isNextPage());
+        assertEquals("tr1", result.getContent().get(0).getTransactionId());
+        assertEquals(LocalDate.of(2020, 1, 2), result.getContent().get(0).getBookingDate());
+    }
+}
@@ -30,7 +30,6 @@ import de.adorsys.ledgers.middleware.api.domain.um.AisAccountAccessInfoTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisConsentTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.ledgers.middleware.client.rest.AccountRestClient;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.OauthRestClient;
 import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
 import de.adorsys.ledgers.oba.service.api.domain.AuthorizeResponse;
@@ -39,13 +38,16 @@ import de.adorsys.ledgers.oba.service.api.domain.ConsentReference;
 import de.adorsys.ledgers.oba.service.api.domain.ConsentType;
 import de.adorsys.ledgers.oba.service.api.domain.ConsentWorkflow;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
+import de.adorsys.ledgers.oba.service.api.service.AccountListCacheService;
 import de.adorsys.ledgers.oba.service.api.service.AuthorizationService;
 import de.adorsys.ledgers.oba.service.api.service.RedirectConsentService;
 import de.adorsys.ledgers.oba.service.api.service.TokenAuthenticationService;
+import de.adorsys.ledgers.oba.service.api.service.WorkflowCacheService;
 import de.adorsys.psd2.consent.api.ais.AisAccountAccess;
 import de.adorsys.psd2.consent.api.ais.AisAccountConsentAuthorisation;
 import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
 import de.adorsys.psd2.consent.api.ais.CmsAisConsentResponse;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.consent.AisConsentRequestType;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
 import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
@@ -57,6 +59,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.internal.util.reflection.FieldSetter;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
@@ -70,6 +73,7 @@ import java.util.Collections;
 import java.util.Currency;
 import java.util.HashSet;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO.EXEMPTED;
 import static de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO.FINALISED;
@@ -125,10 +129,14 @@ class AISControllerTest {
     private MiddlewareAuthentication middlewareAuth;
     @Mock
     private AuthorizationService authService;
-    @Mock
-    private AuthRequestInterceptor authInterceptor;
+    @Spy
+    private ScopedAuthRequestInterceptor authInterceptor = new ScopedAuthRequestInterceptor();
     @Mock
     private TokenAuthenticationService authenticationService;
+    @Mock
+    private WorkflowCacheService workflowCache;
+    @Mock
+    private AccountListCacheService accountListCache;
 
 
     @Test
@@ -137,6 +145,7 @@ class AISControllerTest {
         when(redirectConsentService.identifyConsent(anyString(), anyString(), any())).thenReturn(getConsentWorkflow(PSUIDENTIFIED, ConsentStatus.RECEIVED));
         when(authenticationService.login(any(), any(), any())).thenReturn(getGlobalResponse());
         when(cmsPsuAisClient.updatePsuDataInConsent(anyString(), anyString(), anyString(), any())).thenReturn(ResponseEntity.ok(null));
+        when(accountListCache.getAccounts(any(), any(), any())).thenAnswer(i -> i.<Supplier<List<AccountDetailsTO>>>getArgument(2).get());
         when(accountRestClient.getListOfAccounts()).thenReturn(ResponseEntity.ok(new ArrayList<>()));
 
         // When
@@ -183,6 +192,7 @@ class AISControllerTest {
         FieldSetter.setField(controller, controller.getClass().getDeclaredField("middlewareAuth"), new MiddlewareAuthentication(null, getBearer(TOKEN)));
 
         when(redirectConsentService.identifyConsent(anyString(), anyString(), any())).thenReturn(getConsentWorkflow(PSUIDENTIFIED, ConsentStatus.RECEIVED));
+        when(accountListCache.getAccounts(any(), any(), any())).thenAnswer(i -> i.<Supplier<List<AccountDetailsTO>>>getArgument(2).get());
         when(accountRestClient.getListOfAccounts()).thenReturn(ResponseEntity.ok(new ArrayList<>()));
 
         // When
@@ -197,6 +207,7 @@ class AISControllerTest {
         // Given
         FieldSetter.setField(controller, controller.getClass().getDeclaredField("middlewareAuth"), new MiddlewareAuthentication(null, getBearer(TOKEN)));
         when(redirectConsentService.identifyConsent(anyString(), anyString(), any())).thenReturn(getConsentWorkflow(EXEMPTED, ConsentStatus.RECEIVED));
+        when(accountListCache.getAccounts(any(), any(), any())).thenAnswer(i -> i.<Supplier<List<AccountDetailsTO>>>getArgument(2).get());
         when(accountRestClient.getListOfAccounts()).thenReturn(ResponseEntity.ok(new ArrayList<>()));
 
         // When
@@ -211,6 +222,7 @@ class AISControllerTest {
         // Given
         FieldSetter.setField(controller, controller.getClass().getDeclaredField("middlewareAuth"), new MiddlewareAuthentication(null, getBearer(TOKEN)));
         when(redirectConsentService.identifyConsent(anyString(), anyString(), any())).thenReturn(getConsentWorkflow(RECEIVED, ConsentStatus.RECEIVED));
+        when(accountListCache.getAccounts(any(), any(), any())).thenAnswer(i -> i.<Supplier<List<AccountDetailsTO>>>getArgument(2).get());
         when(accountRestClient.getListOfAccounts()).thenReturn(ResponseEntity.ok(new ArrayList<>()));
 
         // When
@@ -266,6 +278,7 @@ class AISControllerTest {
         ConsentAuthorizeResponse consentAuthorizeResponse = getConsentAuthorizeResponse(true, true, false, FINALISED);
         consentAuthorizeResponse.setRedirectUrl(OK_URI);
         assertEquals(ResponseEntity.ok(consentAuthorizeResponse), result);
+        verify(accountListCache, times(1)).evict(LOGIN);
     }
 
     @Test
@@ -312,6 +325,8 @@ class AISControllerTest {
 
         // Then
         assertEquals(ResponseEntity.ok(getConsentAuthorizeResponse(false, false, true, ScaStatusTO.EXEMPTED)), result);
+        verify(workflowCache, times(1)).evict(ENCRYPTED_ID, AUTH_ID);
+        verify(accountListCache, times(1)).evict(LOGIN);
     }
 
     private List<AccountDetailsTO> getAccounts() {
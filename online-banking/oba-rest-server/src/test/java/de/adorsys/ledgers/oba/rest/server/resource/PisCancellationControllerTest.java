@@ -28,7 +28,6 @@ import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
 import de.adorsys.ledgers.oba.service.api.domain.ConsentReference;
 import de.adorsys.ledgers.oba.service.api.domain.ConsentType;
@@ -94,8 +93,6 @@ class PisCancellationControllerTest {
     @Mock
     private MiddlewareAuthentication middlewareAuth;
     @Mock
-    private AuthRequestInterceptor authInterceptor;
-    @Mock
     private TokenAuthenticationService authenticationService;
 
     @Test
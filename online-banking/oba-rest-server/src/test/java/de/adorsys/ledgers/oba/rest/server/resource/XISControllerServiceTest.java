@@ -40,6 +40,7 @@ import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.CmsAspspConsentDataService;
 import de.adorsys.ledgers.oba.service.api.service.CommonPaymentService;
 import de.adorsys.ledgers.oba.service.api.service.ConsentReferencePolicy;
+import de.adorsys.ledgers.oba.service.api.service.WorkflowCacheService;
 import de.adorsys.psd2.consent.api.pis.CmsCommonPayment;
 import de.adorsys.psd2.consent.api.pis.CmsPaymentResponse;
 import org.adorsys.ledgers.consent.psu.rest.client.CmsPsuAisClient;
@@ -112,6 +113,8 @@ class XISControllerServiceTest {
     private CmsPsuAisClient cmsPsuAisClient;
     @Mock
     private CmsPsuPisClient cmsPsuPisClient;
+    @Mock
+    private WorkflowCacheService workflowCache;
 
     @Test
     void auth() throws NoSuchFieldException {
@@ -250,5 +253,6 @@ class XISControllerServiceTest {
         assertEquals(ObaErrorCode.LOGIN_FAILED, obaException.getObaErrorCode());
         assertEquals("Login Failed!\n You've exceeded login attempts limit for current session. Please open new Authorization session", obaException.getDevMessage());
         verify(cmsPsuAisClient, times(1)).updateAuthorisationStatus(any(), any(), any(), any(), any(), any(), any(), any(), any());
+        verify(workflowCache, times(1)).evict("id", AUTH_ID);
     }
 }
@@ -18,36 +18,52 @@
 
 package de.adorsys.ledgers.oba.rest.server.resource.oba;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.ledgers.middleware.api.domain.account.AccountDetailsTO;
 import de.adorsys.ledgers.middleware.api.domain.account.TransactionTO;
 import de.adorsys.ledgers.middleware.api.domain.account.UsageTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.TransactionStatusTO;
+import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
+import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.ledgers.middleware.client.rest.PaymentRestClient;
 import de.adorsys.ledgers.oba.service.api.service.AisService;
+import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.ledgers.util.domain.CustomPageImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static de.adorsys.ledgers.middleware.api.domain.account.AccountStatusTO.ENABLED;
 import static de.adorsys.ledgers.middleware.api.domain.account.AccountTypeTO.CASH;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ObaAisControllerTest {
     private static final String LOGIN = "anton.brueckner";
+    private static final String USER_ID = "userId";
     private static final String IBAN = "DE1234567890";
     private static final String PAYMENT_ID = "o2SA3pHkRqYpnHkGYGfJ_s";
     private static final String ACCOUNT_ID = "iZ4HeU0hQ-4vAqi8w7GD7Y";
@@ -59,11 +75,20 @@ class ObaAisControllerTest {
     private AisService aisService;
     @Mock
     private PaymentRestClient paymentRestClient;
+    @Mock
+    private MiddlewareAuthentication auth;
+    @Spy
+    private ScopedAuthRequestInterceptor authInterceptor = new ScopedAuthRequestInterceptor();
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
     @Test
     void accounts() {
         // Given
-        when(aisService.getAccounts(any())).thenReturn(Collections.singletonList(getAccountDetailsTO()));
+        AccessTokenTO token = new AccessTokenTO();
+        token.setSub(USER_ID);
+        when(auth.getBearerToken()).thenReturn(new BearerTokenTO(null, null, 999, null, token, new HashSet<>()));
+        when(aisService.getAccounts(any(), any())).thenReturn(Collections.singletonList(getAccountDetailsTO()));
 
         // When
         ResponseEntity<List<AccountDetailsTO>> response = obaAisController.accounts(LOGIN);
@@ -71,7 +96,7 @@ class ObaAisControllerTest {
         // Then
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertEquals(Objects.requireNonNull(response.getBody()).get(0), getAccountDetailsTO());
-        verify(aisService, times(1)).getAccounts(LOGIN);
+        verify(aisService, times(1)).getAccounts(LOGIN, USER_ID);
     }
 
     @Test
@@ -91,7 +116,10 @@ class ObaAisControllerTest {
     @Test
     void transactions() {
         // Given
-        when(aisService.getTransactions(any(), any(), any())).thenReturn(getTransactionList());
+        AccessTokenTO token = new AccessTokenTO();
+        token.setLogin(LOGIN);
+        when(auth.getBearerToken()).thenReturn(new BearerTokenTO(null, null, 999, null, token, new HashSet<>()));
+        when(aisService.getTransactions(any(), any(), any(), any())).thenReturn(getTransactionList());
 
         // When
         ResponseEntity<List<TransactionTO>> response = obaAisController.transactions(ACCOUNT_ID, LocalDate.now().minusDays(2), LocalDate.now());
@@ -99,7 +127,7 @@ class ObaAisControllerTest {
         // Then
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertEquals(response.getBody(), getTransactionList());
-        verify(aisService, times(1)).getTransactions(ACCOUNT_ID, LocalDate.now().minusDays(2), LocalDate.now());
+        verify(aisService, times(1)).getTransactions(LOGIN, ACCOUNT_ID, LocalDate.now().minusDays(2), LocalDate.now());
     }
 
     @Test
@@ -134,6 +162,77 @@ class ObaAisControllerTest {
         return new AccountDetailsTO(null, IBAN, null, null, null, null, CURRENCY, null, null, CASH, ENABLED, null, null, UsageTypeTO.PRIV, null, null, false, false, BigDecimal.ZERO, null);
     }
 
+    @Test
+    void exportTransactions_json() throws IOException {
+        // When
+        String body = export(null);
+
+        // Then
+        JsonNode transactions = objectMapper.readTree(body);
+        assertEquals(3, transactions.size());
+        assertEquals("t2", transactions.get(1).get("transactionId").asText());
+    }
+
+    @Test
+    void exportTransactions_ndjson() throws IOException {
+        // When
+        String body = export("application/x-ndjson");
+
+        // Then
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("t3", objectMapper.readTree(lines[2]).get("transactionId").asText());
+    }
+
+    @Test
+    void exportTransactions_csv() throws IOException {
+        // When
+        String body = export("text/csv;q=0.9, application/xml");
+
+        // Then
+        String[] lines = body.split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("\"transactionId\",\"bookingDate\""));
+        assertTrue(lines[1].startsWith("\"t1\",\"2020-01-01\""));
+    }
+
+    @Test
+    void exportTransactions_propagatesToken() throws IOException {
+        // Given
+        authInterceptor.setAccessToken("token");
+        List<String> tokens = new ArrayList<>();
+        doAnswer(i -> tokens.add(authInterceptor.getAccessToken())).when(aisService).streamTransactions(any(), any(), any(), anyInt(), any());
+        ResponseEntity<StreamingResponseBody> response = obaAisController.exportTransactions(ACCOUNT_ID, null, null, null);
+        authInterceptor.setAccessToken(null);
+
+        // When
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        // Then
+        assertEquals(Collections.singletonList("token"), tokens);
+        assertNull(authInterceptor.getAccessToken());
+    }
+
+    private String export(String accept) throws IOException {
+        doAnswer(i -> {
+            Consumer<List<TransactionTO>> consumer = i.getArgument(4);
+            consumer.accept(Arrays.asList(getTransactionTO("t1"), getTransactionTO("t2")));
+            consumer.accept(Collections.singletonList(getTransactionTO("t3")));
+            return null;
+        }).when(aisService).streamTransactions(eq(ACCOUNT_ID), any(), any(), anyInt(), any());
+        ResponseEntity<StreamingResponseBody> response = obaAisController.exportTransactions(ACCOUNT_ID, null, null, accept);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private TransactionTO getTransactionTO(String transactionId) {
+        TransactionTO transaction = new TransactionTO();
+        transaction.setTransactionId(transactionId);
+        transaction.setBookingDate(LocalDate.of(2020, 1, 1));
+        return transaction;
+    }
+
     private List<TransactionTO> getTransactionList() {
         return new ArrayList<>();
     }
@@ -18,12 +18,15 @@
 
 package de.adorsys.ledgers.oba.rest.server.resource.oba;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisConsentTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
 import de.adorsys.ledgers.oba.service.api.domain.CreatePiisConsentRequestTO;
+import de.adorsys.ledgers.oba.rest.api.resource.oba.ObaConsentApi;
 import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsent;
+import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsentCursorPage;
 import de.adorsys.ledgers.oba.service.api.domain.TppInfoTO;
 import de.adorsys.ledgers.oba.service.api.service.ConsentService;
 import de.adorsys.ledgers.oba.service.api.service.TppInfoCmsService;
@@ -32,17 +35,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.internal.util.reflection.FieldSetter;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -62,6 +75,8 @@ class ObaConsentControllerTest {
     private MiddlewareAuthentication auth;
     @Mock
     private TppInfoCmsService tppInfoCmsService;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
     void consents() {
@@ -75,6 +90,41 @@ class ObaConsentControllerTest {
         assertEquals(ResponseEntity.ok(getObaAisConsents()), response);
     }
 
+    @Test
+    void consentsStream() throws IOException {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<List<ObaAisConsent>> consumer = invocation.getArgument(2);
+            consumer.accept(getObaAisConsents());
+            consumer.accept(getObaAisConsents());
+            return null;
+        }).when(consentService).streamConsents(eq(LOGIN), anyInt(), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = controller.consentsStream(LOGIN);
+        response.getBody().writeTo(out);
+
+        // Then
+        assertEquals(ObaConsentApi.NDJSON_VALUE, response.getHeaders().getContentType().toString());
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(CONSENT_ID, objectMapper.readTree(lines[0]).get("encryptedConsent").asText());
+    }
+
+    @Test
+    void consentsByCursor() {
+        // Given
+        ObaAisConsentCursorPage page = new ObaAisConsentCursorPage(getObaAisConsents(), "next");
+        when(consentService.getListOfConsentsByCursor(LOGIN, null, 25)).thenReturn(page);
+
+        // When
+        ResponseEntity<ObaAisConsentCursorPage> response = controller.consentsByCursor(LOGIN, null, 25);
+
+        // Then
+        assertEquals(ResponseEntity.ok(page), response);
+    }
+
     private List<ObaAisConsent> getObaAisConsents() {
         return Collections.singletonList(new ObaAisConsent(CONSENT_ID, new CmsAisAccountConsent()));
     }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.config;
+
+import de.adorsys.ledgers.oba.rest.server.ws.domain.UndeliveredMessageStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+
+import static de.adorsys.ledgers.oba.rest.server.ws.WebSocketConstants.WS_SUBSCRIPTION_URL;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SocketBrokerConfigTest {
+    @InjectMocks
+    private SocketBrokerConfig config;
+
+    @Mock
+    private CustomHandshakeHandler handler;
+    @Spy
+    private BrokerRelayProperties relay = new BrokerRelayProperties();
+    @Mock
+    private UndeliveredMessageStore undeliveredMessages;
+    @Mock
+    private MessageBrokerRegistry registry;
+
+    @Test
+    void configureMessageBroker_simpleBroker() {
+        // When
+        config.configureMessageBroker(registry);
+
+        // Then
+        verify(registry).enableSimpleBroker(WS_SUBSCRIPTION_URL);
+        verify(registry, never()).enableStompBrokerRelay(any());
+    }
+
+    @Test
+    void configureMessageBroker_relayWithNodeLocalStore() {
+        // Given
+        when(relay.isEnabled()).thenReturn(true);
+        when(undeliveredMessages.isShared()).thenReturn(false);
+
+        // When
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> config.configureMessageBroker(registry));
+
+        // Then
+        assertTrue(exception.getMessage().contains("oba.decoupled.undelivered.store"));
+        verify(registry, never()).enableSimpleBroker(any());
+        verify(registry, never()).enableStompBrokerRelay(any());
+    }
+
+    @Test
+    void configureMessageBroker_relayWithoutTcpClient() {
+        // Given
+        when(relay.isEnabled()).thenReturn(true);
+        when(undeliveredMessages.isShared()).thenReturn(true);
+
+        // Then
+        assertThrows(IllegalStateException.class, () -> config.configureMessageBroker(registry));
+        verify(registry, never()).enableSimpleBroker(any());
+    }
+}
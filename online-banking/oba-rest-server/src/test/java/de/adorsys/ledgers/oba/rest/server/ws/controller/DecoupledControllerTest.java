@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.controller;
+
+import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
+import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
+import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
+import de.adorsys.ledgers.oba.rest.server.ws.domain.DecoupledContext;
+import de.adorsys.ledgers.oba.rest.server.ws.domain.DecoupledPushChannels;
+import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
+import de.adorsys.ledgers.oba.service.api.service.DecoupledService;
+import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.internal.util.reflection.FieldSetter;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collections;
+import java.util.List;
+
+import static de.adorsys.ledgers.oba.rest.server.ws.WebSocketConstants.WS_SUBSCRIPTION_URL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DecoupledControllerTest {
+    private static final String USER = "anton.brueckner";
+
+    @InjectMocks
+    private DecoupledController controller;
+
+    @Mock
+    private SimpMessagingTemplate template;
+    @Mock
+    private DecoupledContext context;
+    @Spy
+    private DecoupledPushChannels pushChannels = new DecoupledPushChannels();
+    @Mock
+    private MiddlewareAuthentication authentication;
+    @Mock
+    private DecoupledService decoupledService;
+
+    @BeforeEach
+    void setUp() throws NoSuchFieldException {
+        FieldSetter.setField(controller, controller.getClass().getDeclaredField("streamTimeoutSeconds"), 1800);
+        FieldSetter.setField(controller, controller.getClass().getDeclaredField("pollTimeoutSeconds"), 30);
+    }
+
+    @Test
+    void sendNotification_stompUser() {
+        // Given
+        DecoupledConfRequest message = getMessage();
+        when(context.checkUserIsConnected(USER)).thenReturn(true);
+
+        // When
+        controller.sendNotification(message);
+
+        // Then
+        verify(template).convertAndSendToUser(USER, WS_SUBSCRIPTION_URL, message);
+        verify(context, never()).addUndeliveredMessage(any(), any());
+    }
+
+    @Test
+    void sendNotification_notConnected() {
+        // Given
+        DecoupledConfRequest message = getMessage();
+
+        // When
+        controller.sendNotification(message);
+
+        // Then
+        verify(context).addUndeliveredMessage(USER, message);
+        verify(template, never()).convertAndSendToUser(any(), any(), any());
+    }
+
+    @Test
+    void pollNotifications_pushed() {
+        // Given
+        mockLogin();
+        when(context.drainUndeliveredMessages(USER)).thenReturn(Collections.emptyList());
+        DeferredResult<ResponseEntity<List<DecoupledConfRequest>>> result = controller.pollNotifications();
+        DecoupledConfRequest message = getMessage();
+
+        // When
+        controller.sendNotification(message);
+
+        // Then
+        assertTrue(result.hasResult());
+        assertEquals(List.of(message), getBody(result));
+        verify(context, never()).addUndeliveredMessage(any(), any());
+    }
+
+    @Test
+    void pollNotifications_queued() {
+        // Given
+        mockLogin();
+        DecoupledConfRequest message = getMessage();
+        when(context.drainUndeliveredMessages(USER)).thenReturn(List.of(message));
+
+        // When
+        DeferredResult<ResponseEntity<List<DecoupledConfRequest>>> result = controller.pollNotifications();
+
+        // Then
+        assertEquals(List.of(message), getBody(result));
+    }
+
+    @Test
+    void pollNotifications_answeredOnce() {
+        // Given
+        mockLogin();
+        when(context.drainUndeliveredMessages(USER)).thenReturn(List.of(getMessage()));
+        controller.pollNotifications();
+        DecoupledConfRequest message = getMessage();
+
+        // When
+        controller.sendNotification(message);
+
+        // Then
+        verify(context).addUndeliveredMessage(USER, message);
+    }
+
+    @Test
+    void notificationStream_pushed() {
+        // Given
+        mockLogin();
+        when(context.drainUndeliveredMessages(USER)).thenReturn(Collections.emptyList());
+
+        // When
+        SseEmitter emitter = controller.notificationStream();
+        controller.sendNotification(getMessage());
+
+        // Then
+        assertEquals(1_800_000L, emitter.getTimeout());
+        assertTrue(pushChannels.isListening(USER));
+        verify(context, never()).addUndeliveredMessage(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<DecoupledConfRequest> getBody(DeferredResult<ResponseEntity<List<DecoupledConfRequest>>> result) {
+        return ((ResponseEntity<List<DecoupledConfRequest>>) result.getResult()).getBody();
+    }
+
+    private void mockLogin() {
+        AccessTokenTO accessToken = new AccessTokenTO();
+        accessToken.setLogin(USER);
+        BearerTokenTO token = new BearerTokenTO();
+        token.setAccessTokenObject(accessToken);
+        when(authentication.getBearerToken()).thenReturn(token);
+    }
+
+    private static DecoupledConfRequest getMessage() {
+        DecoupledConfRequest message = new DecoupledConfRequest();
+        message.setObjId("paymentId");
+        message.setOpType(OpTypeTO.PAYMENT);
+        message.setAddressedUser(USER);
+        return message;
+    }
+}
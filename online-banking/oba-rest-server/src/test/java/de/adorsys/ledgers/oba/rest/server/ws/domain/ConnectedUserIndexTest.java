@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectedUserIndexTest {
+    private static final String USER = "anton.brueckner";
+
+    private final ConnectedUserIndex index = new ConnectedUserIndex();
+
+    @Test
+    void isConnected() {
+        // When
+        index.onSubscribe("session1", USER);
+
+        // Then
+        assertTrue(index.isConnected(USER));
+        assertFalse(index.isConnected("other"));
+    }
+
+    @Test
+    void onDisconnect_lastSession() {
+        // Given
+        index.onSubscribe("session1", USER);
+        index.onSubscribe("session2", USER);
+
+        // When
+        index.onDisconnect("session1");
+
+        // Then
+        assertTrue(index.isConnected(USER));
+        index.onDisconnect("session2");
+        assertFalse(index.isConnected(USER));
+    }
+
+    @Test
+    void onSubscribe_sameSessionTwice() {
+        // Given
+        index.onSubscribe("session1", USER);
+        index.onSubscribe("session1", USER);
+
+        // When
+        index.onDisconnect("session1");
+
+        // Then
+        assertFalse(index.isConnected(USER));
+    }
+
+    @Test
+    void onDisconnect_repeatedEvent() {
+        // Given
+        index.onSubscribe("session1", USER);
+        index.onSubscribe("session2", USER);
+
+        // When
+        index.onDisconnect("session1");
+        index.onDisconnect("session1");
+
+        // Then
+        assertTrue(index.isConnected(USER));
+    }
+
+    @Test
+    void manySessions() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        index.bindTo(registry);
+        int sessions = 50_000;
+
+        // When
+        IntStream.range(0, sessions).parallel().forEach(i -> index.onSubscribe("session" + i, "user" + i % 25_000));
+
+        // Then
+        assertEquals(25_000, registry.get("oba.decoupled.connected.users").gauge().value());
+        assertEquals(sessions, registry.get("oba.decoupled.connected.sessions").gauge().value());
+        assertTrue(IntStream.range(0, 25_000).allMatch(i -> index.isConnected("user" + i)));
+
+        IntStream.range(0, sessions).parallel().filter(i -> i % 2 == 0).forEach(i -> index.onDisconnect("session" + i));
+        assertEquals(12_500, registry.get("oba.decoupled.connected.users").gauge().value());
+
+        IntStream.range(0, sessions).parallel().forEach(i -> index.onDisconnect("session" + i));
+        assertEquals(0, registry.get("oba.decoupled.connected.users").gauge().value());
+        assertEquals(0, registry.get("oba.decoupled.connected.sessions").gauge().value());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import de.adorsys.ledgers.oba.rest.server.ws.config.BrokerRelayProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DecoupledContextTest {
+    private static final String USER = "anton.brueckner";
+
+    @InjectMocks
+    private DecoupledContext context;
+
+    @Mock
+    private UndeliveredMessageStore undeliveredMessages;
+    @Spy
+    private ConnectedUserIndex connectedUsers = new ConnectedUserIndex();
+    @Mock
+    private SimpUserRegistry simpUserRegistry;
+    @Spy
+    private BrokerRelayProperties relay = new BrokerRelayProperties();
+
+    @Test
+    void checkUserIsConnected_local() {
+        // Given
+        context.userSubscribed("session1", USER);
+
+        // Then
+        assertTrue(context.checkUserIsConnected(USER));
+        verify(simpUserRegistry, never()).getUser(any());
+    }
+
+    @Test
+    void checkUserIsConnected_simpleBroker_ignoresRegistry() {
+        assertFalse(context.checkUserIsConnected(USER));
+        verify(simpUserRegistry, never()).getUser(any());
+    }
+
+    @Test
+    void checkUserIsConnected_relay_otherInstance() {
+        // Given
+        relay.setEnabled(true);
+        when(simpUserRegistry.getUser(USER)).thenReturn(mock(SimpUser.class));
+
+        // Then
+        assertTrue(context.checkUserIsConnected(USER));
+        assertFalse(context.checkUserIsConnected("other"));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import de.adorsys.ledgers.oba.rest.server.ws.domain.DecoupledPushChannels.PushChannel;
+import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecoupledPushChannelsTest {
+    private static final String USER = "anton.brueckner";
+
+    private final DecoupledPushChannels channels = new DecoupledPushChannels();
+
+    @Test
+    void deliver_allChannels() {
+        // Given
+        List<DecoupledConfRequest> first = new ArrayList<>();
+        List<DecoupledConfRequest> second = new ArrayList<>();
+        channels.register(USER, first::addAll);
+        channels.register(USER, second::addAll);
+        DecoupledConfRequest message = new DecoupledConfRequest();
+
+        // When
+        boolean delivered = channels.deliver(USER, List.of(message));
+
+        // Then
+        assertTrue(delivered);
+        assertEquals(List.of(message), first);
+        assertEquals(List.of(message), second);
+    }
+
+    @Test
+    void deliver_closedChannel() {
+        // Given
+        channels.register(USER, messages -> false);
+
+        // Then
+        assertFalse(channels.deliver(USER, List.of(new DecoupledConfRequest())));
+    }
+
+    @Test
+    void deliver_noChannel() {
+        assertFalse(channels.deliver(USER, List.of(new DecoupledConfRequest())));
+    }
+
+    @Test
+    void unregister() {
+        // Given
+        PushChannel channel = messages -> true;
+        channels.register(USER, channel);
+
+        // When
+        channels.unregister(USER, channel);
+
+        // Then
+        assertFalse(channels.isListening(USER));
+    }
+
+    @Test
+    void manyIdleChannels() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        channels.bindTo(registry);
+        int users = 50_000;
+        List<PushChannel> registered = new ArrayList<>(users);
+        IntStream.range(0, users).forEach(i -> registered.add(messages -> true));
+
+        // When
+        IntStream.range(0, users).parallel().forEach(i -> channels.register("user" + i, registered.get(i)));
+
+        // Then
+        assertEquals(users, registry.get("oba.decoupled.push.channels").gauge().value());
+        assertTrue(channels.deliver("user4711", List.of(new DecoupledConfRequest())));
+        IntStream.range(0, users).parallel().forEach(i -> channels.unregister("user" + i, registered.get(i)));
+        assertEquals(0, registry.get("oba.decoupled.push.channels").gauge().value());
+        assertEquals(0, registry.get("oba.decoupled.push.users").gauge().value());
+    }
+}
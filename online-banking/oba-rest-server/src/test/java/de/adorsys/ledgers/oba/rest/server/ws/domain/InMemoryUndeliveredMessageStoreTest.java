@@ -0,0 +1,188 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUndeliveredMessageStoreTest {
+    private static final String USER = "anton.brueckner";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final InMemoryUndeliveredMessageStore store = new InMemoryUndeliveredMessageStore(3, 5, 300, 60, now::get);
+
+    @Test
+    void drain() {
+        // Given
+        store.add(USER, getMessage("1", 100));
+        store.add(USER, getMessage("2", 100));
+
+        // When
+        List<DecoupledConfRequest> result = store.drain(USER);
+
+        // Then
+        assertEquals(List.of("1", "2"), ids(result));
+        assertTrue(store.drain(USER).isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void drain_unknownUser() {
+        assertTrue(store.drain(USER).isEmpty());
+    }
+
+    @Test
+    void add_userQueueFull_dropsOldest() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+
+        // When
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(store.add(USER, getMessage(String.valueOf(i), 100)));
+        }
+
+        // Then
+        assertEquals(List.of("2", "3", "4"), ids(store.drain(USER)));
+        assertEquals(1, registry.get("oba.decoupled.undelivered.dropped").functionCounter().count());
+    }
+
+    @Test
+    void add_storeFull_dropsNew() {
+        // Given
+        store.add("user1", getMessage("1", 100));
+        store.add("user1", getMessage("2", 100));
+        store.add("user2", getMessage("3", 100));
+        store.add("user2", getMessage("4", 100));
+        store.add("user3", getMessage("5", 100));
+
+        // When
+        boolean added = store.add("user3", getMessage("6", 100));
+
+        // Then
+        assertFalse(added);
+        assertEquals(5, store.size());
+        assertEquals(List.of("5"), ids(store.drain("user3")));
+    }
+
+    @Test
+    void drain_expired() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+        store.add(USER, getMessage("1", 10));
+        store.add(USER, getMessage("2", 100));
+
+        // When
+        now.addAndGet(TimeUnit.SECONDS.toMillis(50));
+        List<DecoupledConfRequest> result = store.drain(USER);
+
+        // Then
+        assertEquals(List.of("2"), ids(result));
+        assertEquals(1, registry.get("oba.decoupled.undelivered.expired").functionCounter().count());
+        assertEquals(0, registry.get("oba.decoupled.undelivered.messages").gauge().value());
+    }
+
+    @Test
+    void add_withoutTtl_usesDefault() {
+        // Given
+        store.add(USER, getMessage("1", 0));
+
+        // When
+        now.addAndGet(TimeUnit.SECONDS.toMillis(299));
+        List<DecoupledConfRequest> result = store.drain(USER);
+
+        // Then
+        assertEquals(List.of("1"), ids(result));
+    }
+
+    @Test
+    void add_sweepsExpiredOfOtherUsers() {
+        // Given
+        store.add("user1", getMessage("1", 10));
+        store.add("user2", getMessage("2", 10));
+
+        // When
+        now.addAndGet(TimeUnit.SECONDS.toMillis(61));
+        store.add(USER, getMessage("3", 100));
+
+        // Then
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void add_drain_concurrently() throws Exception {
+        // Given
+        InMemoryUndeliveredMessageStore unbounded = new InMemoryUndeliveredMessageStore(100_000, 100_000, 300, 60, now::get);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        int perThread = 5_000;
+
+        // When
+        List<Future<?>> producers = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            producers.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    unbounded.add(USER, getMessage(String.valueOf(i), 100));
+                }
+            }));
+        }
+        Future<Integer> consumer = executor.submit(() -> {
+            int drained = 0;
+            while (!producers.stream().allMatch(Future::isDone)) {
+                drained += unbounded.drain(USER).size();
+            }
+            return drained + unbounded.drain(USER).size();
+        });
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        int drained = consumer.get();
+        executor.shutdown();
+
+        // Then
+        assertEquals(3 * perThread, drained);
+        assertEquals(0, unbounded.size());
+    }
+
+    private static List<String> ids(List<DecoupledConfRequest> messages) {
+        return messages.stream()
+                   .map(DecoupledConfRequest::getObjId)
+                   .collect(Collectors.toList());
+    }
+
+    private static DecoupledConfRequest getMessage(String objId, int ttl) {
+        DecoupledConfRequest message = new DecoupledConfRequest();
+        message.setObjId(objId);
+        message.setAddressedUser(USER);
+        message.setAuthorizationTTL(ttl);
+        return message;
+    }
+}
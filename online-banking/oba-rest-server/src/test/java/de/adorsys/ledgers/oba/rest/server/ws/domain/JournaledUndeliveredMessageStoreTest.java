@@ -0,0 +1,198 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournaledUndeliveredMessageStoreTest {
+    private static final String USER = "anton.brueckner";
+    private static final int SEGMENT_SIZE = 1 << 20;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restart_recoversMessages() {
+        // Given
+        JournaledUndeliveredMessageStore store = getStore(SEGMENT_SIZE, 1);
+        store.add(USER, getMessage("1", 100));
+        store.add(USER, getMessage("2", 100));
+        store.add("other", getMessage("3", 100));
+        store.destroy();
+
+        // When
+        JournaledUndeliveredMessageStore recovered = getStore(SEGMENT_SIZE, 1);
+
+        // Then
+        assertEquals(3, recovered.size());
+        assertEquals(List.of("1", "2"), ids(recovered.drain(USER)));
+        assertEquals(List.of("3"), ids(recovered.drain("other")));
+    }
+
+    @Test
+    void restart_skipsDrainedMessages() {
+        // Given
+        JournaledUndeliveredMessageStore store = getStore(SEGMENT_SIZE, 1);
+        store.add(USER, getMessage("1", 100));
+        store.drain(USER);
+        store.add(USER, getMessage("2", 100));
+        store.destroy();
+
+        // When
+        JournaledUndeliveredMessageStore recovered = getStore(SEGMENT_SIZE, 1);
+
+        // Then
+        assertEquals(List.of("2"), ids(recovered.drain(USER)));
+    }
+
+    @Test
+    void restart_skipsExpiredMessages() {
+        // Given
+        JournaledUndeliveredMessageStore store = getStore(SEGMENT_SIZE, 1);
+        store.add(USER, getMessage("1", 10));
+        store.add(USER, getMessage("2", 100));
+        store.destroy();
+        now.addAndGet(TimeUnit.SECONDS.toMillis(50));
+
+        // When
+        JournaledUndeliveredMessageStore recovered = getStore(SEGMENT_SIZE, 1);
+
+        // Then
+        assertEquals(List.of("2"), ids(recovered.drain(USER)));
+    }
+
+    @Test
+    void add_compactsFullSegments() throws IOException {
+        // Given
+        JournaledUndeliveredMessageStore store = getStore(4096, 0);
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            store.add(USER, getMessage(String.valueOf(i), 100));
+            if (i % 10 != 9) {
+                store.drain(USER);
+            }
+        }
+        store.destroy();
+
+        // Then
+        assertTrue(segments() <= 2);
+        JournaledUndeliveredMessageStore recovered = getStore(4096, 0);
+        assertEquals(List.of("999"), ids(recovered.drain(USER)));
+    }
+
+    @Test
+    void add_liveMessagesAreNotRewritten() throws IOException {
+        // Given
+        JournaledUndeliveredMessageStore store = getStore(4096, 0);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            store.add("user" + i, getMessage(String.valueOf(i), 100));
+        }
+        store.destroy();
+
+        // Then
+        assertTrue(segments() > 1);
+        assertEquals(100, getStore(4096, 0).size());
+    }
+
+    @Test
+    void add_rejectedMessageNotJournaled() {
+        // Given
+        JournaledUndeliveredMessageStore store = getStore(SEGMENT_SIZE, 1, 1);
+        store.add(USER, getMessage("1", 100));
+
+        // When
+        boolean added = store.add("other", getMessage("2", 100));
+        store.destroy();
+
+        // Then
+        assertFalse(added);
+        JournaledUndeliveredMessageStore recovered = getStore(SEGMENT_SIZE, 1, 100);
+        assertEquals(1, recovered.size());
+        assertEquals(List.of("1"), ids(recovered.drain(USER)));
+    }
+
+    @Test
+    void restart_manyMessages() {
+        // Given
+        int users = 10_000;
+        JournaledUndeliveredMessageStore store = getStore(SEGMENT_SIZE, 0);
+        for (int i = 0; i < users; i++) {
+            store.add("user" + i, getMessage(String.valueOf(i), 100));
+        }
+        store.destroy();
+
+        // When
+        JournaledUndeliveredMessageStore recovered = getStore(SEGMENT_SIZE, 0);
+
+        // Then
+        assertEquals(users, recovered.size());
+        assertEquals(List.of("4711"), ids(recovered.drain("user4711")));
+    }
+
+    private long segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.toString().endsWith(".journal")).count();
+        }
+    }
+
+    private JournaledUndeliveredMessageStore getStore(int segmentSize, int syncEvery) {
+        return getStore(segmentSize, syncEvery, 100_000);
+    }
+
+    private JournaledUndeliveredMessageStore getStore(int segmentSize, int syncEvery, int maxTotal) {
+        InMemoryUndeliveredMessageStore messages = new InMemoryUndeliveredMessageStore(20, maxTotal, 300, 60, now::get);
+        return new JournaledUndeliveredMessageStore(mapper, directory, segmentSize, syncEvery, 0.5, messages, now::get);
+    }
+
+    private static List<String> ids(List<DecoupledConfRequest> messages) {
+        return messages.stream()
+                   .map(DecoupledConfRequest::getObjId)
+                   .collect(Collectors.toList());
+    }
+
+    private static DecoupledConfRequest getMessage(String objId, int ttl) {
+        DecoupledConfRequest message = new DecoupledConfRequest();
+        message.setObjId(objId);
+        message.setAddressedUser(USER);
+        message.setAuthorizationTTL(ttl);
+        return message;
+    }
+}
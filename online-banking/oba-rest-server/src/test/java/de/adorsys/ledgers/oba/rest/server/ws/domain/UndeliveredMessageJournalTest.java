@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.rest.server.ws.domain;
+
+import de.adorsys.ledgers.oba.rest.server.ws.domain.UndeliveredMessageJournal.JournalRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UndeliveredMessageJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay() throws IOException {
+        // Given
+        UndeliveredMessageJournal journal = new UndeliveredMessageJournal(directory, 4096, 1);
+        journal.append(JournalRecord.add("user", 42, payload("first")));
+        journal.append(JournalRecord.drain("user"));
+        journal.close();
+
+        // When
+        List<JournalRecord> records = readAll();
+
+        // Then
+        assertEquals(2, records.size());
+        assertEquals(UndeliveredMessageJournal.ADD, records.get(0).getType());
+        assertEquals("user", records.get(0).getLogin());
+        assertEquals(42, records.get(0).getExpiresAt());
+        assertEquals("first", new String(records.get(0).getPayload(), StandardCharsets.UTF_8));
+        assertEquals(UndeliveredMessageJournal.DRAIN, records.get(1).getType());
+        assertEquals("user", records.get(1).getLogin());
+    }
+
+    @Test
+    void replay_stopsAtCorruptRecord() throws IOException {
+        // Given
+        UndeliveredMessageJournal journal = new UndeliveredMessageJournal(directory, 4096, 1);
+        journal.append(JournalRecord.add("user", 42, payload("first")));
+        journal.append(JournalRecord.add("user", 42, payload("second")));
+        journal.close();
+        try (RandomAccessFile file = new RandomAccessFile(segment().toFile(), "rw")) {
+            // inside the payload of the second record, the first one takes 32 bytes
+            file.seek(50);
+            file.write('X');
+        }
+
+        // When
+        List<JournalRecord> records = readAll();
+
+        // Then
+        assertEquals(1, records.size());
+    }
+
+    @Test
+    void append_rollsSegment() throws IOException {
+        // Given
+        UndeliveredMessageJournal journal = new UndeliveredMessageJournal(directory, 256, 0);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            journal.append(JournalRecord.add("user", i, payload("message " + i)));
+        }
+        journal.close();
+
+        // Then
+        assertEquals(2, journal.segmentCount());
+        assertEquals(10, readAll().size());
+    }
+
+    @Test
+    void append_recordTooLarge() throws IOException {
+        UndeliveredMessageJournal journal = new UndeliveredMessageJournal(directory, 64, 0);
+        JournalRecord record = JournalRecord.add("user", 42, new byte[64]);
+
+        assertThrows(IOException.class, () -> journal.append(record));
+    }
+
+    @Test
+    void compact() throws IOException {
+        // Given
+        UndeliveredMessageJournal journal = new UndeliveredMessageJournal(directory, 256, 0);
+        for (int i = 0; i < 10; i++) {
+            journal.append(JournalRecord.add("user", i, payload("message " + i)));
+        }
+
+        // When
+        journal.compact(List.of(JournalRecord.add("user", 9, payload("message 9"))));
+        journal.close();
+
+        // Then
+        assertEquals(1, journal.segmentCount());
+        assertEquals(1, readAll().size());
+    }
+
+    @Test
+    void recover_discardsUncommittedCompaction() throws IOException {
+        // Given
+        UndeliveredMessageJournal journal = new UndeliveredMessageJournal(directory, 4096, 1);
+        journal.append(JournalRecord.add("user", 42, payload("first")));
+        journal.close();
+        Files.copy(segment(), directory.resolve(String.format("%020d.compact", 2)));
+
+        // When
+        List<JournalRecord> records = readAll();
+
+        // Then
+        assertEquals(1, records.size());
+        assertEquals(List.of(String.format("%020d.journal", 1)), files());
+    }
+
+    @Test
+    void recover_finishesCommittedCompaction() throws IOException {
+        // Given
+        UndeliveredMessageJournal journal = new UndeliveredMessageJournal(directory, 4096, 1);
+        journal.append(JournalRecord.add("user", 42, payload("first")));
+        journal.close();
+        Files.copy(segment(), directory.resolve(String.format("%020d.compact", 2)));
+        Files.write(directory.resolve("journal.manifest"), "2".getBytes(StandardCharsets.US_ASCII));
+
+        // When
+        List<JournalRecord> records = readAll();
+
+        // Then
+        assertEquals(1, records.size());
+        assertEquals(List.of(String.format("%020d.journal", 2), "journal.manifest"), files());
+    }
+
+    @Test
+    void compact_continuesAfterCommittedSegments() throws IOException {
+        // Given
+        UndeliveredMessageJournal journal = new UndeliveredMessageJournal(directory, 256, 0);
+        journal.append(JournalRecord.add("user", 1, payload("message 1")));
+        journal.compact(List.of(JournalRecord.add("user", 1, payload("message 1"))));
+
+        // When
+        journal.append(JournalRecord.drain("user"));
+        journal.close();
+
+        // Then
+        assertEquals(2, journal.recordCount());
+        assertEquals(2, readAll().size());
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(f -> f.getFileName().toString())
+                       .sorted()
+                       .collect(Collectors.toList());
+        }
+    }
+
+    private List<JournalRecord> readAll() throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        new UndeliveredMessageJournal(directory, 4096, 0).replay(records::add);
+        return records;
+    }
+
+    private Path segment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
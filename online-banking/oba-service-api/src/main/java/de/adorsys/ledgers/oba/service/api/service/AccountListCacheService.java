@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.api.service;
+
+import de.adorsys.ledgers.middleware.api.domain.account.AccountDetailsTO;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived snapshot of the account list of a PSU, shared by the steps of one authorisation and the
+ * online banking account view, so the list is not fetched from ledgers on every step.
+ */
+public interface AccountListCacheService {
+
+    /**
+     * @param login        login of the PSU
+     * @param tokenSubject subject of the access token the accounts are loaded with
+     * @param loader       loads the accounts from ledgers if no snapshot is present
+     * @return account list of the PSU
+     */
+    List<AccountDetailsTO> getAccounts(String login, String tokenSubject, Supplier<List<AccountDetailsTO>> loader);
+
+    /**
+     * Drops all snapshots of the PSU, e.g. when an authorisation is completed or revoked.
+     *
+     * @param login login of the PSU
+     */
+    void evict(String login);
+}
@@ -24,13 +24,20 @@ import de.adorsys.ledgers.util.domain.CustomPageImpl;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AisService {
-    List<AccountDetailsTO> getAccounts(String userLogin);
+    List<AccountDetailsTO> getAccounts(String userLogin, String tokenSubject);
 
-    List<TransactionTO> getTransactions(String accountId, LocalDate dateFrom, LocalDate dateTo);
+    List<TransactionTO> getTransactions(String userLogin, String accountId, LocalDate dateFrom, LocalDate dateTo);
 
     CustomPageImpl<TransactionTO> getTransactions(String accountId, LocalDate dateFrom, LocalDate dateTo, int page, int size);
 
+    /**
+     * Reads the transactions of the date range page by page and hands each page to the consumer,
+     * so the whole range is never held in memory.
+     */
+    void streamTransactions(String accountId, LocalDate dateFrom, LocalDate dateTo, int batchSize, Consumer<List<TransactionTO>> batchConsumer);
+
     AccountDetailsTO getAccount(String accountId);
 }
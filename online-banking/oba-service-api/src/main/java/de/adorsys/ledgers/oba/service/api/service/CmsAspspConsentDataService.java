@@ -30,4 +30,6 @@ public interface CmsAspspConsentDataService {
     int updateLoginFailedCount(String encryptedId);
 
     boolean isFailedLogin(String encryptedId);
+
+    void resetLoginFailedCount(String encryptedId);
 }
@@ -20,9 +20,11 @@ package de.adorsys.ledgers.oba.service.api.service;
 
 import de.adorsys.ledgers.oba.service.api.domain.CreatePiisConsentRequestTO;
 import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsent;
+import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsentCursorPage;
 import de.adorsys.ledgers.util.domain.CustomPageImpl;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ConsentService {
     List<ObaAisConsent> getListOfConsents(String userLogin);
@@ -34,4 +36,14 @@ public interface ConsentService {
     void createPiisConsent(CreatePiisConsentRequestTO request, String psuId);
 
     CustomPageImpl<ObaAisConsent> getListOfConsentsPaged(String userLogin, int page, int size);
+
+    /**
+     * Pages through all consents of the user and hands them over batch by batch, so only one batch is held in memory.
+     */
+    void streamConsents(String userLogin, int batchSize, Consumer<List<ObaAisConsent>> batchConsumer);
+
+    /**
+     * @param cursor cursor returned with the previous page, null for the first page
+     */
+    ObaAisConsentCursorPage getListOfConsentsByCursor(String userLogin, String cursor, int size);
 }
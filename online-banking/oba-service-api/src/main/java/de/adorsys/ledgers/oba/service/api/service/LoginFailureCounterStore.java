@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.api.service;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Holds the number of failed login attempts per encrypted consent or payment id.
+ * <p>
+ * The default implementation keeps the counters in memory of the current instance. To share them between
+ * instances set oba.login-failure-counter.store to another value and register an implementation backed by
+ * a shared store.
+ */
+public interface LoginFailureCounterStore {
+
+    /**
+     * Returns the current number of failed attempts.
+     *
+     * @param encryptedId  the encrypted consent or payment id
+     * @param initialCount supplies the count for an id the store does not know yet, e.g. from the CMS audit copy
+     * @return number of failed attempts
+     */
+    int getFailedCount(String encryptedId, ToIntFunction<String> initialCount);
+
+    /**
+     * Atomically increments the number of failed attempts.
+     *
+     * @param encryptedId  the encrypted consent or payment id
+     * @param initialCount supplies the count for an id the store does not know yet, e.g. from the CMS audit copy
+     * @return number of failed attempts including this one
+     */
+    int incrementFailedCount(String encryptedId, ToIntFunction<String> initialCount);
+
+    /**
+     * Sets the number of failed attempts back to zero, e.g. after a successful login.
+     *
+     * @param encryptedId the encrypted consent or payment id
+     * @return number of failed attempts before the reset
+     */
+    int resetFailedCount(String encryptedId);
+}
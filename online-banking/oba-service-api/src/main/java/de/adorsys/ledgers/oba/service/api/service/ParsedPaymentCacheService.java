@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.api.service;
+
+import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTO;
+
+import java.util.function.Function;
+
+/**
+ * Keeps the PaymentTO parsed from the payment data stored in CMS, so the consecutive steps of a payment
+ * authorisation parse it only once.
+ */
+public interface ParsedPaymentCacheService {
+
+    /**
+     * @param paymentId   payment id
+     * @param paymentData raw payment data as stored in CMS, part of the key so changed data is parsed again
+     * @param parser      parses the raw payment data
+     * @return a deep copy of the parsed payment the caller may modify
+     */
+    PaymentTO getPayment(String paymentId, byte[] paymentData, Function<byte[], PaymentTO> parser);
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.api.service;
+
+import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps the tokens exchanged at Keycloak for a scope, so consecutive or retried decoupled confirmations of a user
+ * do not exchange the same token again. A token is kept until shortly before it expires.
+ */
+public interface ScaTokenCacheService {
+
+    /**
+     * @param token           the token to exchange
+     * @param validitySeconds requested validity of the exchanged token
+     * @param scope           requested scope
+     * @param exchange        exchanges the token at Keycloak
+     * @return the exchanged token
+     */
+    BearerTokenTO getToken(String token, int validitySeconds, String scope, Supplier<BearerTokenTO> exchange);
+
+    /**
+     * Called after the exchanged token was used successfully, drops it if tokens are configured as single-use.
+     */
+    void release(String token, int validitySeconds, String scope);
+
+    /**
+     * Drops the exchanged token, e.g. after it was rejected.
+     */
+    void evict(String token, int validitySeconds, String scope);
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.api.service;
+
+import de.adorsys.ledgers.middleware.api.domain.account.AccountDetailsTO;
+import de.adorsys.ledgers.middleware.api.domain.account.TransactionTO;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Caches the booked transactions of an account per closed day, so overlapping date range queries only
+ * fetch the days not seen before. Today and future days are always loaded from ledgers.
+ * Cached days belong to the PSU whose token loaded them, as ledgers is the only check of account access.
+ */
+public interface TransactionCacheService {
+
+    /**
+     * @param userLogin PSU reading the account
+     * @param accountId account to read
+     * @param dateFrom  first booking date, inclusive
+     * @param dateTo    last booking date, inclusive
+     * @param loader    loads the transactions of a sub-range from ledgers
+     * @return transactions of the range, newest day first
+     */
+    List<TransactionTO> getTransactions(String userLogin, String accountId, LocalDate dateFrom, LocalDate dateTo, BiFunction<LocalDate, LocalDate, List<TransactionTO>> loader);
+
+    /**
+     * Links account ids to their IBANs. Transactions are only cached for registered accounts, as a payment
+     * only names the IBANs it books on.
+     *
+     * @param accounts accounts of a PSU
+     */
+    void registerAccounts(Collection<AccountDetailsTO> accounts);
+
+    /**
+     * Drops the cached transactions of the accounts with the given IBANs, e.g. after a payment was executed.
+     *
+     * @param ibans IBANs of debtor and creditor accounts
+     */
+    void evictByIban(Collection<String> ibans);
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.api.service;
+
+import de.adorsys.ledgers.oba.service.api.domain.ConsentReference;
+import de.adorsys.psd2.consent.api.ais.CmsAisConsentResponse;
+import de.adorsys.psd2.consent.api.pis.CmsPaymentResponse;
+
+import java.time.OffsetDateTime;
+import java.util.function.Function;
+
+public interface WorkflowCacheService {
+    /**
+     * @param redirectExpiry resolves the redirect URL expiration of a loaded consent; the entry is not kept beyond it
+     * @return a copy of the cached consent, safe to modify
+     */
+    CmsAisConsentResponse getConsent(ConsentReference reference, Function<ConsentReference, CmsAisConsentResponse> loader,
+                                     Function<CmsAisConsentResponse, OffsetDateTime> redirectExpiry);
+
+    /**
+     * @param redirectExpiry resolves the redirect URL expiration of a loaded payment; the entry is not kept beyond it
+     * @return a copy of the cached payment, safe to modify
+     */
+    CmsPaymentResponse getPayment(ConsentReference reference, Function<ConsentReference, CmsPaymentResponse> loader,
+                                  Function<CmsPaymentResponse, OffsetDateTime> redirectExpiry);
+
+    void evict(String encryptedConsentId, String redirectId);
+}
@@ -30,7 +30,9 @@ import de.adorsys.psd2.xs2a.core.tpp.TppInfo;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -63,9 +65,10 @@ public class ObaAisConsentMapper {
 
     public AisAccountAccess accountAccess(AisAccountAccessInfoTO access, List<AccountDetailsTO> accountDetails) {
         // TODO missing relationship to currency here.
-        List<AccountReference> accounts = mapToAccountReference(access.getAccounts(), accountDetails);
-        List<AccountReference> balances = mapToAccountReference(access.getBalances(), accountDetails);
-        List<AccountReference> transactions = mapToAccountReference(access.getTransactions(), accountDetails);
+        Map<String, AccountDetailsTO> accountsByIban = indexByIban(accountDetails);
+        List<AccountReference> accounts = mapToAccountReference(access.getAccounts(), accountsByIban);
+        List<AccountReference> balances = mapToAccountReference(access.getBalances(), accountsByIban);
+        List<AccountReference> transactions = mapToAccountReference(access.getTransactions(), accountsByIban);
         String availableAccounts = Optional.ofNullable(access.getAvailableAccounts())
                                        .map(Enum::name)
                                        .orElse(null);
@@ -77,16 +80,25 @@ public class ObaAisConsentMapper {
         return new AisAccountAccess(accounts, balances, transactions, availableAccounts, allPsd2, null, null);
     }
 
-    private List<AccountReference> mapToAccountReference(List<String> ibans, List<AccountDetailsTO> accountDetails) {
+    // First account wins for a duplicated IBAN, as with the former linear search
+    private Map<String, AccountDetailsTO> indexByIban(List<AccountDetailsTO> accountDetails) {
+        Map<String, AccountDetailsTO> accountsByIban = new HashMap<>();
+        accountDetails.stream()
+            .filter(a -> a.getIban() != null)
+            .forEach(a -> accountsByIban.putIfAbsent(a.getIban(), a));
+        return accountsByIban;
+    }
+
+    private List<AccountReference> mapToAccountReference(List<String> ibans, Map<String, AccountDetailsTO> accountsByIban) {
         return ibans == null
                    ? null
-                   : ibans.stream().map(iban -> toAccountReference(iban, accountDetails))
+                   : ibans.stream().map(iban -> toAccountReference(iban, accountsByIban))
                          .collect(Collectors.toList());
 
     }
 
-    private AccountReference toAccountReference(String iban, List<AccountDetailsTO> accountDetails) {
-        return accountDetails.stream().filter(a -> a.getIban().equals(iban)).findFirst()
+    private AccountReference toAccountReference(String iban, Map<String, AccountDetailsTO> accountsByIban) {
+        return Optional.ofNullable(accountsByIban.get(iban))
                    .map(this::accountDetail2Reference).orElse(null);
 
     }
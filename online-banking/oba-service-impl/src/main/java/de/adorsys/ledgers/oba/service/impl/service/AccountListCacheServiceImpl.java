@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.adorsys.ledgers.middleware.api.domain.account.AccountDetailsTO;
+import de.adorsys.ledgers.oba.service.api.service.AccountListCacheService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the account list per login and token subject for a few seconds.
+ * <p>
+ * Every cache hit is a ledgers call saved; the count is published as oba.accounts.ledgers.calls.saved
+ * next to the regular cache metrics.
+ */
+@Service
+public class AccountListCacheServiceImpl implements AccountListCacheService, MeterBinder {
+    private final Cache<AccountsKey, List<AccountDetailsTO>> accounts;
+
+    public AccountListCacheServiceImpl(@Value("${oba.account-cache.ttl-seconds:30}") long ttlSeconds,
+                                       @Value("${oba.account-cache.max-size:10000}") long maxSize) {
+        this.accounts = Caffeine.newBuilder()
+                            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                            .maximumSize(maxSize)
+                            .recordStats()
+                            .build();
+    }
+
+    @Override
+    public List<AccountDetailsTO> getAccounts(String login, String tokenSubject, Supplier<List<AccountDetailsTO>> loader) {
+        return accounts.get(new AccountsKey(login, tokenSubject), k -> loader.get());
+    }
+
+    @Override
+    public void evict(String login) {
+        accounts.asMap().keySet().removeIf(k -> Objects.equals(k.getLogin(), login));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, accounts, "oba.accounts");
+        FunctionCounter.builder("oba.accounts.ledgers.calls.saved", accounts, c -> c.stats().hitCount())
+            .description("Account list requests served without calling ledgers")
+            .register(registry);
+    }
+
+    @Data
+    private static class AccountsKey {
+        private final String login;
+        private final String tokenSubject;
+    }
+}
@@ -23,17 +23,21 @@ import de.adorsys.ledgers.middleware.api.domain.account.TransactionTO;
 import de.adorsys.ledgers.middleware.client.rest.AccountRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
+import de.adorsys.ledgers.oba.service.api.service.AccountListCacheService;
 import de.adorsys.ledgers.oba.service.api.service.AisService;
+import de.adorsys.ledgers.oba.service.api.service.TransactionCacheService;
 import de.adorsys.ledgers.util.domain.CustomPageImpl;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -45,12 +49,20 @@ public class AisServiceImpl implements AisService {
     private static final String GET_ACCOUNT_ERROR_MSG = "Failed to retrieve account by id: %s, code: %s, message: %s";
 
     private final AccountRestClient accountRestClient;
+    private final AccountListCacheService accountListCache;
+    private final TransactionCacheService transactionCache;
 
     @Override
-    public List<AccountDetailsTO> getAccounts(String userLogin) {
+    public List<AccountDetailsTO> getAccounts(String userLogin, String tokenSubject) {
+        return accountListCache.getAccounts(userLogin, tokenSubject, () -> loadAccounts(userLogin));
+    }
+
+    private List<AccountDetailsTO> loadAccounts(String userLogin) {
         try {
-            return Optional.ofNullable(accountRestClient.getListOfAccounts().getBody())
-                       .orElse(Collections.emptyList());
+            List<AccountDetailsTO> accounts = Optional.ofNullable(accountRestClient.getListOfAccounts().getBody())
+                                                  .orElse(Collections.emptyList());
+            transactionCache.registerAccounts(accounts);
+            return accounts;
         } catch (FeignException e) {
             String msg = String.format(GET_ACCOUNTS_ERROR_MSG, userLogin, e.status(), e.getMessage());
             log.error(msg);
@@ -61,7 +73,11 @@ public class AisServiceImpl implements AisService {
     }
 
     @Override
-    public List<TransactionTO> getTransactions(String accountId, LocalDate dateFrom, LocalDate dateTo) {
+    public List<TransactionTO> getTransactions(String userLogin, String accountId, LocalDate dateFrom, LocalDate dateTo) {
+        return transactionCache.getTransactions(userLogin, accountId, dateFrom, dateTo, (from, to) -> loadTransactions(accountId, from, to));
+    }
+
+    private List<TransactionTO> loadTransactions(String accountId, LocalDate dateFrom, LocalDate dateTo) {
         try {
             return Optional.ofNullable(accountRestClient.getTransactionByDates(accountId, dateFrom, dateTo).getBody())
                        .orElse(Collections.emptyList());
@@ -87,6 +103,19 @@ public class AisServiceImpl implements AisService {
         }
     }
 
+    @Override
+    public void streamTransactions(String accountId, LocalDate dateFrom, LocalDate dateTo, int batchSize, Consumer<List<TransactionTO>> batchConsumer) {
+        int page = 0;
+        CustomPageImpl<TransactionTO> transactions;
+        do {
+            transactions = getTransactions(accountId, dateFrom, dateTo, page++, batchSize);
+            if (transactions == null || CollectionUtils.isEmpty(transactions.getContent())) {
+                return;
+            }
+            batchConsumer.accept(transactions.getContent());
+        } while (transactions.isNextPage());
+    }
+
     @Override
     public AccountDetailsTO getAccount(String accountId) {
         try {
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encodes the ASPSP consent data blobs stored at CMS.
+ * <p>
+ * Blobs are either plain JSON (the format every existing record and the XS2A connector use) or a compact format:
+ * a four byte header ({@code 0x00 'O' 'B' <version>}) followed by deflated JSON. A JSON text can never start with
+ * a zero byte, so both formats are told apart by the header and old records stay readable whatever format is written.
+ * Values are streamed straight through the deflate and Base64 stages, no intermediate JSON byte array is built.
+ * <p>
+ * The XS2A connector reads the same blobs and only understands plain JSON. {@link Format#COMPACT} must therefore
+ * only be enabled when no connector reads the ASPSP consent data of this instance; a warning is logged at startup.
+ */
+@Slf4j
+@Component
+public class AspspConsentDataCodec {
+    static final byte VERSION_DEFLATE = 1;
+    private static final byte[] MAGIC = {0, 'O', 'B'};
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    public enum Format {
+        JSON,
+        /**
+         * Deflated JSON behind a header. Not readable by the XS2A connector.
+         */
+        COMPACT
+    }
+
+    private final ObjectMapper mapper;
+    private final Format format;
+
+    public AspspConsentDataCodec(ObjectMapper mapper, @Value("${oba.aspsp-consent-data.format:JSON}") Format format) {
+        this.mapper = mapper;
+        this.format = format;
+        if (format == Format.COMPACT) {
+            log.warn("ASPSP consent data is written as COMPACT, which the XS2A connector cannot read. "
+                         + "Set oba.aspsp-consent-data.format=JSON if a connector uses the consent data of this instance");
+        } else {
+            log.info("ASPSP consent data is written as {}", format);
+        }
+    }
+
+    public String encode(Object value) throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        try (OutputStream out = Base64.getEncoder().wrap(target)) {
+            if (format == Format.COMPACT) {
+                writeCompact(out, value);
+            } else {
+                mapper.writeValue(out, value);
+            }
+        }
+        return target.toString(StandardCharsets.US_ASCII);
+    }
+
+    public <T> T decode(String base64, Class<T> type) throws IOException {
+        try (InputStream in = open(Base64.getDecoder().wrap(new ByteArrayInputStream(base64.getBytes(StandardCharsets.US_ASCII))))) {
+            return mapper.readValue(in, type);
+        }
+    }
+
+    public JsonNode readTree(byte[] data) throws IOException {
+        try (InputStream in = open(new ByteArrayInputStream(data))) {
+            return mapper.readTree(in);
+        }
+    }
+
+    private void writeCompact(OutputStream out, Object value) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION_DEFLATE);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater);
+            mapper.writeValue(deflated, value);
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private InputStream open(InputStream raw) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(raw, HEADER_LENGTH);
+        byte[] header = in.readNBytes(HEADER_LENGTH);
+        if (header.length == HEADER_LENGTH && Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            if (header[MAGIC.length] != VERSION_DEFLATE) {
+                throw new IOException("Unsupported ASPSP consent data version " + header[MAGIC.length]);
+            }
+            return new InflaterInputStream(in);
+        }
+        in.unread(header);
+        return in;
+    }
+}
@@ -18,40 +18,47 @@
 
 package de.adorsys.ledgers.oba.service.impl.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.adorsys.ledgers.middleware.api.domain.payment.TransactionStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.*;
-import de.adorsys.ledgers.oba.service.api.domain.LoginFailedCount;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.CmsAspspConsentDataService;
+import de.adorsys.ledgers.oba.service.api.service.LoginFailureCounterStore;
 import de.adorsys.psd2.consent.api.CmsAspspConsentDataBase64;
+import feign.FeignException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.adorsys.ledgers.consent.xs2a.rest.client.AspspConsentDataClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.Base64;
 import java.util.Optional;
 
+/**
+ * The failed login count is kept by the {@link LoginFailureCounterStore}. CMS holds a copy as the failedCount field
+ * of the ASPSP consent data, merged into the stored SCA response so neither overwrites the other.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CmsAspspConsentDataServiceImpl implements CmsAspspConsentDataService {
-    private final ObjectMapper mapper;
+    private static final String FAILED_COUNT = "failedCount";
+
+    private final AspspConsentDataCodec codec;
     private final AspspConsentDataClient client;
+    private final LoginFailureCounterStore counterStore;
 
     @Value("${oba.maxLoginFailedCount:3}")
     private int loginFailedMax;
 
-    private <T> byte[] toBytes(T response) throws IOException {
-        return mapper.writeValueAsBytes(response);
-    }
-
     @Override
     public <T> String toBase64String(T response) {
         try {
-            return Base64.getEncoder().encodeToString(toBytes(response));
+            return codec.encode(response);
         } catch (IOException e) {
             throw ObaException.builder()
                       .devMessage("Consent data update failed")
@@ -94,29 +101,52 @@ public class CmsAspspConsentDataServiceImpl implements CmsAspspConsentDataServic
 
     @Override
     public int updateLoginFailedCount(String encryptedId) {
-        int failedCount = extractAspspConsentData(encryptedId).getFailedCount();
-        client.updateAspspConsentData(encryptedId, new CmsAspspConsentDataBase64(encryptedId, toBase64String(new LoginFailedCount(failedCount + 1))));
-        return loginFailedMax - 1 - failedCount;
+        int failedCount = counterStore.incrementFailedCount(encryptedId, this::loadFailedCount);
+        storeFailedCount(encryptedId, failedCount);
+        return loginFailedMax - failedCount;
     }
 
     @Override
     public boolean isFailedLogin(String encryptedId) {
-        return extractAspspConsentData(encryptedId).getFailedCount() >= loginFailedMax;
+        return counterStore.getFailedCount(encryptedId, this::loadFailedCount) >= loginFailedMax;
+    }
+
+    @Override
+    public void resetLoginFailedCount(String encryptedId) {
+        if (counterStore.resetFailedCount(encryptedId) > 0) {
+            storeFailedCount(encryptedId, 0);
+        }
+    }
+
+    private int loadFailedCount(String encryptedId) {
+        return extractAspspConsentData(encryptedId).path(FAILED_COUNT).asInt();
+    }
+
+    private void storeFailedCount(String encryptedId, int failedCount) {
+        try {
+            ObjectNode consentData = extractAspspConsentData(encryptedId);
+            consentData.put(FAILED_COUNT, failedCount);
+            client.updateAspspConsentData(encryptedId, new CmsAspspConsentDataBase64(encryptedId, toBase64String(consentData)));
+        } catch (FeignException e) {
+            log.warn("Could not store failed login count of: {} at CMS, status: {}", encryptedId, e.status());
+        }
     }
 
-    private LoginFailedCount extractAspspConsentData(String encryptedId) {
+    private ObjectNode extractAspspConsentData(String encryptedId) {
         CmsAspspConsentDataBase64 body = client.getAspspConsentData(encryptedId).getBody();
         return Optional.ofNullable(body)
-                   .map(this::getLoginFailedCount)
-                   .orElse(new LoginFailedCount());
+                   .map(this::readConsentData)
+                   .orElseGet(JsonNodeFactory.instance::objectNode);
     }
 
-    private LoginFailedCount getLoginFailedCount(CmsAspspConsentDataBase64 body) {
+    private ObjectNode readConsentData(CmsAspspConsentDataBase64 body) {
         try {
-            byte[] decode = Base64.getDecoder().decode(body.getAspspConsentDataBase64());
-            return mapper.readValue(decode, LoginFailedCount.class);
+            JsonNode consentData = codec.decode(body.getAspspConsentDataBase64(), JsonNode.class);
+            return consentData instanceof ObjectNode
+                       ? (ObjectNode) consentData
+                       : JsonNodeFactory.instance.objectNode();
         } catch (IOException e) {
-            return new LoginFailedCount();
+            return JsonNodeFactory.instance.objectNode();
         }
     }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode;
+import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Executes independent CMS write operations of one SCA step.
+ * <p>
+ * In sequential mode (default) the writes are performed one after another on the calling thread.
+ * In parallel mode (oba.cms-writes.parallel=true) they are issued concurrently on a bounded pool,
+ * joined with a single timeout, and failures are reported as one {@link ObaException}.
+ * <p>
+ * Every write passed to {@link #execute(Runnable...)} must target a different CMS resource; writes to the
+ * same payment or authorisation have to be combined into one {@link Runnable} by the caller. Writes must not
+ * mutate workflow state, which stays confined to the calling thread. Writes never run on the calling thread:
+ * when the pool queue is full the step fails at once. On timeout the writes that have not started are dropped,
+ * the running ones are interrupted and the error is raised without waiting for them.
+ */
+@Slf4j
+@Component
+public class CmsWriteExecutor implements DisposableBean {
+    private final ScopedAuthRequestInterceptor authInterceptor;
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+
+    public CmsWriteExecutor(ScopedAuthRequestInterceptor authInterceptor,
+                            @Value("${oba.cms-writes.parallel:false}") boolean parallel,
+                            @Value("${oba.cms-writes.pool-size:8}") int poolSize,
+                            @Value("${oba.cms-writes.queue-capacity:256}") int queueCapacity,
+                            @Value("${oba.cms-writes.timeout-ms:10000}") long timeoutMillis) {
+        this.authInterceptor = authInterceptor;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = parallel
+                            ? new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                                                     new CustomizableThreadFactory("cms-write-"), new ThreadPoolExecutor.AbortPolicy())
+                            : null;
+    }
+
+    public void execute(Runnable... writes) {
+        if (executor == null || writes.length < 2) {
+            Arrays.stream(writes).forEach(Runnable::run);
+            return;
+        }
+        CountDownLatch finished = new CountDownLatch(writes.length);
+        List<CmsWrite> tasks = Arrays.stream(writes)
+                                   .map(w -> new CmsWrite(authInterceptor.propagate(w), finished))
+                                   .collect(Collectors.toList());
+        try {
+            tasks.forEach(executor::execute);
+        } catch (RejectedExecutionException e) {
+            abort(tasks);
+            throw ObaException.builder()
+                      .obaErrorCode(ObaErrorCode.CONNECTION_ERROR)
+                      .devMessage("CMS update rejected, write pool is saturated")
+                      .build();
+        }
+        try {
+            if (!finished.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                abort(tasks);
+                throw ObaException.builder()
+                          .obaErrorCode(ObaErrorCode.CONNECTION_ERROR)
+                          .devMessage(String.format("CMS update did not complete within %s ms", timeoutMillis))
+                          .build();
+            }
+        } catch (InterruptedException e) {
+            abort(tasks);
+            Thread.currentThread().interrupt();
+            throw ObaException.builder()
+                      .obaErrorCode(ObaErrorCode.CONNECTION_ERROR)
+                      .devMessage("CMS update was interrupted")
+                      .build();
+        }
+        List<Throwable> failures = tasks.stream()
+                                       .map(CmsWrite::getFailure)
+                                       .filter(Objects::nonNull)
+                                       .collect(Collectors.toList());
+        if (!failures.isEmpty()) {
+            throw aggregate(failures, tasks.size());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private void abort(List<CmsWrite> tasks) {
+        // drop every queued write first, an interrupted write would otherwise free its thread for the next one
+        tasks.forEach(CmsWrite::drop);
+        tasks.forEach(CmsWrite::interrupt);
+    }
+
+    private RuntimeException aggregate(List<Throwable> failures, int total) {
+        if (failures.size() == 1 && failures.get(0) instanceof RuntimeException) {
+            return (RuntimeException) failures.get(0);
+        }
+        log.error("{} of {} CMS updates failed", failures.size(), total);
+        ObaErrorCode errorCode = failures.stream()
+                                     .filter(ObaException.class::isInstance)
+                                     .map(t -> ((ObaException) t).getObaErrorCode())
+                                     .findFirst()
+                                     .orElse(ObaErrorCode.CONNECTION_ERROR);
+        ObaException exception = ObaException.builder()
+                                     .obaErrorCode(errorCode)
+                                     .devMessage(failures.stream().map(this::message).collect(Collectors.joining("; ")))
+                                     .build();
+        failures.forEach(exception::addSuppressed);
+        return exception;
+    }
+
+    private String message(Throwable t) {
+        return t instanceof ObaException
+                   ? ((ObaException) t).getDevMessage()
+                   : t.getMessage();
+    }
+
+    /**
+     * A write that runs at most once: either on a pool thread or it is dropped before it started.
+     */
+    private static final class CmsWrite implements Runnable {
+        private final Runnable write;
+        private final CountDownLatch finished;
+        private Thread runner;
+        private boolean claimed;
+        private boolean interrupted;
+        private volatile Throwable failure;
+
+        CmsWrite(Runnable write, CountDownLatch finished) {
+            this.write = write;
+            this.finished = finished;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (claimed) {
+                    return;
+                }
+                claimed = true;
+                runner = Thread.currentThread();
+            }
+            try {
+                write.run();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    if (interrupted) {
+                        Thread.interrupted();
+                    }
+                }
+                finished.countDown();
+            }
+        }
+
+        synchronized void drop() {
+            if (!claimed) {
+                claimed = true;
+                finished.countDown();
+            }
+        }
+
+        synchronized void interrupt() {
+            if (runner != null) {
+                interrupted = true;
+                runner.interrupt();
+            }
+        }
+
+        Throwable getFailure() {
+            return failure;
+        }
+    }
+}
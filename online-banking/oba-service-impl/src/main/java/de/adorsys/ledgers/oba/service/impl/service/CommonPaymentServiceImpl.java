@@ -18,7 +18,9 @@
 
 package de.adorsys.ledgers.oba.service.impl.service;
 
+import de.adorsys.ledgers.middleware.api.domain.account.AccountReferenceTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTargetTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.TransactionStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
@@ -26,7 +28,6 @@ import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.StartScaOprTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.ledgers.middleware.client.mappers.PaymentMapperTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.OauthRestClient;
 import de.adorsys.ledgers.middleware.client.rest.OperationInitiationRestClient;
 import de.adorsys.ledgers.middleware.client.rest.RedirectScaRestClient;
@@ -38,11 +39,15 @@ import de.adorsys.ledgers.oba.service.api.service.AuthorizationService;
 import de.adorsys.ledgers.oba.service.api.service.CmsAspspConsentDataService;
 import de.adorsys.ledgers.oba.service.api.service.CommonPaymentService;
 import de.adorsys.ledgers.oba.service.api.service.ConsentReferencePolicy;
+import de.adorsys.ledgers.oba.service.api.service.ParsedPaymentCacheService;
+import de.adorsys.ledgers.oba.service.api.service.TransactionCacheService;
+import de.adorsys.ledgers.oba.service.api.service.WorkflowCacheService;
 import de.adorsys.psd2.consent.api.CmsAspspConsentDataBase64;
 import de.adorsys.psd2.consent.api.pis.CmsCommonPayment;
 import de.adorsys.psd2.consent.api.pis.CmsPaymentResponse;
 import de.adorsys.psd2.consent.psu.api.CmsPsuAuthorisation;
 import de.adorsys.psd2.consent.psu.api.CmsPsuPisService;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.exception.AuthorisationIsExpiredException;
 import de.adorsys.psd2.xs2a.core.exception.RedirectUrlIsExpiredException;
 import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
@@ -55,8 +60,14 @@ import org.adorsys.ledgers.consent.xs2a.rest.client.AspspConsentDataClient;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode.AUTH_EXPIRED;
 import static de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode.NOT_FOUND;
@@ -68,7 +79,7 @@ import static java.util.Objects.requireNonNull;
 @RequiredArgsConstructor
 public class CommonPaymentServiceImpl implements CommonPaymentService {
     private final ConsentReferencePolicy referencePolicy;
-    private final AuthRequestInterceptor authInterceptor;
+    private final ScopedAuthRequestInterceptor authInterceptor;
     private final CmsPsuPisService cmsPsuPisService;
     private final OperationInitiationRestClient operationInitiationRestClient;
     private final AspspConsentDataClient aspspConsentDataClient;
@@ -77,6 +88,10 @@ public class CommonPaymentServiceImpl implements CommonPaymentService {
     private final OauthRestClient oauthRestClient;
     private final AuthorizationService authService;
     private final RedirectScaRestClient redirectScaClient;
+    private final WorkflowCacheService workflowCache;
+    private final CmsWriteExecutor cmsWriteExecutor;
+    private final TransactionCacheService transactionCache;
+    private final ParsedPaymentCacheService parsedPayments;
 
     @Override
     public PaymentWorkflow selectScaForPayment(String encryptedPaymentId, String authorisationId, String scaMethodId, String psuId, BearerTokenTO tokenTO) {
@@ -89,7 +104,7 @@ public class CommonPaymentServiceImpl implements CommonPaymentService {
     @Override
     public PaymentWorkflow identifyPayment(String encryptedPaymentId, String authorizationId, BearerTokenTO bearerToken) {
         ConsentReference consentReference = referencePolicy.fromRequest(encryptedPaymentId, authorizationId);
-        CmsPaymentResponse cmsPaymentResponse = loadPaymentByRedirectId(consentReference);
+        CmsPaymentResponse cmsPaymentResponse = workflowCache.getPayment(consentReference, this::loadPaymentByRedirectId, this::redirectExpiry);
         PaymentWorkflow workflow = new PaymentWorkflow(cmsPaymentResponse, consentReference);
         PaymentTO payment = getPaymentTO(workflow);
 
@@ -117,10 +132,9 @@ public class CommonPaymentServiceImpl implements CommonPaymentService {
 
         CmsPaymentResponse consentResponse = workflow.getPaymentResponse();
 
-        authInterceptor.setAccessToken(workflow.getScaResponse().getBearerToken().getAccess_token());
-        String tppOkRedirectUri = isOauth2Integrated
+        String tppOkRedirectUri = authInterceptor.callWithAccessToken(workflow.getScaResponse().getBearerToken().getAccess_token(), () -> isOauth2Integrated
             ? requireNonNull(oauthRestClient.oauthCode(consentResponse.getTppOkRedirectUri()).getBody()).getRedirectUri()
-            : authService.resolveAuthConfirmationCodeRedirectUri(consentResponse.getTppOkRedirectUri(), authConfirmationCode);
+            : authService.resolveAuthConfirmationCodeRedirectUri(consentResponse.getTppOkRedirectUri(), authConfirmationCode));
 
         String tppNokRedirectUri = consentResponse.getTppNokRedirectUri();
         ScaStatusTO scaStatus = loadAuthorization(workflow.authId());
@@ -132,11 +146,9 @@ public class CommonPaymentServiceImpl implements CommonPaymentService {
 
     @Override
     public PaymentWorkflow initiatePaymentOpr(PaymentWorkflow paymentWorkflow, String psuId, OpTypeTO opType) {
-        authInterceptor.setAccessToken(paymentWorkflow.bearerToken().getAccess_token());
-
-        GlobalScaResponseTO globalScaResponseTO = opType == OpTypeTO.PAYMENT
-                                                      ? operationInitiationRestClient.initiatePayment(paymentWorkflow.paymentType(), paymentWorkflow.getAuthResponse().getPayment()).getBody()
-                                                      : operationInitiationRestClient.initiatePmtCancellation(paymentWorkflow.paymentId()).getBody();
+        GlobalScaResponseTO globalScaResponseTO = authInterceptor.callWithAccessToken(paymentWorkflow.bearerToken().getAccess_token(), () -> opType == OpTypeTO.PAYMENT
+                                                                                                                                        ? operationInitiationRestClient.initiatePayment(paymentWorkflow.paymentType(), paymentWorkflow.getAuthResponse().getPayment()).getBody()
+                                                                                                                                        : operationInitiationRestClient.initiatePmtCancellation(paymentWorkflow.paymentId()).getBody());
 
         if (globalScaResponseTO != null) {
             paymentWorkflow.processSCAResponse(globalScaResponseTO);
@@ -150,13 +162,14 @@ public class CommonPaymentServiceImpl implements CommonPaymentService {
 
     @Override
     public PaymentWorkflow authorizePaymentOpr(PaymentWorkflow paymentWorkflow, String psuId, String authCode, OpTypeTO opType) {
-        authInterceptor.setAccessToken(paymentWorkflow.bearerToken().getAccess_token());
-        GlobalScaResponseTO response = redirectScaClient.validateScaCode(paymentWorkflow.authId(), authCode).getBody();
+        GlobalScaResponseTO response = authInterceptor.callWithAccessToken(paymentWorkflow.bearerToken().getAccess_token(),
+                                                                           () -> redirectScaClient.validateScaCode(paymentWorkflow.authId(), authCode).getBody());
 
-        authInterceptor.setAccessToken(requireNonNull(response).getBearerToken().getAccess_token());
-        GlobalScaResponseTO globalScaResponseTO = operationInitiationRestClient.execution(opType, paymentWorkflow.paymentId()).getBody();
+        GlobalScaResponseTO globalScaResponseTO = authInterceptor.callWithAccessToken(requireNonNull(response).getBearerToken().getAccess_token(),
+                                                                                      () -> operationInitiationRestClient.execution(opType, paymentWorkflow.paymentId()).getBody());
 
         paymentWorkflow.processSCAResponse(response);
+        transactionCache.evictByIban(bookedIbans(paymentWorkflow));
         paymentWorkflow.setPaymentStatus(opType == OpTypeTO.PAYMENT
                                              ? requireNonNull(globalScaResponseTO).getTransactionStatus().name()
                                              : TransactionStatusTO.CANC.toString());
@@ -165,24 +178,41 @@ public class CommonPaymentServiceImpl implements CommonPaymentService {
     }
 
     private void doUpdateAuthData(String psuId, PaymentWorkflow workflow) {
-        updateAuthorisationStatus(workflow, psuId);
-        updatePaymentStatus(workflow);
-        updateAspspConsentData(workflow);
-    }
-
-    private void selectMethodAndUpdateWorkflow(String scaMethodId, String externalId, final PaymentWorkflow workflow) {
         try {
-            authInterceptor.setAccessToken(workflow.bearerToken().getAccess_token());
-            StartScaOprTO opr = new StartScaOprTO(workflow.paymentId(), externalId, workflow.authId(), OpTypeTO.PAYMENT);
-
-            GlobalScaResponseTO response = redirectScaClient.startSca(opr).getBody();
-            response = redirectScaClient.selectMethod(requireNonNull(response).getAuthorisationId(), scaMethodId).getBody();
-            workflow.processSCAResponse(requireNonNull(response));
+            // authorisation and payment status belong to the same payment and are written in order
+            cmsWriteExecutor.execute(() -> {
+                                         updateAuthorisationStatus(workflow, psuId);
+                                         updatePaymentStatus(workflow);
+                                     },
+                                     () -> updateAspspConsentData(workflow));
+            workflow.getAuthResponse().getPayment().setTransactionStatus(TransactionStatusTO.valueOf(workflow.getPaymentStatus()));
         } finally {
-            authInterceptor.setAccessToken(null);
+            workflowCache.evict(workflow.encryptedConsentId(), workflow.getConsentReference().getRedirectId());
         }
     }
 
+    private List<String> bookedIbans(PaymentWorkflow workflow) {
+        return Optional.ofNullable(workflow.getAuthResponse())
+                   .map(PaymentAuthorizeResponse::getPayment)
+                   .map(p -> Stream.concat(Stream.of(p.getDebtorAccount()),
+                                           Optional.ofNullable(p.getTargets()).orElse(Collections.emptyList()).stream()
+                                               .map(PaymentTargetTO::getCreditorAccount))
+                                 .filter(Objects::nonNull)
+                                 .map(AccountReferenceTO::getIban)
+                                 .filter(Objects::nonNull)
+                                 .collect(Collectors.toList()))
+                   .orElse(Collections.emptyList());
+    }
+
+    private void selectMethodAndUpdateWorkflow(String scaMethodId, String externalId, final PaymentWorkflow workflow) {
+        StartScaOprTO opr = new StartScaOprTO(workflow.paymentId(), externalId, workflow.authId(), OpTypeTO.PAYMENT);
+        GlobalScaResponseTO response = authInterceptor.callWithAccessToken(workflow.bearerToken().getAccess_token(), () -> {
+            GlobalScaResponseTO startScaResponse = redirectScaClient.startSca(opr).getBody();
+            return redirectScaClient.selectMethod(requireNonNull(startScaResponse).getAuthorisationId(), scaMethodId).getBody();
+        });
+        workflow.processSCAResponse(requireNonNull(response));
+    }
+
     private void updateAuthorisationStatus(PaymentWorkflow workflow, String psuId) {
         String paymentId = workflow.getPaymentResponse().getPayment().getPaymentId();
         String authorisationId = workflow.getPaymentResponse().getAuthorisationId();
@@ -216,6 +246,12 @@ public class CommonPaymentServiceImpl implements CommonPaymentService {
         }
     }
 
+    private OffsetDateTime redirectExpiry(CmsPaymentResponse payment) {
+        return cmsPsuPisService.getAuthorisationByAuthorisationId(payment.getAuthorisationId(), DEFAULT_SERVICE_INSTANCE_ID)
+                   .map(CmsPsuAuthorisation::getRedirectUrlExpirationTimestamp)
+                   .orElse(null);
+    }
+
     private ScaStatusTO loadAuthorization(String authorizationId) {
         return cmsPsuPisService.getAuthorisationByAuthorisationId(authorizationId, DEFAULT_SERVICE_INSTANCE_ID)
                    .map(CmsPsuAuthorisation::getScaStatus)
@@ -230,13 +266,13 @@ public class CommonPaymentServiceImpl implements CommonPaymentService {
 
     private void updatePaymentStatus(PaymentWorkflow paymentWorkflow) {
         cmsPsuPisService.updatePaymentStatus(paymentWorkflow.getPaymentResponse().getPayment().getPaymentId(), TransactionStatus.valueOf(paymentWorkflow.getPaymentStatus()), DEFAULT_SERVICE_INSTANCE_ID);
-        paymentWorkflow.getAuthResponse().getPayment().setTransactionStatus(TransactionStatusTO.valueOf(paymentWorkflow.getPaymentStatus()));
     }
 
     private PaymentTO getPaymentTO(PaymentWorkflow workflow) {
         CmsCommonPayment payment = (CmsCommonPayment) workflow.getPaymentResponse().getPayment();
-        String paymentString = new String(payment.getPaymentData(), StandardCharsets.UTF_8);
-        PaymentTO abstractPayment = paymentMapper.toAbstractPayment(paymentString, workflow.paymentType().name(), payment.getPaymentProduct());
+        String paymentType = workflow.paymentType().name();
+        PaymentTO abstractPayment = parsedPayments.getPayment(workflow.paymentId(), payment.getPaymentData(),
+                                                              data -> paymentMapper.toAbstractPayment(new String(data, StandardCharsets.UTF_8), paymentType, payment.getPaymentProduct()));
         abstractPayment.setPaymentId(workflow.paymentId());
         abstractPayment.setTransactionStatus(TransactionStatusTO.valueOf(payment.getTransactionStatus().name()));
         return abstractPayment;
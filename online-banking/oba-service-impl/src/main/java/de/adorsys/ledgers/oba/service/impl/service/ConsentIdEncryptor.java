@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.adorsys.psd2.consent.service.security.SecurityDataService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Encrypts consent ids for the consent listings.
+ * <p>
+ * Encryption is not deterministic: {@link SecurityDataService#encryptId(String)} embeds a freshly generated key
+ * in every encrypted id, and the ASPSP consent data of a consent can only be decrypted through an encrypted id
+ * carrying the key it was written with. Encrypted ids are therefore kept in a bounded cache, so a consent keeps
+ * one stable encrypted id across listings; only ids not seen before are encrypted. Batches with at least
+ * oba.consent-id-encryption.parallel-threshold uncached ids are encrypted in parallel.
+ */
+@Component
+public class ConsentIdEncryptor {
+    private final SecurityDataService securityDataService;
+    private final Cache<String, String> encryptedIds;
+    private final int parallelThreshold;
+
+    public ConsentIdEncryptor(SecurityDataService securityDataService,
+                              @Value("${oba.consent-id-encryption.cache-size:10000}") long cacheSize,
+                              @Value("${oba.consent-id-encryption.parallel-threshold:256}") int parallelThreshold) {
+        this.securityDataService = securityDataService;
+        this.encryptedIds = Caffeine.newBuilder()
+                                .maximumSize(cacheSize)
+                                .build();
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * @param consentIds plain consent ids, nulls are ignored
+     * @return encrypted id per plain id; ids that could not be encrypted are absent
+     */
+    public Map<String, String> encryptIds(Collection<String> consentIds) {
+        List<String> ids = consentIds.stream()
+                               .filter(Objects::nonNull)
+                               .distinct()
+                               .collect(Collectors.toList());
+        Map<String, String> result = new HashMap<>(encryptedIds.getAllPresent(ids));
+        List<String> missing = ids.stream()
+                                   .filter(id -> !result.containsKey(id))
+                                   .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Stream<String> toEncrypt = missing.size() >= parallelThreshold
+                                       ? missing.parallelStream()
+                                       : missing.stream();
+        Map<String, String> encrypted = toEncrypt.map(this::encrypt)
+                                            .flatMap(Optional::stream)
+                                            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        encryptedIds.putAll(encrypted);
+        result.putAll(encrypted);
+        return result;
+    }
+
+    private Optional<Map.Entry<String, String>> encrypt(String consentId) {
+        return securityDataService.encryptId(consentId)
+                   .map(encryptedId -> new AbstractMap.SimpleImmutableEntry<>(consentId, encryptedId));
+    }
+}
@@ -18,7 +18,6 @@
 
 package de.adorsys.ledgers.oba.service.impl.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
@@ -26,11 +25,11 @@ import de.adorsys.ledgers.middleware.api.domain.sca.SCAConsentResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.SCAResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisAccountAccessInfoTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisConsentTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.ConsentRestClient;
 import de.adorsys.ledgers.middleware.client.rest.RedirectScaRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.CreatePiisConsentRequestTO;
 import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsent;
+import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsentCursorPage;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.ConsentService;
@@ -44,6 +43,7 @@ import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
 import de.adorsys.psd2.consent.aspsp.api.piis.CreatePiisConsentRequest;
 import de.adorsys.psd2.consent.aspsp.api.piis.CreatePiisConsentResponse;
 import de.adorsys.psd2.consent.service.security.SecurityDataService;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.consent.AspspConsentData;
 import de.adorsys.psd2.xs2a.core.sca.AuthenticationDataHolder;
 import feign.FeignException;
@@ -53,20 +53,24 @@ import org.adorsys.ledgers.consent.aspsp.rest.client.CmsAspspAisClient;
 import org.adorsys.ledgers.consent.aspsp.rest.client.CmsAspspPiisClient;
 import org.adorsys.ledgers.consent.psu.rest.client.CmsPsuAisClient;
 import org.adorsys.ledgers.consent.xs2a.rest.client.AspspConsentDataClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode.*;
 import static java.lang.String.format;
-import static java.util.Base64.getEncoder;
 import static java.util.Objects.requireNonNull;
 
 @Slf4j
@@ -86,21 +90,53 @@ public class ConsentServiceImpl implements ConsentService {
     private final CmsAspspPiisClient cmsAspspPiisClient;
     private final AspspConsentDataClient consentDataClient;
     private final SecurityDataService securityDataService;
+    private final ConsentIdEncryptor consentIdEncryptor;
     private final ConsentRestClient consentRestClient;
-    private final AuthRequestInterceptor authInterceptor;
+    private final ScopedAuthRequestInterceptor authInterceptor;
     private final ObjectMapper objectMapper;
     private final AspspDataService aspspDataService;
     private final CreatePiisConsentRequestMapper createPiisConsentRequestMapper;
     private final RedirectScaRestClient redirectScaRestClient;
+    private final AspspConsentDataCodec consentDataCodec;
+
+    @Value("${oba.consents.max-page-size:100}")
+    private int maxPageSize;
 
     @Override
     public List<ObaAisConsent> getListOfConsents(String userLogin) {
+        return toObaAisConsent(getConsentsForPsu(userLogin, 0, 9999));
+    }
+
+    @Override
+    public void streamConsents(String userLogin, int batchSize, Consumer<List<ObaAisConsent>> batchConsumer) {
+        int page = 0;
+        List<CmsAisAccountConsent> batch;
+        do {
+            batch = getConsentsForPsu(userLogin, page++, batchSize);
+            if (!batch.isEmpty()) {
+                batchConsumer.accept(toObaAisConsent(batch));
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @Override
+    public ObaAisConsentCursorPage getListOfConsentsByCursor(String userLogin, String cursor, int size) {
+        int[] position = cursor == null
+                             ? new int[]{0, pageSize(size)}
+                             : decodeCursor(cursor);
+        List<CmsAisAccountConsent> consents = getConsentsForPsu(userLogin, position[0], position[1]);
+        String nextCursor = consents.size() == position[1]
+                                ? encodeCursor(position[0] + 1, position[1])
+                                : null;
+        return new ObaAisConsentCursorPage(toObaAisConsent(consents), nextCursor);
+    }
+
+    private List<CmsAisAccountConsent> getConsentsForPsu(String userLogin, int page, int size) {
         try {
-            List<CmsAisAccountConsent> aisAccountConsents = Optional.ofNullable(
+            return Optional.ofNullable(
                 cmsPsuAisClient.getConsentsForPsu(userLogin, null, null, null, DEFAULT_SERVICE_INSTANCE_ID, null, null,
-                                                  null, 0, 9999).getBody())
-                                                                .orElse(Collections.emptyList());
-            return toObaAisConsent(aisAccountConsents);
+                                                  null, page, size).getBody())
+                       .orElse(Collections.emptyList());
         } catch (FeignException e) {
             String msg = format(GET_CONSENTS_ERROR_MSG, userLogin, e.status(), e.getMessage());
             log.error(msg);
@@ -110,10 +146,45 @@ public class ConsentServiceImpl implements ConsentService {
         }
     }
 
+    // CMS only supports offset paging, so the cursor carries the page index and size of the next page
+    private String encodeCursor(int page, int size) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(format("%d:%d", page, size).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            int[] position = parts.length == 2
+                                 ? new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])}
+                                 : new int[]{-1, 0};
+            if (position[0] < 0 || position[1] < 1) {
+                throw new IllegalArgumentException(cursor);
+            }
+            // the cursor is client supplied, so its size is capped like any other page size
+            position[1] = Math.min(position[1], maxPageSize);
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw ObaException.builder()
+                      .devMessage("Invalid cursor")
+                      .obaErrorCode(AIS_BAD_REQUEST)
+                      .build();
+        }
+    }
+
+    private int pageSize(int size) {
+        if (size < 1) {
+            throw ObaException.builder()
+                      .devMessage(format("Invalid page size %d", size))
+                      .obaErrorCode(AIS_BAD_REQUEST)
+                      .build();
+        }
+        return Math.min(size, maxPageSize);
+    }
+
     @Override
     public CustomPageImpl<ObaAisConsent> getListOfConsentsPaged(String userLogin, int page, int size) {
         try {
-            ResponseData<Collection<CmsAisAccountConsent>> responseData = cmsAspspAisClient.getConsentsByPsu(null, null, userLogin, null, null, null, DEFAULT_SERVICE_INSTANCE_ID, page, size, null);
+            ResponseData<Collection<CmsAisAccountConsent>> responseData = cmsAspspAisClient.getConsentsByPsu(null, null, userLogin, null, null, null, DEFAULT_SERVICE_INSTANCE_ID, page, pageSize(size), null);
             return toCustomPage(responseData, this::toObaAisConsent);
         } catch (FeignException e) {
             String msg = format(GET_CONSENTS_ERROR_MSG, userLogin, e.status(), e.getMessage());
@@ -150,13 +221,12 @@ public class ConsentServiceImpl implements ConsentService {
     @Override
     public void confirmAisConsentDecoupled(String userLogin, String encryptedConsentId, String authorizationId, String tan) {
         String consentId = getDecryptedConsentId(encryptedConsentId);
-        setActiveAccessTokenFromConsentData(encryptedConsentId);
-
-        SCAConsentResponseTO ledgerValidateTanConsentResponse = authorizeConsentAtLedgers(authorizationId, tan);
-        confirmConsentAtCms(consentId);
-        updateCmsAuthorization(userLogin, authorizationId, consentId);
-        updateAspspConsentDataForConsent(encryptedConsentId, ledgerValidateTanConsentResponse);
-        authInterceptor.setAccessToken(null);
+        authInterceptor.runWithAccessToken(getAccessTokenFromConsentData(encryptedConsentId), () -> {
+            SCAConsentResponseTO ledgerValidateTanConsentResponse = authorizeConsentAtLedgers(authorizationId, tan);
+            confirmConsentAtCms(consentId);
+            updateCmsAuthorization(userLogin, authorizationId, consentId);
+            updateAspspConsentDataForConsent(encryptedConsentId, ledgerValidateTanConsentResponse);
+        });
     }
 
     @Override
@@ -234,8 +304,8 @@ public class ConsentServiceImpl implements ConsentService {
 
     private String writeScaResponseAsString(SCAResponseTO ledgerValidateTanConsentResponse) {
         try {
-            return getEncoder().encodeToString(objectMapper.writeValueAsBytes(ledgerValidateTanConsentResponse));
-        } catch (JsonProcessingException e) {
+            return consentDataCodec.encode(ledgerValidateTanConsentResponse);
+        } catch (IOException e) {
             throw ObaException.builder()
                       .devMessage("Could not encode ledgers consent confirmation response.")
                       .obaErrorCode(AIS_BAD_REQUEST)
@@ -281,8 +351,7 @@ public class ConsentServiceImpl implements ConsentService {
         }
     }
 
-    private void setActiveAccessTokenFromConsentData(String encryptedConsentId) {
-        String token;
+    private String getAccessTokenFromConsentData(String encryptedConsentId) {
         try {
             byte[] decodedData = aspspDataService.readAspspConsentData(encryptedConsentId)
                                      .map(AspspConsentData::getAspspConsentDataBytes)
@@ -290,7 +359,7 @@ public class ConsentServiceImpl implements ConsentService {
                                                             .devMessage(COULD_NOT_RETRIEVE_ASPSP_CONSENT_DATA)
                                                             .obaErrorCode(AIS_BAD_REQUEST)
                                                             .build());
-            token = Optional.ofNullable(objectMapper.readTree(decodedData).get("bearerToken"))
+            return Optional.ofNullable(consentDataCodec.readTree(decodedData).get("bearerToken"))
                         .map(t -> t.get("access_token"))
                         .map(JsonNode::asText)
                         .orElseThrow(() -> ObaException.builder()
@@ -303,12 +372,14 @@ public class ConsentServiceImpl implements ConsentService {
                       .obaErrorCode(AIS_BAD_REQUEST)
                       .build();
         }
-        authInterceptor.setAccessToken(token);
     }
 
     private List<ObaAisConsent> toObaAisConsent(Collection<CmsAisAccountConsent> aisAccountConsents) {
+        Map<String, String> encryptedIds = consentIdEncryptor.encryptIds(aisAccountConsents.stream()
+                                                                             .map(CmsAisAccountConsent::getId)
+                                                                             .collect(Collectors.toList()));
         return aisAccountConsents.stream()
-                   .map(a -> new ObaAisConsent(securityDataService.encryptId(a.getId()).orElse(""), a))
+                   .map(a -> new ObaAisConsent(encryptedIds.getOrDefault(a.getId(), ""), a))
                    .collect(Collectors.toList());
     }
 }
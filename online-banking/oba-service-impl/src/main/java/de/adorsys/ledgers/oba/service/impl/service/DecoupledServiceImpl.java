@@ -24,24 +24,27 @@ import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.OperationInitiationRestClient;
 import de.adorsys.ledgers.middleware.client.rest.RedirectScaRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.CmsAspspConsentDataService;
 import de.adorsys.ledgers.oba.service.api.service.DecoupledService;
+import de.adorsys.ledgers.oba.service.api.service.ScaTokenCacheService;
 import de.adorsys.psd2.consent.api.CmsAspspConsentDataBase64;
 import de.adorsys.psd2.consent.psu.api.CmsPsuPisService;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.exception.AuthorisationIsExpiredException;
 import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
 import de.adorsys.psd2.xs2a.core.psu.PsuIdData;
 import de.adorsys.psd2.xs2a.core.sca.AuthenticationDataHolder;
 import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
+import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.adorsys.ledgers.consent.psu.rest.client.CmsPsuAisClient;
 import org.adorsys.ledgers.consent.xs2a.rest.client.AspspConsentDataClient;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.EnumSet;
@@ -55,7 +58,8 @@ import static de.adorsys.psd2.consent.aspsp.api.config.CmsPsuApiDefaultValue.DEF
 @RequiredArgsConstructor
 public class DecoupledServiceImpl implements DecoupledService {
     private final KeycloakTokenService tokenService;
-    private final AuthRequestInterceptor authInterceptor;
+    private final ScaTokenCacheService scaTokens;
+    private final ScopedAuthRequestInterceptor authInterceptor;
     private final OperationInitiationRestClient operationInitiationRestClient;
     private final RedirectScaRestClient redirectScaClient;
     private final CmsPsuPisService cmsPsuPisService;
@@ -65,22 +69,30 @@ public class DecoupledServiceImpl implements DecoupledService {
 
     @Override
     public boolean executeDecoupledOpr(DecoupledConfRequest request, String token) {
+        int validity = request.getAuthorizationTTL();
+        BearerTokenTO scaToken = scaTokens.getToken(token, validity, Constants.SCOPE_SCA,
+                                                    () -> tokenService.exchangeToken(token, validity, Constants.SCOPE_SCA));
+        GlobalScaResponseTO response;
         try {
-            BearerTokenTO scaToken = tokenService.exchangeToken(token, request.getAuthorizationTTL(), Constants.SCOPE_SCA);
-            authInterceptor.setAccessToken(scaToken.getAccess_token());
-            GlobalScaResponseTO response = redirectScaClient.validateScaCode(request.getAuthorizationId(), request.getAuthCode()).getBody();
-            Optional.ofNullable(response)
-                .map(GlobalScaResponseTO::getBearerToken)
-                .map(BearerTokenTO::getAccess_token)
-                .ifPresent(authInterceptor::setAccessToken);
-            if (EnumSet.of(OpTypeTO.PAYMENT, OpTypeTO.CANCEL_PAYMENT).contains(request.getOpType())) {
-                String transactionStatus = executePaymentOperation(request, response);
-                updateCmsForPayment(request.getAddressedUser(), response, transactionStatus);
-            } else {
-                updateCmForConsent(request.getAddressedUser(), response);
+            response = authInterceptor.callWithAccessToken(scaToken.getAccess_token(),
+                                                           () -> redirectScaClient.validateScaCode(request.getAuthorizationId(), request.getAuthCode()).getBody());
+        } catch (FeignException e) {
+            if (e.status() == HttpStatus.UNAUTHORIZED.value() || e.status() == HttpStatus.FORBIDDEN.value()) {
+                // a rejected token must not be served to the retry
+                scaTokens.evict(token, validity, Constants.SCOPE_SCA);
             }
-        } finally {
-            authInterceptor.setAccessToken(null);
+            throw e;
+        }
+        scaTokens.release(token, validity, Constants.SCOPE_SCA);
+        String accessToken = Optional.ofNullable(response)
+                                 .map(GlobalScaResponseTO::getBearerToken)
+                                 .map(BearerTokenTO::getAccess_token)
+                                 .orElseGet(scaToken::getAccess_token);
+        if (EnumSet.of(OpTypeTO.PAYMENT, OpTypeTO.CANCEL_PAYMENT).contains(request.getOpType())) {
+            String transactionStatus = authInterceptor.callWithAccessToken(accessToken, () -> executePaymentOperation(request, response));
+            updateCmsForPayment(request.getAddressedUser(), response, transactionStatus);
+        } else {
+            updateCmForConsent(request.getAddressedUser(), response);
         }
         return true;
     }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import de.adorsys.ledgers.oba.service.api.service.LoginFailureCounterStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Node-local {@link LoginFailureCounterStore}: one {@link AtomicInteger} per encrypted id, kept until the id
+ * has not been used for the configured TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "oba.login-failure-counter.store", havingValue = "local", matchIfMissing = true)
+public class InMemoryLoginFailureCounterStore implements LoginFailureCounterStore {
+    private final Cache<String, AtomicInteger> counters;
+
+    @Autowired
+    public InMemoryLoginFailureCounterStore(@Value("${oba.login-failure-counter.ttl-seconds:3600}") long ttlSeconds,
+                                            @Value("${oba.login-failure-counter.max-size:100000}") long maxSize) {
+        this(ttlSeconds, maxSize, Ticker.systemTicker());
+    }
+
+    InMemoryLoginFailureCounterStore(long ttlSeconds, long maxSize, Ticker ticker) {
+        this.counters = Caffeine.newBuilder()
+                            .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                            .maximumSize(maxSize)
+                            .ticker(ticker)
+                            .build();
+    }
+
+    @Override
+    public int getFailedCount(String encryptedId, ToIntFunction<String> initialCount) {
+        return counter(encryptedId, initialCount).get();
+    }
+
+    @Override
+    public int incrementFailedCount(String encryptedId, ToIntFunction<String> initialCount) {
+        return counter(encryptedId, initialCount).incrementAndGet();
+    }
+
+    @Override
+    public int resetFailedCount(String encryptedId) {
+        AtomicInteger previous = counters.asMap().put(encryptedId, new AtomicInteger());
+        return previous == null ? 0 : previous.get();
+    }
+
+    private AtomicInteger counter(String encryptedId, ToIntFunction<String> initialCount) {
+        return counters.get(encryptedId, id -> new AtomicInteger(initialCount.applyAsInt(id)));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.adorsys.ledgers.middleware.api.domain.account.AccountReferenceTO;
+import de.adorsys.ledgers.middleware.api.domain.general.AddressTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.AmountTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTargetTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.RemittanceInformationStructuredTO;
+import de.adorsys.ledgers.oba.service.api.service.ParsedPaymentCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Entries are keyed by payment id and the SHA-256 digest of the payment data, so a changed payment is not served
+ * from the cache and the cache does not hold on to the raw payment data arrays.
+ * <p>
+ * Callers get a deep copy of the cached payment and may modify it freely.
+ */
+@Service
+public class ParsedPaymentCacheServiceImpl implements ParsedPaymentCacheService, MeterBinder {
+    private final Cache<PaymentKey, PaymentTO> payments;
+
+    public ParsedPaymentCacheServiceImpl(@Value("${oba.parsed-payment-cache.ttl-seconds:300}") long ttlSeconds,
+                                         @Value("${oba.parsed-payment-cache.max-size:10000}") long maxSize) {
+        this.payments = Caffeine.newBuilder()
+                            .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                            .maximumSize(maxSize)
+                            .recordStats()
+                            .build();
+    }
+
+    @Override
+    public PaymentTO getPayment(String paymentId, byte[] paymentData, Function<byte[], PaymentTO> parser) {
+        PaymentTO payment = payments.get(new PaymentKey(paymentId, paymentData), k -> parser.apply(paymentData));
+        return copyOf(payment);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, payments, "oba.payments.parsed");
+    }
+
+    private static PaymentTO copyOf(PaymentTO source) {
+        PaymentTO copy = new PaymentTO();
+        copy.setPaymentId(source.getPaymentId());
+        copy.setBatchBookingPreferred(source.getBatchBookingPreferred());
+        copy.setRequestedExecutionDate(source.getRequestedExecutionDate());
+        copy.setRequestedExecutionTime(source.getRequestedExecutionTime());
+        copy.setPaymentType(source.getPaymentType());
+        copy.setPaymentProduct(source.getPaymentProduct());
+        copy.setStartDate(source.getStartDate());
+        copy.setEndDate(source.getEndDate());
+        copy.setExecutionRule(source.getExecutionRule());
+        copy.setFrequency(source.getFrequency());
+        copy.setDayOfExecution(source.getDayOfExecution());
+        copy.setDebtorAccount(copyOf(source.getDebtorAccount()));
+        copy.setDebtorAgent(source.getDebtorAgent());
+        copy.setDebtorName(source.getDebtorName());
+        copy.setTransactionStatus(source.getTransactionStatus());
+        copy.setTargets(source.getTargets() == null
+                            ? null
+                            : source.getTargets().stream().map(ParsedPaymentCacheServiceImpl::copyOf).collect(Collectors.toList()));
+        copy.setAccountId(source.getAccountId());
+        return copy;
+    }
+
+    private static PaymentTargetTO copyOf(PaymentTargetTO source) {
+        if (source == null) {
+            return null;
+        }
+        PaymentTargetTO copy = new PaymentTargetTO();
+        copy.setPaymentId(source.getPaymentId());
+        copy.setEndToEndIdentification(source.getEndToEndIdentification());
+        copy.setInstructedAmount(copyOf(source.getInstructedAmount()));
+        copy.setCurrencyOfTransfer(source.getCurrencyOfTransfer());
+        copy.setCreditorAccount(copyOf(source.getCreditorAccount()));
+        copy.setCreditorAgent(source.getCreditorAgent());
+        copy.setCreditorName(source.getCreditorName());
+        copy.setCreditorAddress(copyOf(source.getCreditorAddress()));
+        copy.setPurposeCode(source.getPurposeCode());
+        copy.setRemittanceInformationUnstructured(source.getRemittanceInformationUnstructured());
+        copy.setRemittanceInformationStructured(copyOf(source.getRemittanceInformationStructured()));
+        copy.setChargeBearerTO(source.getChargeBearerTO());
+        return copy;
+    }
+
+    private static AccountReferenceTO copyOf(AccountReferenceTO source) {
+        return source == null
+                   ? null
+                   : new AccountReferenceTO(source.getIban(), source.getBban(), source.getPan(), source.getMaskedPan(), source.getMsisdn(), source.getCurrency());
+    }
+
+    private static AmountTO copyOf(AmountTO source) {
+        return source == null
+                   ? null
+                   : new AmountTO(source.getCurrency(), source.getAmount());
+    }
+
+    private static AddressTO copyOf(AddressTO source) {
+        return source == null
+                   ? null
+                   : new AddressTO(source.getStreet(), source.getBuildingNumber(), source.getCity(), source.getPostalCode(),
+                                   source.getCountry(), source.getLine1(), source.getLine2());
+    }
+
+    private static RemittanceInformationStructuredTO copyOf(RemittanceInformationStructuredTO source) {
+        if (source == null) {
+            return null;
+        }
+        RemittanceInformationStructuredTO copy = new RemittanceInformationStructuredTO();
+        copy.setReference(source.getReference());
+        copy.setReferenceType(source.getReferenceType());
+        copy.setReferenceIssuer(source.getReferenceIssuer());
+        return copy;
+    }
+
+    private static final class PaymentKey {
+        private final String paymentId;
+        private final byte[] digest;
+        private final int hash;
+
+        PaymentKey(String paymentId, byte[] paymentData) {
+            this.paymentId = paymentId;
+            this.digest = sha256(paymentData);
+            this.hash = 31 * Objects.hashCode(paymentId) + Arrays.hashCode(digest);
+        }
+
+        private static byte[] sha256(byte[] data) {
+            try {
+                return MessageDigest.getInstance("SHA-256").digest(data == null ? new byte[0] : data);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PaymentKey)) {
+                return false;
+            }
+            PaymentKey other = (PaymentKey) o;
+            return hash == other.hash
+                       && Objects.equals(paymentId, other.paymentId)
+                       && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
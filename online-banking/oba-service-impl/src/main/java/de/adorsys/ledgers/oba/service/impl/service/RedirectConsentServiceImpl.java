@@ -26,7 +26,6 @@ import de.adorsys.ledgers.middleware.api.domain.sca.StartScaOprTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisAccountAccessInfoTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisConsentTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.OperationInitiationRestClient;
 import de.adorsys.ledgers.middleware.client.rest.RedirectScaRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.ConsentAuthorizeResponse;
@@ -37,11 +36,14 @@ import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.CmsAspspConsentDataService;
 import de.adorsys.ledgers.oba.service.api.service.ConsentReferencePolicy;
 import de.adorsys.ledgers.oba.service.api.service.RedirectConsentService;
+import de.adorsys.ledgers.oba.service.api.service.WorkflowCacheService;
 import de.adorsys.ledgers.oba.service.impl.mapper.ObaAisConsentMapper;
 import de.adorsys.psd2.consent.api.CmsAspspConsentDataBase64;
 import de.adorsys.psd2.consent.api.ais.AisAccountAccess;
 import de.adorsys.psd2.consent.api.ais.CmsAisConsentResponse;
+import de.adorsys.psd2.consent.psu.api.CmsPsuAuthorisation;
 import de.adorsys.psd2.consent.psu.api.ais.CmsAisConsentAccessRequest;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.consent.AisConsentRequestType;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
 import de.adorsys.psd2.xs2a.core.profile.AccountReference;
@@ -56,6 +58,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.OffsetDateTime;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
@@ -74,30 +77,29 @@ public class RedirectConsentServiceImpl implements RedirectConsentService {
     private final CmsPsuAisClient cmsPsuAisClient;
     private final CmsPsuPiisV2Client cmsPsuPiisV2Client;
     private final OperationInitiationRestClient operationInitiationRestClient;
-    private final AuthRequestInterceptor authInterceptor;
+    private final ScopedAuthRequestInterceptor authInterceptor;
     private final ObaAisConsentMapper consentMapper;
     private final ConsentReferencePolicy referencePolicy;
     private final CmsAspspConsentDataService dataService;
     private final AspspConsentDataClient aspspConsentDataClient;
     private final RedirectScaRestClient redirectScaClient;
+    private final WorkflowCacheService workflowCache;
+    private final CmsWriteExecutor cmsWriteExecutor;
 
     @Override
     public void selectScaMethod(String scaMethodId, String encryptedConsentId, final ConsentWorkflow workflow) {
-        try {
-            authInterceptor.setAccessToken(workflow.bearerToken().getAccess_token());
-            StartScaOprTO opr = new StartScaOprTO(workflow.consentId(), encryptedConsentId, workflow.authId(), OpTypeTO.CONSENT);
-            GlobalScaResponseTO response = redirectScaClient.startSca(opr).getBody();
-            response = redirectScaClient.selectMethod(requireNonNull(response).getAuthorisationId(), scaMethodId).getBody();
-            workflow.storeSCAResponse(response);
-        } finally {
-            authInterceptor.setAccessToken(null);
-        }
+        StartScaOprTO opr = new StartScaOprTO(workflow.consentId(), encryptedConsentId, workflow.authId(), OpTypeTO.CONSENT);
+        GlobalScaResponseTO response = authInterceptor.callWithAccessToken(workflow.bearerToken().getAccess_token(), () -> {
+            GlobalScaResponseTO startScaResponse = redirectScaClient.startSca(opr).getBody();
+            return redirectScaClient.selectMethod(requireNonNull(startScaResponse).getAuthorisationId(), scaMethodId).getBody();
+        });
+        workflow.storeSCAResponse(response);
     }
 
     @Override
     public ConsentWorkflow authorizeConsent(ConsentWorkflow workflow, String authCode) {
-        authInterceptor.setAccessToken(workflow.bearerToken().getAccess_token());
-        GlobalScaResponseTO response = redirectScaClient.validateScaCode(workflow.authId(), authCode).getBody();
+        GlobalScaResponseTO response = authInterceptor.callWithAccessToken(workflow.bearerToken().getAccess_token(),
+                                                                           () -> redirectScaClient.validateScaCode(workflow.authId(), authCode).getBody());
 
         workflow.storeSCAResponse(response);
         workflow.setConsentStatus(requireNonNull(response).isPartiallyAuthorised()
@@ -159,8 +161,12 @@ public class RedirectConsentServiceImpl implements RedirectConsentService {
     @Override
     public void updateScaStatusAndConsentData(String psuId, ConsentWorkflow workflow) {
         // UPDATE CMS
-        updateCmsAuthorizationScaStatus(workflow, psuId);
-        updateAspspConsentData(workflow);
+        try {
+            cmsWriteExecutor.execute(() -> updateCmsAuthorizationScaStatus(workflow, psuId),
+                                     () -> updateAspspConsentData(workflow));
+        } finally {
+            evictWorkflow(workflow);
+        }
     }
 
     private void updateCmsAuthorizationScaStatus(ConsentWorkflow workflow, String psuId) {
@@ -191,14 +197,16 @@ public class RedirectConsentServiceImpl implements RedirectConsentService {
             cmsPsuAisClient.putAccountAccessInConsent(workflow.consentId(), accountAccessRequest, DEFAULT_SERVICE_INSTANCE_ID);
         } catch (FeignException e) {
             log.error("Consent not found expecting it is a PIIS consent");
+        } finally {
+            evictWorkflow(workflow);
         }
         // Prepare consent object for ledger
         AisConsentTO consent = consentMapper.toTo(workflow.getConsentResponse().getAccountConsent());
         consent.setAccess(aisConsent.getAccess());
         workflow.getAuthResponse().setConsent(consent);
 
-        authInterceptor.setAccessToken(workflow.bearerToken().getAccess_token());
-        GlobalScaResponseTO globalScaResponseTO = operationInitiationRestClient.initiateAisConsent(consent).getBody();
+        GlobalScaResponseTO globalScaResponseTO = authInterceptor.callWithAccessToken(workflow.bearerToken().getAccess_token(),
+                                                                                      () -> operationInitiationRestClient.initiateAisConsent(consent).getBody());
         workflow.storeSCAResponse(globalScaResponseTO);
     }
 
@@ -218,7 +226,7 @@ public class RedirectConsentServiceImpl implements RedirectConsentService {
     public ConsentWorkflow identifyConsent(String encryptedConsentId, String authorizationId, BearerTokenTO bearerToken) {
         ConsentReference consentReference = referencePolicy.fromRequest(encryptedConsentId, authorizationId);
 
-        CmsAisConsentResponse cmsConsentResponse = loadConsentByRedirectId(consentReference);
+        CmsAisConsentResponse cmsConsentResponse = workflowCache.getConsent(consentReference, this::loadConsentByRedirectId, this::redirectExpiry);
 
         ConsentWorkflow workflow = new ConsentWorkflow(cmsConsentResponse, consentReference);
         AisConsentTO aisConsentTO = consentMapper.toTo(requireNonNull(cmsConsentResponse).getAccountConsent());
@@ -241,6 +249,15 @@ public class RedirectConsentServiceImpl implements RedirectConsentService {
         return responseEntity.getBody();
     }
 
+    private OffsetDateTime redirectExpiry(CmsAisConsentResponse consent) {
+        CmsPsuAuthorisation authorisation = cmsPsuAisClient.getAuthorisationByAuthorisationId(consent.getAuthorisationId(), DEFAULT_SERVICE_INSTANCE_ID).getBody();
+        return authorisation == null ? null : authorisation.getRedirectUrlExpirationTimestamp();
+    }
+
+    private void evictWorkflow(ConsentWorkflow workflow) {
+        workflowCache.evict(workflow.encryptedConsentId(), workflow.getConsentReference().getRedirectId());
+    }
+
     private boolean requestedConsentWithBalance(ConsentWorkflow workflow) {
         return StringUtils.isNotBlank(workflow.getConsentResponse().getAccountConsent().getAccess().getAvailableAccountsWithBalance());
     }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
+import de.adorsys.ledgers.oba.service.api.service.ScaTokenCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Entries expire expiry-margin-seconds before the exchanged token does, tokens expiring sooner are not kept.
+ * Cache hits of the "oba.sca.tokens" metrics are the Keycloak token exchanges avoided.
+ */
+@Service
+public class ScaTokenCacheServiceImpl implements ScaTokenCacheService, MeterBinder {
+    private final Cache<TokenKey, BearerTokenTO> tokens;
+    private final boolean singleUse;
+
+    @Autowired
+    public ScaTokenCacheServiceImpl(@Value("${oba.sca-token-cache.expiry-margin-seconds:10}") long expiryMarginSeconds,
+                                    @Value("${oba.sca-token-cache.max-size:10000}") long maxSize,
+                                    @Value("${oba.sca-token-cache.single-use:false}") boolean singleUse) {
+        this(expiryMarginSeconds, maxSize, singleUse, Ticker.systemTicker());
+    }
+
+    ScaTokenCacheServiceImpl(long expiryMarginSeconds, long maxSize, boolean singleUse, Ticker ticker) {
+        this.singleUse = singleUse;
+        this.tokens = Caffeine.newBuilder()
+                          .expireAfter(new TokenExpiry(TimeUnit.SECONDS.toNanos(expiryMarginSeconds)))
+                          .maximumSize(maxSize)
+                          .ticker(ticker)
+                          .recordStats()
+                          .build();
+    }
+
+    @Override
+    public BearerTokenTO getToken(String token, int validitySeconds, String scope, Supplier<BearerTokenTO> exchange) {
+        return tokens.get(new TokenKey(token, validitySeconds, scope), k -> exchange.get());
+    }
+
+    @Override
+    public void release(String token, int validitySeconds, String scope) {
+        if (singleUse) {
+            evict(token, validitySeconds, scope);
+        }
+    }
+
+    @Override
+    public void evict(String token, int validitySeconds, String scope) {
+        tokens.invalidate(new TokenKey(token, validitySeconds, scope));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, tokens, "oba.sca.tokens");
+    }
+
+    @Data
+    private static class TokenKey {
+        private final String token;
+        private final int validitySeconds;
+        private final String scope;
+    }
+
+    @Data
+    private static class TokenExpiry implements Expiry<TokenKey, BearerTokenTO> {
+        private final long marginNanos;
+
+        @Override
+        public long expireAfterCreate(TokenKey key, BearerTokenTO value, long currentTime) {
+            return Math.max(0, TimeUnit.SECONDS.toNanos(value.getExpires_in()) - marginNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenKey key, BearerTokenTO value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenKey key, BearerTokenTO value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
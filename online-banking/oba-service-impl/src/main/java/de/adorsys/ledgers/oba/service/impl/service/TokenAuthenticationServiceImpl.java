@@ -23,12 +23,13 @@ import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.UserTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.UserMgmtRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.UserAuthentication;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.TokenAuthenticationService;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
+import de.adorsys.psd2.sandbox.auth.TokenValidationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -42,14 +43,16 @@ import static java.util.Objects.requireNonNull;
 public class TokenAuthenticationServiceImpl implements TokenAuthenticationService {
 
     private final UserMgmtRestClient ledgersUserMgmt;
-    private final AuthRequestInterceptor authInterceptor;
+    private final ScopedAuthRequestInterceptor authInterceptor;
     private final KeycloakTokenService tokenService;
+    private final TokenValidationService tokenValidationService;
+
     @Override
     public UserAuthentication getAuthentication(String accessToken) {
         if (StringUtils.isBlank(accessToken)) {
             return null;
         }
-        BearerTokenTO bearerToken = tokenService.validate(accessToken);
+        BearerTokenTO bearerToken = tokenValidationService.validate(accessToken);
 
         if (bearerToken == null) {
             debug();
@@ -96,19 +99,16 @@ public class TokenAuthenticationServiceImpl implements TokenAuthenticationServic
 
     private GlobalScaResponseTO getScaResponseTO(String tokenString) {
         BearerTokenTO token = tokenService.validate(tokenString);
-        authInterceptor.setAccessToken(token.getAccess_token());
-        UserTO user = ledgersUserMgmt.getUser().getBody();
+        UserTO user = authInterceptor.callWithAccessToken(token.getAccess_token(), () -> ledgersUserMgmt.getUser().getBody());
         GlobalScaResponseTO response = new GlobalScaResponseTO();
         response.setBearerToken(token);
         response.setScaMethods(requireNonNull(user).getScaUserData());
         response.setScaStatus(ScaStatusTO.PSUIDENTIFIED);
-        authInterceptor.setAccessToken(null);
         return response;
     }
 
     private ObaException throwException(Exception e) {
         log.error(e.getMessage());
-        authInterceptor.setAccessToken(null);
         return ObaException.builder()
                    .devMessage(e.getMessage())
                    .obaErrorCode(ObaErrorCode.LOGIN_FAILED)
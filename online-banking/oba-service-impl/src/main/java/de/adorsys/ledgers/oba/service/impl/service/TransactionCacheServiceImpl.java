@@ -0,0 +1,191 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.adorsys.ledgers.middleware.api.domain.account.AccountDetailsTO;
+import de.adorsys.ledgers.middleware.api.domain.account.TransactionTO;
+import de.adorsys.ledgers.oba.service.api.service.TransactionCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Day segment cache of booked transactions.
+ * <p>
+ * A query is split into cached days and missing sub-ranges; only the missing sub-ranges are loaded, split by
+ * booking date and stored per day. The cache is bounded by the total number of cached transactions. If a loaded
+ * transaction has no booking date inside its sub-range the segments cannot be trusted, and the whole range is
+ * loaded uncached instead. Segments are kept per PSU: a hit never reaches ledgers, so a segment may only be served
+ * to the PSU whose token loaded it.
+ * <p>
+ * Every registered account carries a generation, unique across accounts, that is part of the segment key. Evicting
+ * an account assigns it a new generation, so its old segments become unreachable at constant cost and age out by
+ * TTL and weight; an account registered again after its link expired starts with a new generation as well.
+ */
+@Service
+public class TransactionCacheServiceImpl implements TransactionCacheService, MeterBinder {
+    private final Cache<SegmentKey, List<TransactionTO>> segments;
+    private final Cache<String, AccountLink> accountLinks;
+    private final AtomicLong generations = new AtomicLong();
+    private final Clock clock;
+
+    @Autowired
+    public TransactionCacheServiceImpl(@Value("${oba.transaction-cache.ttl-seconds:600}") long ttlSeconds,
+                                       @Value("${oba.transaction-cache.max-transactions:500000}") long maxTransactions) {
+        this(ttlSeconds, maxTransactions, Clock.systemDefaultZone());
+    }
+
+    TransactionCacheServiceImpl(long ttlSeconds, long maxTransactions, Clock clock) {
+        this.segments = Caffeine.newBuilder()
+                            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                            .maximumWeight(maxTransactions)
+                            .<SegmentKey, List<TransactionTO>>weigher((k, v) -> v.size() + 1)
+                            .recordStats()
+                            .build();
+        this.accountLinks = Caffeine.newBuilder()
+                                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                                .maximumSize(maxTransactions / 10 + 1)
+                                .build();
+        this.clock = clock;
+    }
+
+    @Override
+    public List<TransactionTO> getTransactions(String userLogin, String accountId, LocalDate dateFrom, LocalDate dateTo, BiFunction<LocalDate, LocalDate, List<TransactionTO>> loader) {
+        AccountLink link = accountLinks.getIfPresent(accountId);
+        if (userLogin == null || dateFrom == null || dateTo == null || dateFrom.isAfter(dateTo) || link == null) {
+            return loader.apply(dateFrom, dateTo);
+        }
+        long generation = link.getGeneration();
+        LocalDate today = LocalDate.now(clock);
+        Map<LocalDate, List<TransactionTO>> days = new TreeMap<>(Comparator.reverseOrder());
+
+        LocalDate closedTo = dateTo.isBefore(today) ? dateTo : today.minusDays(1);
+        if (!dateFrom.isAfter(closedTo) && !loadClosedDays(userLogin, generation, dateFrom, closedTo, loader, days)) {
+            return loader.apply(dateFrom, dateTo);
+        }
+
+        List<TransactionTO> result = new ArrayList<>();
+        if (!dateTo.isBefore(today)) {
+            result.addAll(loader.apply(dateFrom.isAfter(today) ? dateFrom : today, dateTo));
+        }
+        days.values().forEach(result::addAll);
+        return result;
+    }
+
+    @Override
+    public void registerAccounts(Collection<AccountDetailsTO> accounts) {
+        accounts.stream()
+            .filter(a -> a.getId() != null && a.getIban() != null)
+            .forEach(a -> accountLinks.asMap().compute(a.getId(), (id, link) -> link != null && link.getIban().equals(a.getIban())
+                                                                                    ? link
+                                                                                    : new AccountLink(a.getIban(), generations.incrementAndGet())));
+    }
+
+    @Override
+    public void evictByIban(Collection<String> ibans) {
+        Set<String> evicted = new HashSet<>(ibans);
+        accountLinks.asMap().forEach((accountId, link) -> {
+            if (evicted.contains(link.getIban())) {
+                accountLinks.asMap().computeIfPresent(accountId, (id, current) -> new AccountLink(current.getIban(), generations.incrementAndGet()));
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, segments, "oba.transactions.segments");
+    }
+
+    private boolean loadClosedDays(String userLogin, long generation, LocalDate dateFrom, LocalDate dateTo, BiFunction<LocalDate, LocalDate, List<TransactionTO>> loader,
+                                   Map<LocalDate, List<TransactionTO>> days) {
+        List<SegmentKey> keys = new ArrayList<>();
+        for (LocalDate day = dateFrom; !day.isAfter(dateTo); day = day.plusDays(1)) {
+            keys.add(new SegmentKey(userLogin, generation, day));
+        }
+        segments.getAllPresent(keys).forEach((key, transactions) -> days.put(key.getDay(), transactions));
+
+        LocalDate missingFrom = null;
+        for (SegmentKey key : keys) {
+            boolean cached = days.containsKey(key.getDay());
+            if (!cached && missingFrom == null) {
+                missingFrom = key.getDay();
+            } else if (cached && missingFrom != null) {
+                if (!loadSegments(userLogin, generation, missingFrom, key.getDay().minusDays(1), loader, days)) {
+                    return false;
+                }
+                missingFrom = null;
+            }
+        }
+        return missingFrom == null || loadSegments(userLogin, generation, missingFrom, dateTo, loader, days);
+    }
+
+    private boolean loadSegments(String userLogin, long generation, LocalDate dateFrom, LocalDate dateTo, BiFunction<LocalDate, LocalDate, List<TransactionTO>> loader,
+                                 Map<LocalDate, List<TransactionTO>> days) {
+        Map<LocalDate, List<TransactionTO>> loaded = new HashMap<>();
+        for (LocalDate day = dateFrom; !day.isAfter(dateTo); day = day.plusDays(1)) {
+            loaded.put(day, new ArrayList<>());
+        }
+        for (TransactionTO transaction : Objects.requireNonNullElse(loader.apply(dateFrom, dateTo), Collections.<TransactionTO>emptyList())) {
+            List<TransactionTO> day = transaction.getBookingDate() == null ? null : loaded.get(transaction.getBookingDate());
+            if (day == null) {
+                return false;
+            }
+            day.add(transaction);
+        }
+        loaded.forEach((day, transactions) -> segments.put(new SegmentKey(userLogin, generation, day), transactions));
+        days.putAll(loaded);
+        return true;
+    }
+
+    @Data
+    private static class AccountLink {
+        private final String iban;
+        private final long generation;
+    }
+
+    @Data
+    private static class SegmentKey {
+        private final String userLogin;
+        private final long generation;
+        private final LocalDate day;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import de.adorsys.ledgers.oba.service.api.domain.ConsentReference;
+import de.adorsys.ledgers.oba.service.api.service.WorkflowCacheService;
+import de.adorsys.psd2.consent.api.ais.CmsAisConsentResponse;
+import de.adorsys.psd2.consent.api.pis.CmsBasePaymentResponse;
+import de.adorsys.psd2.consent.api.pis.CmsCommonPayment;
+import de.adorsys.psd2.consent.api.pis.CmsPaymentResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.function.Function;
+
+/**
+ * Holds the consent/payment loaded from CMS for the duration of a redirect authorisation,
+ * so the consecutive SCA steps do not re-read it by redirectId on every call.
+ * <p>
+ * Entries are evicted by every service that mutates the cached object in CMS, and never outlive the
+ * redirect URL expiration: once it passes, the next step reloads from CMS, which rejects the expired
+ * redirect as before. An entry whose expiration cannot be resolved is not kept at all.
+ * Callers always receive a deep copy, so changes to a returned object never reach the cache.
+ */
+@Slf4j
+@Service
+public class WorkflowCacheServiceImpl implements WorkflowCacheService, MeterBinder {
+    private final ObjectMapper mapper;
+    private final Cache<WorkflowKey, CachedWorkflow<CmsAisConsentResponse>> consentCache;
+    private final Cache<WorkflowKey, CachedWorkflow<CmsPaymentResponse>> paymentCache;
+
+    public WorkflowCacheServiceImpl(ObjectMapper mapper,
+                                    @Value("${oba.workflow-cache.ttl-seconds:300}") long ttlSeconds,
+                                    @Value("${oba.workflow-cache.max-size:10000}") long maxSize) {
+        // the copies must keep the timestamp offsets, so they stay equal to the cached objects
+        this.mapper = mapper.copy()
+                          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                          .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+        this.consentCache = buildCache(ttlSeconds, maxSize);
+        this.paymentCache = buildCache(ttlSeconds, maxSize);
+    }
+
+    @Override
+    public CmsAisConsentResponse getConsent(ConsentReference reference, Function<ConsentReference, CmsAisConsentResponse> loader,
+                                            Function<CmsAisConsentResponse, OffsetDateTime> redirectExpiry) {
+        CmsAisConsentResponse consent = consentCache.get(WorkflowKey.of(reference), k -> load(reference, loader, redirectExpiry)).getValue();
+        return mapper.convertValue(consent, CmsAisConsentResponse.class);
+    }
+
+    @Override
+    public CmsPaymentResponse getPayment(ConsentReference reference, Function<ConsentReference, CmsPaymentResponse> loader,
+                                         Function<CmsPaymentResponse, OffsetDateTime> redirectExpiry) {
+        CmsPaymentResponse payment = paymentCache.get(WorkflowKey.of(reference), k -> load(reference, loader, redirectExpiry)).getValue();
+        if (payment == null) {
+            return null;
+        }
+        return new CmsPaymentResponse(copyOf(payment.getPayment()), payment.getAuthorisationId(),
+                                      payment.getTppOkRedirectUri(), payment.getTppNokRedirectUri());
+    }
+
+    @Override
+    public void evict(String encryptedConsentId, String redirectId) {
+        WorkflowKey key = new WorkflowKey(redirectId, encryptedConsentId);
+        consentCache.invalidate(key);
+        paymentCache.invalidate(key);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, consentCache, "oba.workflow.consent");
+        CaffeineCacheMetrics.monitor(registry, paymentCache, "oba.workflow.payment");
+    }
+
+    private <V> CachedWorkflow<V> load(ConsentReference reference, Function<ConsentReference, V> loader, Function<V, OffsetDateTime> redirectExpiry) {
+        V value = loader.apply(reference);
+        OffsetDateTime expiresAt = null;
+        try {
+            expiresAt = value == null ? null : redirectExpiry.apply(value);
+        } catch (RuntimeException e) {
+            log.warn("Could not resolve redirect expiration of {}, not caching it: {}", reference.getRedirectId(), e.getMessage());
+        }
+        return new CachedWorkflow<>(value, expiresAt);
+    }
+
+    private CmsBasePaymentResponse copyOf(CmsBasePaymentResponse payment) {
+        if (!(payment instanceof CmsCommonPayment)) {
+            return payment == null ? null : mapper.convertValue(payment, payment.getClass());
+        }
+        // CmsCommonPayment has no default constructor, so its properties are copied onto a new instance
+        try {
+            return mapper.updateValue(new CmsCommonPayment(((CmsCommonPayment) payment).getPaymentProduct()), payment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <V> Cache<WorkflowKey, CachedWorkflow<V>> buildCache(long ttlSeconds, long maxSize) {
+        return Caffeine.newBuilder()
+                   .expireAfter(new RedirectExpiry<V>(Duration.ofSeconds(ttlSeconds).toNanos()))
+                   .maximumSize(maxSize)
+                   .recordStats()
+                   .build();
+    }
+
+    @Data
+    private static class WorkflowKey {
+        private final String redirectId;
+        private final String encryptedConsentId;
+
+        static WorkflowKey of(ConsentReference reference) {
+            return new WorkflowKey(reference.getRedirectId(), reference.getEncryptedConsentId());
+        }
+    }
+
+    @Data
+    private static class CachedWorkflow<V> {
+        private final V value;
+        private final OffsetDateTime redirectExpiresAt;
+    }
+
+    /**
+     * Expires an entry after the configured TTL or at its redirect URL expiration, whichever comes first.
+     */
+    private static class RedirectExpiry<V> implements Expiry<WorkflowKey, CachedWorkflow<V>> {
+        private final long ttlNanos;
+
+        RedirectExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(WorkflowKey key, CachedWorkflow<V> value, long currentTime) {
+            if (value.getRedirectExpiresAt() == null) {
+                return 0;
+            }
+            long untilRedirectExpiry = Duration.between(OffsetDateTime.now(), value.getRedirectExpiresAt()).toNanos();
+            return Math.max(0, Math.min(ttlNanos, untilRedirectExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(WorkflowKey key, CachedWorkflow<V> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(WorkflowKey key, CachedWorkflow<V> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
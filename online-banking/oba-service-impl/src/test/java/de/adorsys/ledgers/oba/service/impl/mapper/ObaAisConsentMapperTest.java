@@ -39,12 +39,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Currency;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static de.adorsys.ledgers.middleware.api.domain.account.AccountStatusTO.ENABLED;
 import static de.adorsys.ledgers.middleware.api.domain.account.AccountTypeTO.CASH;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @ExtendWith(MockitoExtension.class)
 class ObaAisConsentMapperTest {
@@ -73,8 +78,30 @@ class ObaAisConsentMapperTest {
         assertEquals(getAisAccountAccess(), result);
     }
 
+    @Test
+    void accountAccess_manyAccounts() {
+        // Given
+        List<AccountDetailsTO> accounts = IntStream.range(0, 1000)
+                                              .mapToObj(i -> getAccountDetailsTO("id" + i, "DE" + i))
+                                              .collect(Collectors.toList());
+        accounts.add(getAccountDetailsTO("duplicate", "DE999"));
+        AisAccountAccessInfoTO access = new AisAccountAccessInfoTO(Arrays.asList("DE0", "DE999"), Collections.singletonList("DE500"), Collections.singletonList("unknown"), null, null);
+
+        // When
+        AisAccountAccess result = obaAisConsentMapper.accountAccess(access, accounts);
+
+        // Then
+        assertEquals(Arrays.asList("id0", "id999"), result.getAccounts().stream().map(AccountReference::getAspspAccountId).collect(Collectors.toList()));
+        assertEquals("id500", result.getBalances().get(0).getAspspAccountId());
+        assertNull(result.getTransactions().get(0));
+    }
+
     private AccountDetailsTO getAccountDetailsTO() {
-        return new AccountDetailsTO("id", IBAN, "bban", "pan", "maskedPan", "msisdn", EUR, "name", "product", CASH, ENABLED, "bic", "linkedAccounts", UsageTypeTO.PRIV, "details", Collections.EMPTY_LIST, false, false, BigDecimal.ZERO, null);
+        return getAccountDetailsTO("id", IBAN);
+    }
+
+    private AccountDetailsTO getAccountDetailsTO(String id, String iban) {
+        return new AccountDetailsTO(id, iban, "bban", "pan", "maskedPan", "msisdn", EUR, "name", "product", CASH, ENABLED, "bic", "linkedAccounts", UsageTypeTO.PRIV, "details", Collections.EMPTY_LIST, false, false, BigDecimal.ZERO, null);
     }
 
     private AisConsentTO getAisConsentTO() {
@@ -23,12 +23,15 @@ import de.adorsys.ledgers.middleware.api.domain.account.TransactionTO;
 import de.adorsys.ledgers.middleware.api.domain.account.UsageTypeTO;
 import de.adorsys.ledgers.middleware.client.rest.AccountRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
+import de.adorsys.ledgers.oba.service.api.service.AccountListCacheService;
+import de.adorsys.ledgers.oba.service.api.service.TransactionCacheService;
 import de.adorsys.ledgers.util.domain.CustomPageImpl;
 import feign.FeignException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
@@ -36,6 +39,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Currency;
 import java.util.List;
 
@@ -45,6 +49,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,6 +62,10 @@ class AisServiceTest {
 
     @Mock
     private AccountRestClient accountRestClient;
+    @Spy
+    private AccountListCacheService accountListCache = new AccountListCacheServiceImpl(30, 100);
+    @Spy
+    private TransactionCacheService transactionCache = new TransactionCacheServiceImpl(60, 1000);
 
     @Test
     void getAccounts() {
@@ -63,19 +73,47 @@ class AisServiceTest {
         when(accountRestClient.getListOfAccounts()).thenReturn(getAccountList());
 
         // When
-        List<AccountDetailsTO> result = aisService.getAccounts("userLogin");
+        List<AccountDetailsTO> result = aisService.getAccounts("userLogin", "userId");
 
         // Then
         assertThat(result).isEqualTo(getAccountList().getBody());
     }
 
+    @Test
+    void getAccounts_cached() {
+        // Given
+        when(accountRestClient.getListOfAccounts()).thenReturn(getAccountList());
+
+        // When
+        aisService.getAccounts("userLogin", "userId");
+        List<AccountDetailsTO> result = aisService.getAccounts("userLogin", "userId");
+
+        // Then
+        assertThat(result).isEqualTo(getAccountList().getBody());
+        verify(accountRestClient, times(1)).getListOfAccounts();
+    }
+
+    @Test
+    void getAccounts_evicted() {
+        // Given
+        when(accountRestClient.getListOfAccounts()).thenReturn(getAccountList());
+        aisService.getAccounts("userLogin", "userId");
+
+        // When
+        accountListCache.evict("userLogin");
+        aisService.getAccounts("userLogin", "userId");
+
+        // Then
+        verify(accountRestClient, times(2)).getListOfAccounts();
+    }
+
     @Test
     void getAccounts_bad_request() {
         // Given
         when(accountRestClient.getListOfAccounts()).thenThrow(FeignException.class);
 
         // Then
-        assertThrows(ObaException.class, () -> aisService.getAccounts("userLogin"));
+        assertThrows(ObaException.class, () -> aisService.getAccounts("userLogin", "userId"));
     }
 
     @Test
@@ -84,7 +122,7 @@ class AisServiceTest {
         when(accountRestClient.getTransactionByDates(any(), any(), any())).thenReturn(getTransactionList());
 
         // When
-        List<TransactionTO> result = aisService.getTransactions("Account id", LocalDate.of(2019, 1, 1), LocalDate.of(2020, 1, 1));
+        List<TransactionTO> result = aisService.getTransactions("userLogin", "Account id", LocalDate.of(2019, 1, 1), LocalDate.of(2020, 1, 1));
 
         // Then
         assertThat(result).isEqualTo(getTransactionList().getBody());
@@ -97,7 +135,25 @@ class AisServiceTest {
         LocalDate from = LocalDate.of(2019, 1, 1);
         LocalDate to = LocalDate.of(2020, 1, 1);
         // Then
-        assertThrows(ObaException.class, () -> aisService.getTransactions("Account id", from, to));
+        assertThrows(ObaException.class, () -> aisService.getTransactions("userLogin", "Account id", from, to));
+    }
+
+    @Test
+    void streamTransactions() {
+        // Given
+        List<TransactionTO> firstPage = Arrays.asList(new TransactionTO(), new TransactionTO());
+        List<TransactionTO> lastPage = Collections.singletonList(new TransactionTO());
+        when(accountRestClient.getTransactionByDatesPaged(anyString(), any(), any(), eq(0), eq(2)))
+            .thenReturn(ResponseEntity.ok(new CustomPageImpl<>(0, 2, 2, 2, 3, false, true, true, false, firstPage)));
+        when(accountRestClient.getTransactionByDatesPaged(anyString(), any(), any(), eq(1), eq(2)))
+            .thenReturn(ResponseEntity.ok(new CustomPageImpl<>(1, 2, 2, 1, 3, true, false, false, true, lastPage)));
+        List<Integer> batchSizes = new ArrayList<>();
+
+        // When
+        aisService.streamTransactions("Account id", LocalDate.of(2019, 1, 1), LocalDate.of(2020, 1, 1), 2, batch -> batchSizes.add(batch.size()));
+
+        // Then
+        assertEquals(Arrays.asList(2, 1), batchSizes);
     }
 
     @Test
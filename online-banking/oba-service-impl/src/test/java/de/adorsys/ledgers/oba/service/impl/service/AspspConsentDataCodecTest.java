@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
+import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
+import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
+import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
+import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
+import de.adorsys.ledgers.middleware.api.domain.um.ScaMethodTypeTO;
+import de.adorsys.ledgers.middleware.api.domain.um.ScaUserDataTO;
+import de.adorsys.ledgers.oba.service.api.domain.LoginFailedCount;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static de.adorsys.ledgers.oba.service.impl.service.AspspConsentDataCodec.Format.COMPACT;
+import static de.adorsys.ledgers.oba.service.impl.service.AspspConsentDataCodec.Format.JSON;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AspspConsentDataCodecTest {
+    private static final String ACCESS_TOKEN = "eyJraWQiOiJBV3MtRk1o1V4M";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AspspConsentDataCodec jsonCodec = new AspspConsentDataCodec(mapper, JSON);
+    private final AspspConsentDataCodec compactCodec = new AspspConsentDataCodec(mapper, COMPACT);
+
+    @Test
+    void encode_json_matchesLegacyFormat() throws IOException {
+        // Given
+        GlobalScaResponseTO response = getScaResponse(2);
+
+        // When
+        String encoded = jsonCodec.encode(response);
+
+        // Then
+        assertEquals(Base64.getEncoder().encodeToString(mapper.writeValueAsBytes(response)), encoded);
+    }
+
+    @Test
+    void decode_legacyJsonBlob() throws IOException {
+        // Given
+        String legacy = Base64.getEncoder().encodeToString(mapper.writeValueAsBytes(new LoginFailedCount(2)));
+
+        // When
+        LoginFailedCount result = compactCodec.decode(legacy, LoginFailedCount.class);
+
+        // Then
+        assertEquals(2, result.getFailedCount());
+    }
+
+    @Test
+    void decode_compactBlob() throws IOException {
+        // Given
+        GlobalScaResponseTO response = getScaResponse(2);
+
+        // When
+        String encoded = compactCodec.encode(response);
+
+        // Then
+        assertEquals(response, jsonCodec.decode(encoded, GlobalScaResponseTO.class));
+        assertEquals(response, compactCodec.decode(encoded, GlobalScaResponseTO.class));
+    }
+
+    @Test
+    void readTree_legacyAndCompact() throws IOException {
+        // Given
+        GlobalScaResponseTO response = getScaResponse(1);
+        byte[] legacy = mapper.writeValueAsBytes(response);
+        byte[] compact = Base64.getDecoder().decode(compactCodec.encode(response));
+
+        // Then
+        assertEquals(ACCESS_TOKEN, jsonCodec.readTree(legacy).get("bearerToken").get("access_token").asText());
+        assertEquals(ACCESS_TOKEN, jsonCodec.readTree(compact).get("bearerToken").get("access_token").asText());
+    }
+
+    @Test
+    void readTree_shortLegacyBlob() throws IOException {
+        assertEquals(1, jsonCodec.readTree("1".getBytes()).asInt());
+    }
+
+    @Test
+    void readTree_unsupportedVersion() {
+        // Given
+        byte[] data = {0, 'O', 'B', AspspConsentDataCodec.VERSION_DEFLATE + 1, 1, 2, 3};
+
+        // Then
+        assertThrows(IOException.class, () -> jsonCodec.readTree(data));
+    }
+
+    @Test
+    void encode_compact_smallerForTypicalResponse() throws IOException {
+        // Given
+        GlobalScaResponseTO response = getScaResponse(5);
+
+        // When
+        int json = jsonCodec.encode(response).length();
+        int compact = compactCodec.encode(response).length();
+
+        // Then
+        assertTrue(compact < json, () -> "compact " + compact + " >= json " + json);
+    }
+
+    @Test
+    void encode_compact_largeResponse() throws IOException {
+        // Given
+        GlobalScaResponseTO response = getScaResponse(1000);
+
+        // When
+        String encoded = compactCodec.encode(response);
+
+        // Then
+        assertTrue(encoded.length() * 4 < jsonCodec.encode(response).length());
+        assertEquals(response, compactCodec.decode(encoded, GlobalScaResponseTO.class));
+    }
+
+    private GlobalScaResponseTO getScaResponse(int methods) {
+        GlobalScaResponseTO response = new GlobalScaResponseTO();
+        response.setOpType(OpTypeTO.CONSENT);
+        response.setOperationObjectId("consentId");
+        response.setAuthorisationId("authorisationId");
+        response.setScaStatus(ScaStatusTO.PSUAUTHENTICATED);
+        response.setBearerToken(new BearerTokenTO(ACCESS_TOKEN, "Bearer", 7000, null, new AccessTokenTO(), new HashSet<>()));
+        List<ScaUserDataTO> scaMethods = IntStream.range(0, methods)
+                                             .mapToObj(i -> new ScaUserDataTO("method-" + i, ScaMethodTypeTO.EMAIL, "user" + i + "@mail.de", null, false, null, true, true))
+                                             .collect(Collectors.toList());
+        response.setScaMethods(scaMethods);
+        return response;
+    }
+}
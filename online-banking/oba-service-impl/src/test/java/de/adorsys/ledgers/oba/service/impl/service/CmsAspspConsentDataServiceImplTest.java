@@ -19,6 +19,7 @@
 package de.adorsys.ledgers.oba.service.impl.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.TransactionStatusTO;
@@ -29,13 +30,17 @@ import de.adorsys.ledgers.middleware.api.domain.um.ScaUserDataTO;
 import de.adorsys.ledgers.middleware.api.domain.um.UserTO;
 import de.adorsys.ledgers.oba.service.api.domain.LoginFailedCount;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
+import de.adorsys.ledgers.oba.service.api.service.LoginFailureCounterStore;
 import de.adorsys.psd2.consent.api.CmsAspspConsentDataBase64;
+import feign.FeignException;
 import org.adorsys.ledgers.consent.xs2a.rest.client.AspspConsentDataClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.internal.util.reflection.FieldSetter;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
@@ -47,7 +52,11 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.eq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -57,8 +66,10 @@ class CmsAspspConsentDataServiceImplTest {
 
     @Mock
     private AspspConsentDataClient client;
-    @Mock
-    private ObjectMapper mapper;
+    @Spy
+    private AspspConsentDataCodec codec = new AspspConsentDataCodec(new ObjectMapper(), AspspConsentDataCodec.Format.JSON);
+    @Spy
+    private LoginFailureCounterStore counterStore = new InMemoryLoginFailureCounterStore(60, 100);
 
     @BeforeEach
     void set() throws NoSuchFieldException {
@@ -67,15 +78,14 @@ class CmsAspspConsentDataServiceImplTest {
 
     @Test
     void toBase64String() throws JsonProcessingException {
-        when(mapper.writeValueAsBytes(any())).thenAnswer(i -> new ObjectMapper().writeValueAsBytes(i.getArgument(0)));
         String expected = "eyJmYWlsZWRDb3VudCI6MX0=";
         String s = service.toBase64String(new LoginFailedCount(1));
         assertEquals(expected, s);
     }
 
     @Test
-    void toBase64String_fail() throws JsonProcessingException {
-        when(mapper.writeValueAsBytes(any())).thenThrow(JsonProcessingException.class);
+    void toBase64String_fail() throws IOException {
+        doThrow(IOException.class).when(codec).encode(any());
 
         LoginFailedCount failedCount = new LoginFailedCount(1);
         assertThrows(ObaException.class, () -> service.toBase64String(failedCount));
@@ -170,22 +180,93 @@ class CmsAspspConsentDataServiceImplTest {
 
     @Test
     void updateLoginFailedCount() throws JsonProcessingException {
-        when(mapper.writeValueAsBytes(any())).thenAnswer(i -> new ObjectMapper().writeValueAsBytes(i.getArgument(0)));
         when(client.getAspspConsentData(any())).thenReturn(getCmsAspspCnsData(0));
         int attemptsLeft = service.updateLoginFailedCount("id");
         assertEquals(2, attemptsLeft);
+        verify(client, times(1)).updateAspspConsentData("id", getCmsAspspCnsData(1).getBody());
     }
 
     @Test
     void updateLoginFailedCount_last_attempt() throws IOException {
-        when(mapper.readValue(any(byte[].class), eq(LoginFailedCount.class)))
-            .thenAnswer(i -> new ObjectMapper().readValue((byte[]) i.getArgument(0), LoginFailedCount.class));
-        when(mapper.writeValueAsBytes(any())).thenAnswer(i -> new ObjectMapper().writeValueAsBytes((i.getArgument(0))));
         when(client.getAspspConsentData(any())).thenReturn(getCmsAspspCnsData(2));
         int attemptsLeft = service.updateLoginFailedCount("id");
         assertEquals(0, attemptsLeft);
     }
 
+    @Test
+    void updateLoginFailedCount_countedLocally() throws IOException {
+        when(client.getAspspConsentData(any())).thenReturn(getCmsAspspCnsData(0));
+
+        assertFalse(service.isFailedLogin("id"));
+        assertEquals(2, service.updateLoginFailedCount("id"));
+        assertFalse(service.isFailedLogin("id"));
+        assertEquals(1, service.updateLoginFailedCount("id"));
+        assertEquals(0, service.updateLoginFailedCount("id"));
+        assertTrue(service.isFailedLogin("id"));
+
+        // one read seeds the counter, every failure merges its count into the current CMS data
+        verify(client, times(4)).getAspspConsentData("id");
+        verify(client, times(3)).updateAspspConsentData(any(), any());
+    }
+
+    @Test
+    void updateLoginFailedCount_keepsScaResponse() throws IOException {
+        // Given
+        GlobalScaResponseTO scaResponse = new GlobalScaResponseTO();
+        scaResponse.setAuthorisationId("authId");
+        scaResponse.setScaStatus(ScaStatusTO.PSUIDENTIFIED);
+        String stored = Base64.getEncoder().encodeToString(new ObjectMapper().writeValueAsBytes(scaResponse));
+        when(client.getAspspConsentData(any())).thenReturn(ResponseEntity.ok(new CmsAspspConsentDataBase64("id", stored)));
+
+        // When
+        service.updateLoginFailedCount("id");
+
+        // Then
+        ArgumentCaptor<CmsAspspConsentDataBase64> captor = ArgumentCaptor.forClass(CmsAspspConsentDataBase64.class);
+        verify(client).updateAspspConsentData(eq("id"), captor.capture());
+        JsonNode written = new ObjectMapper().readTree(Base64.getDecoder().decode(captor.getValue().getAspspConsentDataBase64()));
+        assertEquals(1, written.path("failedCount").asInt());
+        assertEquals("authId", written.path("authorisationId").asText());
+        assertEquals("psuIdentified", written.path("scaStatus").asText());
+    }
+
+    @Test
+    void updateLoginFailedCount_cmsUnavailable() throws IOException {
+        // Given
+        when(client.getAspspConsentData(any())).thenReturn(getCmsAspspCnsData(0));
+        when(client.updateAspspConsentData(any(), any())).thenThrow(FeignException.class);
+
+        // When
+        int attemptsLeft = service.updateLoginFailedCount("id");
+
+        // Then
+        assertEquals(2, attemptsLeft);
+    }
+
+    @Test
+    void resetLoginFailedCount() throws IOException {
+        // Given
+        when(client.getAspspConsentData(any())).thenReturn(getCmsAspspCnsData(1));
+        service.updateLoginFailedCount("id");
+
+        // When
+        service.resetLoginFailedCount("id");
+
+        // Then
+        assertFalse(service.isFailedLogin("id"));
+        assertEquals(2, service.updateLoginFailedCount("id"));
+        verify(client).updateAspspConsentData("id", getCmsAspspCnsData(0).getBody());
+    }
+
+    @Test
+    void resetLoginFailedCount_noFailures() {
+        // When
+        service.resetLoginFailedCount("id");
+
+        // Then
+        verifyNoInteractions(client);
+    }
+
     private ResponseEntity<CmsAspspConsentDataBase64> getCmsAspspCnsData(int failedCount) throws JsonProcessingException {
         CmsAspspConsentDataBase64 base64 = new CmsAspspConsentDataBase64("id", Base64.getEncoder().encodeToString(new ObjectMapper().writeValueAsBytes(new LoginFailedCount(failedCount))));
         return ResponseEntity.ok(base64);
@@ -193,8 +274,6 @@ class CmsAspspConsentDataServiceImplTest {
 
     @Test
     void isFailedLogin() throws IOException {
-        when(mapper.readValue(any(byte[].class), eq(LoginFailedCount.class)))
-            .thenAnswer(i -> new ObjectMapper().readValue((byte[]) i.getArgument(0), LoginFailedCount.class));
         when(client.getAspspConsentData(any())).thenReturn(getCmsAspspCnsData(1));
         boolean isFailed = service.isFailedLogin("id");
         assertFalse(isFailed);
@@ -202,8 +281,6 @@ class CmsAspspConsentDataServiceImplTest {
 
     @Test
     void isFailedLogin_failed() throws IOException {
-        when(mapper.readValue(any(byte[].class), eq(LoginFailedCount.class)))
-            .thenAnswer(i -> new ObjectMapper().readValue((byte[]) i.getArgument(0), LoginFailedCount.class));
         when(client.getAspspConsentData(any())).thenReturn(getCmsAspspCnsData(3));
         boolean isFailed = service.isFailedLogin("id");
         assertTrue(isFailed);
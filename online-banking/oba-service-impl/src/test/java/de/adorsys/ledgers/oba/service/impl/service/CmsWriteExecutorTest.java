@@ -0,0 +1,245 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode;
+import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CmsWriteExecutorTest {
+    private final ScopedAuthRequestInterceptor authInterceptor = new ScopedAuthRequestInterceptor();
+    private CmsWriteExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void execute_sequential() {
+        // Given
+        executor = new CmsWriteExecutor(authInterceptor, false, 4, 16, 5000);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        String caller = Thread.currentThread().getName();
+
+        // When
+        executor.execute(() -> threads.add(Thread.currentThread().getName()),
+                         () -> threads.add(Thread.currentThread().getName()));
+
+        // Then
+        assertEquals(List.of(caller, caller), threads);
+    }
+
+    @Test
+    void execute_parallel() {
+        // Given
+        executor = new CmsWriteExecutor(authInterceptor, true, 4, 16, 5000);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch allStarted = new CountDownLatch(3);
+        List<Boolean> metOthers = new CopyOnWriteArrayList<>();
+        Runnable write = () -> {
+            threads.add(Thread.currentThread().getName());
+            allStarted.countDown();
+            metOthers.add(await(allStarted));
+        };
+
+        // When
+        executor.execute(write, write, write);
+
+        // Then
+        assertEquals(3, threads.size());
+        assertNotEquals(Thread.currentThread().getName(), threads.get(0));
+        assertEquals(List.of(true, true, true), metOthers, "Writes were not executed concurrently");
+    }
+
+    @Test
+    void execute_parallel_propagatesAccessToken() {
+        // Given
+        executor = new CmsWriteExecutor(authInterceptor, true, 4, 16, 5000);
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        Runnable write = () -> tokens.add(authInterceptor.getAccessToken());
+
+        // When
+        authInterceptor.runWithAccessToken("access_token", () -> executor.execute(write, write));
+
+        // Then
+        assertEquals(List.of("access_token", "access_token"), tokens);
+        assertNull(authInterceptor.getAccessToken());
+    }
+
+    @Test
+    void execute_parallel_singleFailure() {
+        // Given
+        executor = new CmsWriteExecutor(authInterceptor, true, 4, 16, 5000);
+        ObaException failure = ObaException.builder().obaErrorCode(ObaErrorCode.AUTH_EXPIRED).devMessage("expired").build();
+
+        // When
+        ObaException result = assertThrows(ObaException.class, () -> executor.execute(() -> {
+        }, () -> {
+            throw failure;
+        }));
+
+        // Then
+        assertSame(failure, result);
+    }
+
+    @Test
+    void execute_parallel_aggregatedFailures() {
+        // Given
+        executor = new CmsWriteExecutor(authInterceptor, true, 4, 16, 5000);
+
+        // When
+        ObaException result = assertThrows(ObaException.class, () -> executor.execute(() -> {
+            throw new IllegalStateException("status");
+        }, () -> {
+            throw ObaException.builder().obaErrorCode(ObaErrorCode.AUTH_EXPIRED).devMessage("expired").build();
+        }));
+
+        // Then
+        assertEquals(ObaErrorCode.AUTH_EXPIRED, result.getObaErrorCode());
+        assertEquals(2, result.getSuppressed().length);
+        assertTrue(result.getDevMessage().contains("status"));
+        assertTrue(result.getDevMessage().contains("expired"));
+    }
+
+    @Test
+    void execute_parallel_timeout() {
+        // Given
+        executor = new CmsWriteExecutor(authInterceptor, true, 1, 16, 200);
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        List<String> ran = new CopyOnWriteArrayList<>();
+        Runnable blocked = () -> {
+            ran.add("blocked");
+            await(neverReleased);
+        };
+        Runnable queued = () -> ran.add("queued");
+
+        // When
+        ObaException result = assertThrows(ObaException.class, () -> executor.execute(blocked, queued));
+
+        // Then
+        assertEquals(ObaErrorCode.CONNECTION_ERROR, result.getObaErrorCode());
+        // the single pool thread runs tasks in order, so this returns once the dropped write was dequeued
+        executor.execute(() -> {
+        }, () -> {
+        });
+        assertFalse(ran.contains("queued"), "A queued write ran after the timeout");
+    }
+
+    @Test
+    void execute_parallel_timeoutNotExtendedByHangingWrite() {
+        // Given
+        executor = new CmsWriteExecutor(authInterceptor, true, 4, 16, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable hanging = () -> awaitIgnoringInterrupts(release);
+
+        try {
+            // When
+            ObaException result = assertThrows(ObaException.class, () -> executor.execute(hanging, () -> {
+            }));
+
+            // Then
+            assertEquals(ObaErrorCode.CONNECTION_ERROR, result.getObaErrorCode());
+            assertEquals(1, release.getCount(), "execute waited for the hanging write");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void execute_parallel_saturatedPoolRejected() {
+        // Given
+        executor = new CmsWriteExecutor(authInterceptor, true, 1, 1, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        Runnable blocking = () -> {
+            threads.add(Thread.currentThread().getName());
+            awaitIgnoringInterrupts(release);
+        };
+
+        try {
+            // When
+            ObaException result = assertThrows(ObaException.class, () -> executor.execute(blocking, () -> {
+            }, () -> threads.add(Thread.currentThread().getName())));
+
+            // Then
+            assertEquals(ObaErrorCode.CONNECTION_ERROR, result.getObaErrorCode());
+            assertFalse(threads.contains(Thread.currentThread().getName()), "A write ran on the calling thread");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void execute_parallel_writesCompleteBeforeReturn() {
+        // Given
+        executor = new CmsWriteExecutor(authInterceptor, true, 4, 16, 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        Runnable slow = () -> {
+            await(release);
+            completed.incrementAndGet();
+        };
+
+        // When
+        executor.execute(slow, () -> {
+            release.countDown();
+            completed.incrementAndGet();
+        });
+
+        // Then
+        assertEquals(2, completed.get());
+    }
+
+    private void awaitIgnoringInterrupts(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+                return;
+            } catch (InterruptedException e) {
+                // like a blocked socket read, the write does not react to the interrupt
+            }
+        }
+    }
+
+    private boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -18,6 +18,8 @@
 
 package de.adorsys.ledgers.oba.service.impl.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.ledgers.middleware.api.domain.account.AccountReferenceTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.payment.TransactionStatusTO;
@@ -27,7 +29,6 @@ import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.ledgers.middleware.client.mappers.PaymentMapperTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.OauthRestClient;
 import de.adorsys.ledgers.middleware.client.rest.OperationInitiationRestClient;
 import de.adorsys.ledgers.middleware.client.rest.RedirectScaRestClient;
@@ -39,10 +40,14 @@ import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.AuthorizationService;
 import de.adorsys.ledgers.oba.service.api.service.CmsAspspConsentDataService;
 import de.adorsys.ledgers.oba.service.api.service.ConsentReferencePolicy;
+import de.adorsys.ledgers.oba.service.api.service.ParsedPaymentCacheService;
+import de.adorsys.ledgers.oba.service.api.service.TransactionCacheService;
+import de.adorsys.ledgers.oba.service.api.service.WorkflowCacheService;
 import de.adorsys.psd2.consent.api.pis.CmsCommonPayment;
 import de.adorsys.psd2.consent.api.pis.CmsPaymentResponse;
 import de.adorsys.psd2.consent.psu.api.CmsPsuAuthorisation;
 import de.adorsys.psd2.consent.psu.api.CmsPsuPisService;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.exception.AuthorisationIsExpiredException;
 import de.adorsys.psd2.xs2a.core.exception.RedirectUrlIsExpiredException;
 import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
@@ -53,20 +58,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.time.OffsetDateTime;
 import java.util.Optional;
 
 import static de.adorsys.ledgers.middleware.api.domain.payment.TransactionStatusTO.ACCP;
+import static de.adorsys.psd2.consent.aspsp.api.config.CmsPsuApiDefaultValue.DEFAULT_SERVICE_INSTANCE_ID;
 import static de.adorsys.psd2.xs2a.core.pis.TransactionStatus.ACSC;
 import static de.adorsys.psd2.xs2a.core.pis.TransactionStatus.CANC;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -80,14 +92,15 @@ class CommonPaymentServiceImplTest {
     private static final String OK_REDIRECT_URI = "www.ok.ua";
     private static final String NOK_REDIRECT_URI = "www.nok.ua";
     private static final String AUTH_CODE = "123456";
+    private static final String IBAN = "DE89370400440532013000";
 
     @InjectMocks
     private CommonPaymentServiceImpl service;
 
     @Mock
     private ConsentReferencePolicy referencePolicy;
-    @Mock
-    private AuthRequestInterceptor authInterceptor;
+    @Spy
+    private ScopedAuthRequestInterceptor authInterceptor = new ScopedAuthRequestInterceptor();
     @Mock
     private CmsPsuPisService cmsPsuPisService;
     @Mock
@@ -104,6 +117,14 @@ class CommonPaymentServiceImplTest {
     private AuthorizationService authService;
     @Mock
     private RedirectScaRestClient redirectScaClient;
+    @Spy
+    private WorkflowCacheService workflowCache = new WorkflowCacheServiceImpl(new ObjectMapper().findAndRegisterModules(), 60, 100);
+    @Spy
+    private CmsWriteExecutor cmsWriteExecutor = new CmsWriteExecutor(authInterceptor, false, 1, 1, 1000);
+    @Mock
+    private TransactionCacheService transactionCache;
+    @Spy
+    private ParsedPaymentCacheService parsedPayments = new ParsedPaymentCacheServiceImpl(60, 100);
 
     @Test
     void selectScaForPayment() throws RedirectUrlIsExpiredException {
@@ -134,6 +155,60 @@ class CommonPaymentServiceImplTest {
         assertThat(result).isEqualToComparingFieldByFieldRecursively(getExpectedIdentifyWorkflow(TransactionStatus.ACCP.name()));
     }
 
+    @Test
+    void identifyPayment_cachedUntilCmsUpdate() throws RedirectUrlIsExpiredException {
+        // Given
+        when(referencePolicy.fromRequest(anyString(), anyString())).thenReturn(getConsentReference());
+        when(cmsPsuPisService.checkRedirectAndGetPayment(anyString(), anyString())).thenReturn(getCmsPaymentResponse());
+        when(cmsPsuPisService.getAuthorisationByAuthorisationId(AUTH_ID, DEFAULT_SERVICE_INSTANCE_ID)).thenReturn(getCmsPsuAuth(OffsetDateTime.now().plusMinutes(10)));
+        when(paymentMapper.toAbstractPayment(anyString(), anyString(), anyString())).thenReturn(getPaymentTO(ACCP));
+        PaymentWorkflow workflow = getExpectedWorkflow(null);
+        when(operationInitiationRestClient.initiatePayment(workflow.paymentType(), workflow.getAuthResponse().getPayment())).thenReturn(ResponseEntity.ok(getSelectMethodResponse(TransactionStatus.ACCP.name())));
+
+        // When
+        service.identifyPayment(ENCRYPTED_ID, AUTH_ID, new BearerTokenTO());
+        service.identifyPayment(ENCRYPTED_ID, AUTH_ID, new BearerTokenTO());
+        service.initiatePaymentOpr(workflow, PSU_ID, OpTypeTO.PAYMENT);
+        service.identifyPayment(ENCRYPTED_ID, AUTH_ID, new BearerTokenTO());
+
+        // Then
+        verify(cmsPsuPisService, times(2)).checkRedirectAndGetPayment(anyString(), anyString());
+    }
+
+    @Test
+    void identifyPayment_reloadedAfterRedirectExpiry() throws RedirectUrlIsExpiredException {
+        // Given
+        when(referencePolicy.fromRequest(anyString(), anyString())).thenReturn(getConsentReference());
+        when(cmsPsuPisService.checkRedirectAndGetPayment(anyString(), anyString())).thenReturn(getCmsPaymentResponse());
+        when(cmsPsuPisService.getAuthorisationByAuthorisationId(AUTH_ID, DEFAULT_SERVICE_INSTANCE_ID)).thenReturn(getCmsPsuAuth(OffsetDateTime.now().minusSeconds(1)));
+        when(paymentMapper.toAbstractPayment(anyString(), anyString(), anyString())).thenReturn(getPaymentTO(ACCP));
+
+        // When
+        service.identifyPayment(ENCRYPTED_ID, AUTH_ID, new BearerTokenTO());
+        service.identifyPayment(ENCRYPTED_ID, AUTH_ID, new BearerTokenTO());
+
+        // Then
+        verify(cmsPsuPisService, times(2)).checkRedirectAndGetPayment(anyString(), anyString());
+    }
+
+    @Test
+    void identifyPayment_parsedOnce() throws RedirectUrlIsExpiredException {
+        // Given
+        when(referencePolicy.fromRequest(anyString(), anyString())).thenReturn(getConsentReference());
+        when(cmsPsuPisService.checkRedirectAndGetPayment(anyString(), anyString())).thenReturn(getCmsPaymentResponse());
+        when(paymentMapper.toAbstractPayment(anyString(), anyString(), anyString())).thenReturn(getPaymentTO(ACCP));
+
+        // When
+        PaymentWorkflow first = service.identifyPayment(ENCRYPTED_ID, AUTH_ID, new BearerTokenTO());
+        workflowCache.evict(ENCRYPTED_ID, getConsentReference().getRedirectId());
+        PaymentWorkflow second = service.identifyPayment(ENCRYPTED_ID, AUTH_ID, new BearerTokenTO());
+
+        // Then
+        verify(paymentMapper, times(1)).toAbstractPayment(anyString(), anyString(), anyString());
+        assertNotSame(first.getAuthResponse().getPayment(), second.getAuthResponse().getPayment());
+        assertEquals(first.getAuthResponse().getPayment(), second.getAuthResponse().getPayment());
+    }
+
     @Test
     void identifyPayment_fail() throws RedirectUrlIsExpiredException {
         // Given
@@ -239,6 +314,7 @@ class CommonPaymentServiceImplTest {
 
         // Then
         assertThat(result).isEqualToComparingFieldByFieldRecursively(getExpectedWorkflow(ACSC.name()));
+        verify(transactionCache, times(1)).evictByIban(Collections.singletonList(IBAN));
     }
 
     @Test
@@ -308,6 +384,7 @@ class CommonPaymentServiceImplTest {
         payment.setPaymentType(PaymentTypeTO.SINGLE);
         payment.setPaymentProduct("sepa");
         payment.setTransactionStatus(status);
+        payment.setDebtorAccount(new AccountReferenceTO(IBAN, null, null, null, null, null));
         return payment;
     }
 
@@ -363,6 +440,12 @@ class CommonPaymentServiceImplTest {
         return s.getBytes();
     }
 
+    private Optional<CmsPsuAuthorisation> getCmsPsuAuth(OffsetDateTime redirectExpiry) {
+        CmsPsuAuthorisation auth = new CmsPsuAuthorisation();
+        auth.setRedirectUrlExpirationTimestamp(redirectExpiry);
+        return Optional.of(auth);
+    }
+
     private Optional<CmsPsuAuthorisation> geCmsPsuAuth(ScaStatus status) {
         CmsPsuAuthorisation auth = new CmsPsuAuthorisation();
         auth.setScaStatus(status);
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import de.adorsys.psd2.consent.service.security.SecurityDataService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConsentIdEncryptorTest {
+    private static final String CONSENT_ID = "consentId";
+
+    @Mock
+    private SecurityDataService securityDataService;
+
+    private ConsentIdEncryptor encryptor;
+
+    @BeforeEach
+    void setUp() {
+        encryptor = new ConsentIdEncryptor(securityDataService, 20_000, 256);
+    }
+
+    @Test
+    void encryptIds_cached() {
+        // Given
+        when(securityDataService.encryptId(CONSENT_ID)).thenReturn(Optional.of("encrypted"));
+
+        // When
+        encryptor.encryptIds(Arrays.asList(CONSENT_ID, CONSENT_ID));
+        Map<String, String> result = encryptor.encryptIds(Arrays.asList(CONSENT_ID, null));
+
+        // Then
+        assertEquals(Map.of(CONSENT_ID, "encrypted"), result);
+        verify(securityDataService, times(1)).encryptId(CONSENT_ID);
+    }
+
+    @Test
+    void encryptIds_notEncryptedIsNotCached() {
+        // Given
+        when(securityDataService.encryptId(CONSENT_ID)).thenReturn(Optional.empty());
+
+        // When
+        encryptor.encryptIds(List.of(CONSENT_ID));
+        Map<String, String> result = encryptor.encryptIds(List.of(CONSENT_ID));
+
+        // Then
+        assertFalse(result.containsKey(CONSENT_ID));
+        verify(securityDataService, times(2)).encryptId(CONSENT_ID);
+    }
+
+    @Test
+    void encryptIds_largeBatch() {
+        // Given
+        List<String> ids = IntStream.range(0, 10_000)
+                               .mapToObj(String::valueOf)
+                               .collect(Collectors.toList());
+        when(securityDataService.encryptId(anyString())).thenAnswer(i -> Optional.of("enc-" + i.getArgument(0)));
+
+        // When
+        Map<String, String> first = encryptor.encryptIds(ids);
+        Map<String, String> second = encryptor.encryptIds(ids);
+
+        // Then
+        assertEquals(10_000, first.size());
+        assertEquals("enc-9999", first.get("9999"));
+        assertEquals(first, second);
+        verify(securityDataService, times(1)).encryptId(eq("9999"));
+    }
+}
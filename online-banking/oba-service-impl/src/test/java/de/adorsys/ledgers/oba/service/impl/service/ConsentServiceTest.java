@@ -26,11 +26,11 @@ import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.SCAConsentResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.ConsentRestClient;
 import de.adorsys.ledgers.middleware.client.rest.RedirectScaRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.CreatePiisConsentRequestTO;
 import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsent;
+import de.adorsys.ledgers.oba.service.api.domain.ObaAisConsentCursorPage;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.impl.mapper.CreatePiisConsentRequestMapper;
 import de.adorsys.ledgers.util.domain.CustomPageImpl;
@@ -41,6 +41,7 @@ import de.adorsys.psd2.consent.api.ais.AisAccountAccess;
 import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
 import de.adorsys.psd2.consent.aspsp.api.piis.CreatePiisConsentResponse;
 import de.adorsys.psd2.consent.service.security.SecurityDataService;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationTemplate;
 import de.adorsys.psd2.xs2a.core.consent.AisConsentRequestType;
 import de.adorsys.psd2.xs2a.core.consent.AspspConsentData;
@@ -56,16 +57,19 @@ import org.adorsys.ledgers.consent.aspsp.rest.client.CmsAspspPiisClient;
 import org.adorsys.ledgers.consent.mixin.ResponseDataMixIn;
 import org.adorsys.ledgers.consent.psu.rest.client.CmsPsuAisClient;
 import org.adorsys.ledgers.consent.xs2a.rest.client.AspspConsentDataClient;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.internal.util.reflection.FieldSetter;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.*;
@@ -87,6 +91,7 @@ class ConsentServiceTest {
     private static final String IBAN = "DE1234567890";
     private static final Currency EUR = Currency.getInstance("EUR");
     private static final String USER_LOGIN = "login";
+    private static final int MAX_PAGE_SIZE = 100;
 
     @InjectMocks
     private ConsentServiceImpl consentService;
@@ -96,11 +101,13 @@ class ConsentServiceTest {
     @Mock
     private SecurityDataService securityDataService;
     @Mock
+    private ConsentIdEncryptor consentIdEncryptor;
+    @Mock
     private AspspConsentDataClient consentDataClient;
     @Mock
     private ConsentRestClient consentRestClient;
-    @Mock
-    private AuthRequestInterceptor authInterceptor;
+    @Spy
+    private ScopedAuthRequestInterceptor authInterceptor = new ScopedAuthRequestInterceptor();
     @Mock
     private ObjectMapper objectMapper;
     @Mock
@@ -113,14 +120,21 @@ class ConsentServiceTest {
     private RedirectScaRestClient redirectScaRestClient;
     @Mock
     private CmsAspspAisClient cmsAspspAisClient;
+    @Spy
+    private AspspConsentDataCodec consentDataCodec = new AspspConsentDataCodec(new ObjectMapper(), AspspConsentDataCodec.Format.JSON);
 
     private final ObjectMapper mapper = new ObjectMapper();
 
+    @BeforeEach
+    void setUp() throws NoSuchFieldException {
+        FieldSetter.setField(consentService, consentService.getClass().getDeclaredField("maxPageSize"), MAX_PAGE_SIZE);
+    }
+
     @Test
     void getListOfConsents() {
         // Given
         when(cmsPsuAisClient.getConsentsForPsu(any(), any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(ResponseEntity.ok(Collections.singletonList(getCmsAisAccountConsent())));
-        when(securityDataService.encryptId(any())).thenReturn(Optional.of("consent"));
+        when(consentIdEncryptor.encryptIds(any())).thenReturn(Collections.singletonMap(CONSENT_ID, "consent"));
 
         // When
         List<ObaAisConsent> listOfConsents = consentService.getListOfConsents(USER_LOGIN);
@@ -154,11 +168,9 @@ class ConsentServiceTest {
         // Given
         when(securityDataService.decryptId(any())).thenReturn(Optional.of(CONSENT_ID));
         when(aspspDataService.readAspspConsentData(any())).thenReturn(Optional.of(getAspspConsentData()));
-        when(objectMapper.readTree(any(byte[].class))).thenReturn(getJsonNode());
         when(cmsPsuAisClient.confirmConsent(any(), any())).thenReturn(ResponseEntity.ok(true));
         when(cmsPsuAisClient.updateAuthorisationStatus(any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
         when(consentDataClient.updateAspspConsentData(any(), any())).thenReturn(ResponseEntity.ok().build());
-        when(objectMapper.writeValueAsBytes(any())).thenReturn(getByteArray());
         when(redirectScaRestClient.validateScaCode(any(), any())).thenReturn(getGlobalResponse());
         // When
         consentService.confirmAisConsentDecoupled(USER_LOGIN, "encryptedConsentId", AUTHORIZATION_ID, TAN);
@@ -174,6 +186,7 @@ class ConsentServiceTest {
 
         // Then
         assertThrows(ObaException.class, () -> consentService.confirmAisConsentDecoupled(USER_LOGIN, "encryptedConsentId", AUTHORIZATION_ID, TAN));
+        assertNull(authInterceptor.getAccessToken());
     }
 
     private Response getResponse() throws JsonProcessingException {
@@ -191,25 +204,24 @@ class ConsentServiceTest {
         // Given
         when(securityDataService.decryptId(any())).thenReturn(Optional.of(CONSENT_ID));
         when(aspspDataService.readAspspConsentData(any())).thenReturn(Optional.of(getAspspConsentData()));
-        when(objectMapper.readTree(any(byte[].class))).thenReturn(getJsonNodeError());
+        doReturn(getJsonNodeError()).when(consentDataCodec).readTree(any());
 
         // Then
         assertThrows(ObaException.class, () -> consentService.confirmAisConsentDecoupled(USER_LOGIN, "encryptedConsentId", AUTHORIZATION_ID, TAN));
     }
 
     @Test
-    void createPiisConsent() throws JsonProcessingException, NoSuchFieldException {
+    void createPiisConsent() throws IOException, NoSuchFieldException {
         // Given
         FieldSetter.setField(consentService, consentService.getClass().getDeclaredField("createPiisConsentRequestMapper"), Mappers.getMapper(CreatePiisConsentRequestMapper.class));
 
         when(cmsAspspPiisClient.createConsent(any(), anyString(), nullable(String.class), nullable(String.class), nullable(String.class), any())).thenReturn(getCreatePiisConsentResponse());
         when(consentRestClient.initiatePiisConsent(any())).thenReturn(ResponseEntity.ok(getSCAConsentResponseTO()));
         when(consentDataClient.updateAspspConsentData(anyString(), any())).thenReturn(ResponseEntity.ok().build());
-        when(objectMapper.writeValueAsBytes(any())).thenReturn(getByteArray());
 
         consentService.createPiisConsent(getCreatePiisConsentRequest(), "psiId");
 
-        verify(objectMapper, times(1)).writeValueAsBytes(getSCAConsentResponseTO());
+        verify(consentDataCodec, times(1)).encode(getSCAConsentResponseTO());
     }
 
     private ResponseEntity<CreatePiisConsentResponse> getCreatePiisConsentResponse() {
@@ -230,12 +242,10 @@ class ConsentServiceTest {
         // Given
         when(securityDataService.decryptId(any())).thenReturn(Optional.of(CONSENT_ID));
         when(aspspDataService.readAspspConsentData(any())).thenReturn(Optional.of(getAspspConsentData()));
-        when(objectMapper.readTree(any(byte[].class))).thenReturn(getJsonNode());
         when(redirectScaRestClient.validateScaCode(any(), any())).thenReturn(getGlobalResponse());
         when(cmsPsuAisClient.confirmConsent(any(), any())).thenReturn(ResponseEntity.ok(true));
         when(cmsPsuAisClient.updateAuthorisationStatus(any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
         when(consentDataClient.updateAspspConsentData(any(), any())).thenThrow(FeignException.class);
-        when(objectMapper.writeValueAsBytes(any())).thenReturn(getByteArray());
 
         // Then
         assertThrows(ObaException.class, () -> consentService.confirmAisConsentDecoupled(USER_LOGIN, "encryptedConsentId", AUTHORIZATION_ID, TAN));
@@ -254,10 +264,9 @@ class ConsentServiceTest {
         // Given
         when(securityDataService.decryptId(any())).thenReturn(Optional.of(CONSENT_ID));
         when(aspspDataService.readAspspConsentData(any())).thenReturn(Optional.of(getAspspConsentData()));
-        when(objectMapper.readTree(any(byte[].class))).thenReturn(getJsonNode());
         when(cmsPsuAisClient.confirmConsent(any(), any())).thenReturn(ResponseEntity.ok(true));
         when(cmsPsuAisClient.updateAuthorisationStatus(any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
-        when(objectMapper.writeValueAsBytes(any())).thenThrow(JsonProcessingException.class);
+        doThrow(IOException.class).when(consentDataCodec).encode(any());
         when(redirectScaRestClient.validateScaCode(any(), any())).thenReturn(getGlobalResponse());
 
         // Then
@@ -269,7 +278,6 @@ class ConsentServiceTest {
         // Given
         when(securityDataService.decryptId(any())).thenReturn(Optional.of(CONSENT_ID));
         when(aspspDataService.readAspspConsentData(any())).thenReturn(Optional.of(getAspspConsentData()));
-        when(objectMapper.readTree(any(byte[].class))).thenReturn(getJsonNode());
         when(redirectScaRestClient.validateScaCode(any(), any())).thenReturn(getGlobalResponse());
         when(cmsPsuAisClient.confirmConsent(any(), any())).thenReturn(ResponseEntity.ok(true));
         when(cmsPsuAisClient.updateAuthorisationStatus(any(), any(), any(), any(), any(), any(), any(), any(), any())).thenThrow(FeignException.class);
@@ -283,7 +291,6 @@ class ConsentServiceTest {
         // Given
         when(securityDataService.decryptId(any())).thenReturn(Optional.of(CONSENT_ID));
         when(aspspDataService.readAspspConsentData(any())).thenReturn(Optional.of(getAspspConsentData()));
-        when(objectMapper.readTree(any(byte[].class))).thenReturn(getJsonNode());
         when(redirectScaRestClient.validateScaCode(any(), any())).thenReturn(getGlobalResponse());
         when(cmsPsuAisClient.confirmConsent(any(), any())).thenThrow(FeignException.class);
 
@@ -312,7 +319,7 @@ class ConsentServiceTest {
         // Given
         when(securityDataService.decryptId(any())).thenReturn(Optional.of(CONSENT_ID));
         when(aspspDataService.readAspspConsentData(any())).thenReturn(Optional.of(getAspspConsentData()));
-        when(objectMapper.readTree(any(byte[].class))).thenThrow(IOException.class);
+        doThrow(IOException.class).when(consentDataCodec).readTree(any());
 
         // Then
         assertThrows(ObaException.class, () -> consentService.confirmAisConsentDecoupled(USER_LOGIN, "encryptedConsentId", AUTHORIZATION_ID, TAN));
@@ -351,18 +358,6 @@ class ConsentServiceTest {
         return mapper.writeValueAsBytes(response);
     }
 
-    private byte[] getByteArray() throws JsonProcessingException {
-        String json = "{ \"bearerToken\":{ \"access_token\":\"eyJraWQiOiJBV3MtRk1o1V4M\"," +
-                          " \"token_type\":\"Bearer\" }}";
-        return mapper.writeValueAsBytes(json);
-    }
-
-    private JsonNode getJsonNode() throws JsonProcessingException {
-        String json = "{ \"bearerToken\":{ \"access_token\":\"eyJraWQiOiJBV3MtRk1o1V4M\"," +
-                          " \"token_type\":\"Bearer\" }}";
-        return mapper.readTree(json);
-    }
-
     private JsonNode getJsonNodeError() throws JsonProcessingException {
         String json = "\"{\\\"devMessage\\\":\\\"error\\\" }\"";
         return mapper.readTree(json);
@@ -397,5 +392,90 @@ class ConsentServiceTest {
         ObaException exception = assertThrows(ObaException.class, () -> consentService.getListOfConsentsPaged(USER_LOGIN, 0, 10));
         assertEquals(AIS_BAD_REQUEST, exception.getObaErrorCode());
     }
-}
 
+    @Test
+    void streamConsents() {
+        // Given
+        when(cmsPsuAisClient.getConsentsForPsu(any(), any(), any(), any(), any(), any(), any(), any(), eq(0), eq(2)))
+            .thenReturn(ResponseEntity.ok(Arrays.asList(getCmsAisAccountConsent(), getCmsAisAccountConsent())));
+        when(cmsPsuAisClient.getConsentsForPsu(any(), any(), any(), any(), any(), any(), any(), any(), eq(1), eq(2)))
+            .thenReturn(ResponseEntity.ok(Collections.singletonList(getCmsAisAccountConsent())));
+        when(consentIdEncryptor.encryptIds(any())).thenReturn(Collections.singletonMap(CONSENT_ID, "consent"));
+        List<Integer> batchSizes = new ArrayList<>();
+
+        // When
+        consentService.streamConsents(USER_LOGIN, 2, batch -> batchSizes.add(batch.size()));
+
+        // Then
+        assertEquals(Arrays.asList(2, 1), batchSizes);
+        verify(cmsPsuAisClient, times(2)).getConsentsForPsu(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getListOfConsentsByCursor() {
+        // Given
+        when(cmsPsuAisClient.getConsentsForPsu(any(), any(), any(), any(), any(), any(), any(), any(), eq(0), eq(1)))
+            .thenReturn(ResponseEntity.ok(Collections.singletonList(getCmsAisAccountConsent())));
+        when(cmsPsuAisClient.getConsentsForPsu(any(), any(), any(), any(), any(), any(), any(), any(), eq(1), eq(1)))
+            .thenReturn(ResponseEntity.ok(Collections.emptyList()));
+        when(consentIdEncryptor.encryptIds(any())).thenReturn(Collections.singletonMap(CONSENT_ID, "consent"));
+
+        // When
+        ObaAisConsentCursorPage first = consentService.getListOfConsentsByCursor(USER_LOGIN, null, 1);
+        ObaAisConsentCursorPage last = consentService.getListOfConsentsByCursor(USER_LOGIN, first.getNextCursor(), 25);
+
+        // Then
+        assertEquals(1, first.getConsents().size());
+        assertNotNull(first.getNextCursor());
+        assertTrue(last.getConsents().isEmpty());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void getListOfConsentsByCursor_sizeCapped() {
+        // Given
+        String cursor = Base64.getUrlEncoder().encodeToString("2:100000".getBytes(StandardCharsets.UTF_8));
+        when(cmsPsuAisClient.getConsentsForPsu(any(), any(), any(), any(), any(), any(), any(), any(), eq(2), eq(MAX_PAGE_SIZE)))
+            .thenReturn(ResponseEntity.ok(Collections.emptyList()));
+
+        // When
+        ObaAisConsentCursorPage page = consentService.getListOfConsentsByCursor(USER_LOGIN, cursor, 25);
+
+        // Then
+        assertTrue(page.getConsents().isEmpty());
+        verify(cmsPsuAisClient, times(1)).getConsentsForPsu(any(), any(), any(), any(), any(), any(), any(), any(), eq(2), eq(MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void getListOfConsentsByCursor_negativeCursorSize() {
+        // Given
+        String cursor = Base64.getUrlEncoder().encodeToString("0:-5".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        ObaException exception = assertThrows(ObaException.class, () -> consentService.getListOfConsentsByCursor(USER_LOGIN, cursor, 10));
+
+        // Then
+        assertEquals(AIS_BAD_REQUEST, exception.getObaErrorCode());
+        verifyNoInteractions(cmsPsuAisClient);
+    }
+
+    @Test
+    void getListOfConsentsByCursor_negativeSize() {
+        // When
+        ObaException exception = assertThrows(ObaException.class, () -> consentService.getListOfConsentsByCursor(USER_LOGIN, null, -1));
+
+        // Then
+        assertEquals(AIS_BAD_REQUEST, exception.getObaErrorCode());
+        verifyNoInteractions(cmsPsuAisClient);
+    }
+
+    @Test
+    void getListOfConsentsByCursor_invalidCursor() {
+        // When
+        ObaException exception = assertThrows(ObaException.class, () -> consentService.getListOfConsentsByCursor(USER_LOGIN, "not-a-cursor", 10));
+
+        // Then
+        assertEquals(AIS_BAD_REQUEST, exception.getObaErrorCode());
+        verifyNoInteractions(cmsPsuAisClient);
+    }
+}
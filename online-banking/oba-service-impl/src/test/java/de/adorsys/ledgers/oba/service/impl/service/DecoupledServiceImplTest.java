@@ -25,14 +25,19 @@ import de.adorsys.ledgers.middleware.api.domain.sca.GlobalScaResponseTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.OpTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.sca.ScaStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.OperationInitiationRestClient;
 import de.adorsys.ledgers.middleware.client.rest.RedirectScaRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.DecoupledConfRequest;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.CmsAspspConsentDataService;
+import de.adorsys.ledgers.oba.service.api.service.ScaTokenCacheService;
 import de.adorsys.psd2.consent.psu.api.CmsPsuPisService;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.exception.AuthorisationIsExpiredException;
+import feign.FeignException;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
 import org.adorsys.ledgers.consent.psu.rest.client.CmsPsuAisClient;
 import org.adorsys.ledgers.consent.xs2a.rest.client.AspspConsentDataClient;
 import org.jetbrains.annotations.NotNull;
@@ -40,9 +45,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
+import java.util.HashMap;
 import java.util.Set;
 
 import static de.adorsys.ledgers.oba.service.api.domain.exception.ObaErrorCode.AUTH_EXPIRED;
@@ -58,8 +65,10 @@ class DecoupledServiceImplTest {
 
     @Mock
     private KeycloakTokenService tokenService;
-    @Mock
-    private AuthRequestInterceptor authInterceptor;
+    @Spy
+    private ScaTokenCacheService scaTokens = new ScaTokenCacheServiceImpl(10, 100, false);
+    @Spy
+    private ScopedAuthRequestInterceptor authInterceptor = new ScopedAuthRequestInterceptor();
     @Mock
     private OperationInitiationRestClient operationInitiationRestClient;
     @Mock
@@ -84,14 +93,14 @@ class DecoupledServiceImplTest {
         boolean result = service.executeDecoupledOpr(request, "login_token");
         assertTrue(result);
         verify(tokenService, times(1)).exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA);
-        verify(authInterceptor, times(1)).setAccessToken("sca_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("sca_token"), any());
         verify(redirectScaClient, times(1)).validateScaCode(request.getAuthorizationId(), "TAN");
-        verify(authInterceptor, times(1)).setAccessToken("full_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("full_token"), any());
         verify(operationInitiationRestClient, times(1)).execution(OpTypeTO.PAYMENT, request.getObjId());
         verify(cmsPsuPisService, times(1)).updateAuthorisationStatus(any(), any(), any(), any(), any(), any());
         verify(cmsPsuPisService, times(1)).updatePaymentStatus(any(), any(), any());
         verify(aspspConsentDataClient, times(1)).updateAspspConsentData(any(), any());
-        verify(authInterceptor, times(1)).setAccessToken(null);
+        assertNull(authInterceptor.getAccessToken());
     }
 
     @Test
@@ -105,14 +114,14 @@ class DecoupledServiceImplTest {
         boolean result = service.executeDecoupledOpr(request, "login_token");
         assertTrue(result);
         verify(tokenService, times(1)).exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA);
-        verify(authInterceptor, times(1)).setAccessToken("sca_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("sca_token"), any());
         verify(redirectScaClient, times(1)).validateScaCode(request.getAuthorizationId(), "TAN");
-        verify(authInterceptor, times(1)).setAccessToken("full_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("full_token"), any());
         verify(operationInitiationRestClient, times(1)).execution(OpTypeTO.CANCEL_PAYMENT, request.getObjId());
         verify(cmsPsuPisService, times(1)).updateAuthorisationStatus(any(), any(), any(), any(), any(), any());
         verify(cmsPsuPisService, times(1)).updatePaymentStatus(any(), any(), any());
         verify(aspspConsentDataClient, times(1)).updateAspspConsentData(any(), any());
-        verify(authInterceptor, times(1)).setAccessToken(null);
+        assertNull(authInterceptor.getAccessToken());
     }
 
     @Test
@@ -127,14 +136,14 @@ class DecoupledServiceImplTest {
         boolean result = service.executeDecoupledOpr(request, "login_token");
         assertTrue(result);
         verify(tokenService, times(1)).exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA);
-        verify(authInterceptor, times(1)).setAccessToken("sca_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("sca_token"), any());
         verify(redirectScaClient, times(1)).validateScaCode(request.getAuthorizationId(), "TAN");
-        verify(authInterceptor, times(1)).setAccessToken("full_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("full_token"), any());
         verify(operationInitiationRestClient, times(1)).execution(OpTypeTO.PAYMENT, request.getObjId());
         verify(cmsPsuPisService, times(1)).updateAuthorisationStatus(any(), any(), any(), any(), any(), any());
         verify(cmsPsuPisService, times(1)).updatePaymentStatus(any(), any(), any());
         verify(aspspConsentDataClient, times(1)).updateAspspConsentData(any(), any());
-        verify(authInterceptor, times(1)).setAccessToken(null);
+        assertNull(authInterceptor.getAccessToken());
     }
 
     @Test
@@ -150,12 +159,12 @@ class DecoupledServiceImplTest {
         assertEquals(AUTH_EXPIRED, exception.getObaErrorCode());
 
         verify(tokenService, times(1)).exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA);
-        verify(authInterceptor, times(1)).setAccessToken("sca_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("sca_token"), any());
         verify(redirectScaClient, times(1)).validateScaCode(request.getAuthorizationId(), "TAN");
-        verify(authInterceptor, times(1)).setAccessToken("full_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("full_token"), any());
         verify(operationInitiationRestClient, times(1)).execution(OpTypeTO.PAYMENT, request.getObjId());
         verify(cmsPsuPisService, times(1)).updateAuthorisationStatus(any(), any(), any(), any(), any(), any());
-        verify(authInterceptor, times(1)).setAccessToken(null);
+        assertNull(authInterceptor.getAccessToken());
     }
 
     @Test
@@ -169,13 +178,12 @@ class DecoupledServiceImplTest {
         boolean result = service.executeDecoupledOpr(request, "login_token");
         assertTrue(result);
         verify(tokenService, times(1)).exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA);
-        verify(authInterceptor, times(1)).setAccessToken("sca_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("sca_token"), any());
         verify(redirectScaClient, times(1)).validateScaCode(request.getAuthorizationId(), "TAN");
-        verify(authInterceptor, times(1)).setAccessToken("full_token");
         verify(cmsPsuAisClient, times(1)).updateAuthorisationStatus(any(), any(), any(), any(), any(), any(), any(), any(), any());
         verify(aspspConsentDataClient, times(1)).updateAspspConsentData(any(), any());
         verify(cmsPsuAisClient, times(1)).confirmConsent(response.getBody().getOperationObjectId(), DEFAULT_SERVICE_INSTANCE_ID);
-        verify(authInterceptor, times(1)).setAccessToken(null);
+        assertNull(authInterceptor.getAccessToken());
     }
 
     @Test
@@ -193,13 +201,64 @@ class DecoupledServiceImplTest {
         boolean result = service.executeDecoupledOpr(request, "login_token");
         assertTrue(result);
         verify(tokenService, times(1)).exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA);
-        verify(authInterceptor, times(1)).setAccessToken("sca_token");
+        verify(authInterceptor, times(1)).callWithAccessToken(eq("sca_token"), any());
         verify(redirectScaClient, times(1)).validateScaCode(request.getAuthorizationId(), "TAN");
-        verify(authInterceptor, times(1)).setAccessToken("full_token");
         verify(cmsPsuAisClient, times(1)).updateAuthorisationStatus(any(), any(), any(), any(), any(), any(), any(), any(), any());
         verify(aspspConsentDataClient, times(1)).updateAspspConsentData(any(), any());
         verify(cmsPsuAisClient, times(1)).authorisePartiallyConsent(globalScaResponseTO.getOperationObjectId(), DEFAULT_SERVICE_INSTANCE_ID);
-        verify(authInterceptor, times(1)).setAccessToken(null);
+        assertNull(authInterceptor.getAccessToken());
+    }
+
+    @Test
+    void executeDecoupledOpr_scaTokenExchangedOnce() {
+        DecoupledConfRequest request = getDecoupledRequest(OpTypeTO.CONSENT);
+
+        when(tokenService.exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA)).thenReturn(getToken("sca_token"));
+        when(redirectScaClient.validateScaCode(request.getAuthorizationId(), "TAN")).thenReturn(getResponse());
+
+        service.executeDecoupledOpr(request, "login_token");
+        service.executeDecoupledOpr(request, "login_token");
+
+        verify(tokenService, times(1)).exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA);
+        verify(authInterceptor, times(2)).callWithAccessToken(eq("sca_token"), any());
+    }
+
+    @Test
+    void executeDecoupledOpr_rejectedScaTokenEvicted() {
+        DecoupledConfRequest request = getDecoupledRequest(OpTypeTO.CONSENT);
+
+        when(tokenService.exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA)).thenReturn(getToken("sca_token"));
+        when(redirectScaClient.validateScaCode(request.getAuthorizationId(), "TAN"))
+            .thenThrow(FeignException.errorStatus("validateScaCode", getErrorResponse(401)))
+            .thenReturn(getResponse());
+
+        assertThrows(FeignException.class, () -> service.executeDecoupledOpr(request, "login_token"));
+        service.executeDecoupledOpr(request, "login_token");
+
+        verify(tokenService, times(2)).exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA);
+    }
+
+    @Test
+    void executeDecoupledOpr_wrongTan_scaTokenKept() {
+        DecoupledConfRequest request = getDecoupledRequest(OpTypeTO.CONSENT);
+
+        when(tokenService.exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA)).thenReturn(getToken("sca_token"));
+        when(redirectScaClient.validateScaCode(request.getAuthorizationId(), "TAN"))
+            .thenThrow(FeignException.errorStatus("validateScaCode", getErrorResponse(400)))
+            .thenReturn(getResponse());
+
+        assertThrows(FeignException.class, () -> service.executeDecoupledOpr(request, "login_token"));
+        service.executeDecoupledOpr(request, "login_token");
+
+        verify(tokenService, times(1)).exchangeToken("login_token", request.getAuthorizationTTL(), Constants.SCOPE_SCA);
+    }
+
+    private Response getErrorResponse(int status) {
+        return Response.builder()
+                   .request(Request.create(Request.HttpMethod.POST, "", new HashMap<>(), null, new RequestTemplate()))
+                   .headers(new HashMap<>())
+                   .status(status)
+                   .build();
     }
 
     private GlobalScaResponseTO getGlobalScaResponse() {
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryLoginFailureCounterStoreTest {
+    private static final String ENCRYPTED_ID = "encryptedId";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final InMemoryLoginFailureCounterStore store = new InMemoryLoginFailureCounterStore(60, 100, nanos::get);
+
+    @Test
+    void incrementFailedCount_seededOnce() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        store.incrementFailedCount(ENCRYPTED_ID, id -> loads.incrementAndGet() + 1);
+        int result = store.incrementFailedCount(ENCRYPTED_ID, id -> loads.incrementAndGet() + 1);
+
+        // Then
+        assertEquals(4, result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void incrementFailedCount_concurrent() {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        CompletableFuture<?>[] attempts = IntStream.range(0, 1000)
+                                              .mapToObj(i -> CompletableFuture.runAsync(() -> store.incrementFailedCount(ENCRYPTED_ID, id -> 0), executor))
+                                              .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(attempts).join();
+        executor.shutdown();
+
+        // Then
+        assertEquals(1000, store.getFailedCount(ENCRYPTED_ID, id -> 0));
+    }
+
+    @Test
+    void resetFailedCount() {
+        // Given
+        store.incrementFailedCount(ENCRYPTED_ID, id -> 1);
+
+        // When
+        int previous = store.resetFailedCount(ENCRYPTED_ID);
+
+        // Then
+        assertEquals(2, previous);
+        assertEquals(0, store.getFailedCount(ENCRYPTED_ID, id -> 5));
+    }
+
+    @Test
+    void getFailedCount_expired() {
+        // Given
+        store.incrementFailedCount(ENCRYPTED_ID, id -> 0);
+
+        // When
+        nanos.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        // Then
+        assertEquals(0, store.getFailedCount(ENCRYPTED_ID, id -> 0));
+    }
+}
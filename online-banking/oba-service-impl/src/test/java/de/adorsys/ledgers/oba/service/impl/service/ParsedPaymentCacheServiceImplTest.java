@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import de.adorsys.ledgers.middleware.api.domain.account.AccountReferenceTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.AmountTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.PaymentTargetTO;
+import de.adorsys.ledgers.middleware.api.domain.payment.TransactionStatusTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class ParsedPaymentCacheServiceImplTest {
+    private static final String PAYMENT_ID = "paymentId";
+    private static final String DEBTOR_IBAN = "DE89370400440532013000";
+    private static final String CREDITOR_IBAN = "DE89370400440532013001";
+
+    private final ParsedPaymentCacheServiceImpl cache = new ParsedPaymentCacheServiceImpl(60, 100);
+    private final AtomicInteger parsed = new AtomicInteger();
+
+    @Test
+    void getPayment_parsedOnceForSameData() {
+        // When
+        PaymentTO first = cache.getPayment(PAYMENT_ID, data("debtor"), parser());
+        PaymentTO second = cache.getPayment(PAYMENT_ID, data("debtor"), parser());
+
+        // Then
+        assertEquals(1, parsed.get());
+        assertEquals("debtor", second.getDebtorName());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void getPayment_changedDataParsedAgain() {
+        // When
+        cache.getPayment(PAYMENT_ID, data("debtor"), parser());
+        PaymentTO result = cache.getPayment(PAYMENT_ID, data("other debtor"), parser());
+
+        // Then
+        assertEquals(2, parsed.get());
+        assertEquals("other debtor", result.getDebtorName());
+    }
+
+    @Test
+    void getPayment_copiesNotShared() {
+        // Given
+        PaymentTO first = cache.getPayment(PAYMENT_ID, data("debtor"), parser());
+
+        // When
+        first.setTransactionStatus(TransactionStatusTO.CANC);
+        first.getTargets().clear();
+        PaymentTO second = cache.getPayment(PAYMENT_ID, data("debtor"), parser());
+
+        // Then
+        assertEquals(TransactionStatusTO.RCVD, second.getTransactionStatus());
+        assertEquals(1, second.getTargets().size());
+    }
+
+    @Test
+    void getPayment_nestedObjectsNotShared() {
+        // Given
+        PaymentTO first = cache.getPayment(PAYMENT_ID, data("debtor"), parser());
+
+        // When
+        first.getDebtorAccount().setIban("changed");
+        first.getTargets().get(0).getCreditorAccount().setIban("changed");
+        first.getTargets().get(0).getInstructedAmount().setAmount(BigDecimal.ONE);
+        PaymentTO second = cache.getPayment(PAYMENT_ID, data("debtor"), parser());
+
+        // Then
+        assertEquals(DEBTOR_IBAN, second.getDebtorAccount().getIban());
+        assertEquals(CREDITOR_IBAN, second.getTargets().get(0).getCreditorAccount().getIban());
+        assertEquals(BigDecimal.TEN, second.getTargets().get(0).getInstructedAmount().getAmount());
+    }
+
+    @Test
+    void getPayment_keyIndependentOfCallerArray() {
+        // Given
+        byte[] paymentData = data("debtor");
+        cache.getPayment(PAYMENT_ID, paymentData, parser());
+
+        // When
+        paymentData[0] = 'X';
+        PaymentTO result = cache.getPayment(PAYMENT_ID, data("debtor"), parser());
+
+        // Then
+        assertEquals(1, parsed.get());
+        assertEquals("debtor", result.getDebtorName());
+    }
+
+    private Function<byte[], PaymentTO> parser() {
+        return data -> {
+            parsed.incrementAndGet();
+            PaymentTO payment = new PaymentTO();
+            payment.setPaymentId(PAYMENT_ID);
+            payment.setDebtorName(new String(data, StandardCharsets.UTF_8));
+            payment.setTransactionStatus(TransactionStatusTO.RCVD);
+            payment.setDebtorAccount(getReference(DEBTOR_IBAN));
+            PaymentTargetTO target = new PaymentTargetTO();
+            target.setCreditorAccount(getReference(CREDITOR_IBAN));
+            target.setInstructedAmount(new AmountTO(Currency.getInstance("EUR"), BigDecimal.TEN));
+            payment.setTargets(new ArrayList<>(List.of(target)));
+            return payment;
+        };
+    }
+
+    private static AccountReferenceTO getReference(String iban) {
+        AccountReferenceTO reference = new AccountReferenceTO();
+        reference.setIban(iban);
+        return reference;
+    }
+
+    private static byte[] data(String debtorName) {
+        return debtorName.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -18,6 +18,7 @@
 
 package de.adorsys.ledgers.oba.service.impl.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.ledgers.middleware.api.domain.account.AccountDetailsTO;
 import de.adorsys.ledgers.middleware.api.domain.account.AccountStatusTO;
 import de.adorsys.ledgers.middleware.api.domain.account.AccountTypeTO;
@@ -28,7 +29,6 @@ import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisAccountAccessInfoTO;
 import de.adorsys.ledgers.middleware.api.domain.um.AisConsentTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.OperationInitiationRestClient;
 import de.adorsys.ledgers.middleware.client.rest.RedirectScaRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.ConsentAuthorizeResponse;
@@ -38,11 +38,14 @@ import de.adorsys.ledgers.oba.service.api.domain.ConsentWorkflow;
 import de.adorsys.ledgers.oba.service.api.domain.exception.ObaException;
 import de.adorsys.ledgers.oba.service.api.service.CmsAspspConsentDataService;
 import de.adorsys.ledgers.oba.service.api.service.ConsentReferencePolicy;
+import de.adorsys.ledgers.oba.service.api.service.WorkflowCacheService;
 import de.adorsys.ledgers.oba.service.impl.mapper.ObaAisConsentMapper;
 import de.adorsys.psd2.consent.api.CmsAspspConsentDataBase64;
 import de.adorsys.psd2.consent.api.ais.AisAccountAccess;
 import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
 import de.adorsys.psd2.consent.api.ais.CmsAisConsentResponse;
+import de.adorsys.psd2.consent.psu.api.CmsPsuAuthorisation;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationTemplate;
 import de.adorsys.psd2.xs2a.core.consent.AisConsentRequestType;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
@@ -54,6 +57,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
@@ -95,8 +99,8 @@ class RedirectConsentServiceImplTest {
     private CmsPsuAisClient cmsPsuAisClient;
     @Mock
     private OperationInitiationRestClient operationInitiationRestClient;
-    @Mock
-    private AuthRequestInterceptor authInterceptor;
+    @Spy
+    private ScopedAuthRequestInterceptor authInterceptor = new ScopedAuthRequestInterceptor();
     @Mock
     private ObaAisConsentMapper consentMapper;
     @Mock
@@ -107,6 +111,10 @@ class RedirectConsentServiceImplTest {
     private CmsAspspConsentDataService dataService;
     @Mock
     private RedirectScaRestClient redirectScaClient;
+    @Spy
+    private WorkflowCacheService workflowCache = new WorkflowCacheServiceImpl(new ObjectMapper().findAndRegisterModules(), 60, 100);
+    @Spy
+    private CmsWriteExecutor cmsWriteExecutor = new CmsWriteExecutor(authInterceptor, false, 1, 1, 1000);
 
     @Test
     void selectScaMethod() {
@@ -191,6 +199,25 @@ class RedirectConsentServiceImplTest {
         assertNotNull(workflow.getScaResponse().getBearerToken());
     }
 
+    @Test
+    void identifyConsent_cachedUntilCmsUpdate() {
+        // Given
+        when(referencePolicy.fromRequest(any(), any())).thenReturn(getConsentReference());
+        when(cmsPsuAisClient.getConsentIdByRedirectId(any(), any())).thenReturn(ResponseEntity.ok(getCmsAisConsentResponse(AisConsentRequestType.DEDICATED_ACCOUNTS, IBAN_DE)));
+        when(cmsPsuAisClient.getAuthorisationByAuthorisationId(any(), any())).thenReturn(ResponseEntity.ok(getCmsPsuAuthorisation(OffsetDateTime.now().plusMinutes(10))));
+        when(consentMapper.toTo(any())).thenReturn(getAisConsentTO());
+        when(cmsPsuAisClient.updateAuthorisationStatus(any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
+
+        // When
+        redirectConsentService.identifyConsent(ENCRYPTED_CONSENT_ID, AUTHORIZATION_ID, null);
+        redirectConsentService.identifyConsent(ENCRYPTED_CONSENT_ID, AUTHORIZATION_ID, null);
+        redirectConsentService.updateScaStatusAndConsentData(USER_ID, getConsentWorkflow(AisConsentRequestType.DEDICATED_ACCOUNTS, IBAN_DE));
+        redirectConsentService.identifyConsent(ENCRYPTED_CONSENT_ID, AUTHORIZATION_ID, null);
+
+        // Then
+        verify(cmsPsuAisClient, times(2)).getConsentIdByRedirectId(any(), any());
+    }
+
     @Test
     void identifyConsent_bearerTokenNull() {
         // Given
@@ -281,6 +308,12 @@ class RedirectConsentServiceImplTest {
         return reference;
     }
 
+    private CmsPsuAuthorisation getCmsPsuAuthorisation(OffsetDateTime redirectExpiry) {
+        CmsPsuAuthorisation authorisation = new CmsPsuAuthorisation();
+        authorisation.setRedirectUrlExpirationTimestamp(redirectExpiry);
+        return authorisation;
+    }
+
     private GlobalScaResponseTO getGlobalScaResponseTO() {
         GlobalScaResponseTO response = new GlobalScaResponseTO();
         response.setOperationObjectId(CONSENT_ID);
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import de.adorsys.ledgers.middleware.api.domain.Constants;
+import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScaTokenCacheServiceImplTest {
+    private static final String TOKEN = "login_token";
+    private static final int VALIDITY = 300;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger exchanges = new AtomicInteger();
+
+    @Test
+    void getToken_cached() {
+        // Given
+        ScaTokenCacheServiceImpl service = new ScaTokenCacheServiceImpl(10, 100, false, nanos::get);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+
+        // When
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+        BearerTokenTO token = service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // Then
+        assertEquals("sca_token_1", token.getAccess_token());
+        assertEquals(1, exchanges.get());
+        assertEquals(1, registry.get("cache.gets").tag("cache", "oba.sca.tokens").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void getToken_keyedByValidityAndScope() {
+        // Given
+        ScaTokenCacheServiceImpl service = new ScaTokenCacheServiceImpl(10, 100, false, nanos::get);
+
+        // When
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+        service.getToken(TOKEN, VALIDITY + 1, Constants.SCOPE_SCA, exchange(300));
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_FULL_ACCESS, exchange(300));
+        service.getToken("other_token", VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // Then
+        assertEquals(4, exchanges.get());
+    }
+
+    @Test
+    void getToken_expiresBeforeToken() {
+        // Given
+        ScaTokenCacheServiceImpl service = new ScaTokenCacheServiceImpl(10, 100, false, nanos::get);
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // When
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(289));
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        BearerTokenTO token = service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // Then
+        assertEquals("sca_token_2", token.getAccess_token());
+    }
+
+    @Test
+    void getToken_shortLivedNotCached() {
+        // Given
+        ScaTokenCacheServiceImpl service = new ScaTokenCacheServiceImpl(10, 100, false, nanos::get);
+
+        // When
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(5));
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(5));
+
+        // Then
+        assertEquals(2, exchanges.get());
+    }
+
+    @Test
+    void release_singleUse() {
+        // Given
+        ScaTokenCacheServiceImpl service = new ScaTokenCacheServiceImpl(10, 100, true, nanos::get);
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // When
+        service.release(TOKEN, VALIDITY, Constants.SCOPE_SCA);
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // Then
+        assertEquals(2, exchanges.get());
+    }
+
+    @Test
+    void release_reusable() {
+        // Given
+        ScaTokenCacheServiceImpl service = new ScaTokenCacheServiceImpl(10, 100, false, nanos::get);
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // When
+        service.release(TOKEN, VALIDITY, Constants.SCOPE_SCA);
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // Then
+        assertEquals(1, exchanges.get());
+    }
+
+    @Test
+    void evict() {
+        // Given
+        ScaTokenCacheServiceImpl service = new ScaTokenCacheServiceImpl(10, 100, false, nanos::get);
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // When
+        service.evict(TOKEN, VALIDITY, Constants.SCOPE_SCA);
+        service.getToken(TOKEN, VALIDITY, Constants.SCOPE_SCA, exchange(300));
+
+        // Then
+        assertEquals(2, exchanges.get());
+    }
+
+    private Supplier<BearerTokenTO> exchange(int expiresIn) {
+        return () -> new BearerTokenTO("sca_token_" + exchanges.incrementAndGet(), "Bearer", expiresIn, null, null, Set.of(Constants.SCOPE_SCA));
+    }
+}
@@ -21,13 +21,15 @@ package de.adorsys.ledgers.oba.service.impl.service;
 import de.adorsys.ledgers.keycloak.client.api.KeycloakTokenService;
 import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.ledgers.middleware.client.rest.UserMgmtRestClient;
 import de.adorsys.ledgers.oba.service.api.domain.UserAuthentication;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
+import de.adorsys.psd2.sandbox.auth.TokenValidationService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.HashSet;
@@ -46,15 +48,17 @@ class TokenAuthenticationServiceImplTest {
 
     @Mock
     private UserMgmtRestClient ledgersUserMgmt;
-    @Mock
-    private AuthRequestInterceptor authInterceptor;
+    @Spy
+    private ScopedAuthRequestInterceptor authInterceptor = new ScopedAuthRequestInterceptor();
     @Mock
     private KeycloakTokenService tokenService;
+    @Mock
+    private TokenValidationService tokenValidationService;
 
     @Test
     void getAuthentication() {
         // Given
-        when(tokenService.validate(anyString())).thenReturn(getBearer());
+        when(tokenValidationService.validate(anyString())).thenReturn(getBearer());
 
         // When
         UserAuthentication result = service.getAuthentication(TOKEN);
@@ -66,7 +70,7 @@ class TokenAuthenticationServiceImplTest {
     @Test
     void getAuthentication_null_bearer() {
         // Given
-        when(tokenService.validate(anyString())).thenReturn(null);
+        when(tokenValidationService.validate(anyString())).thenReturn(null);
 
         // When
         UserAuthentication result = service.getAuthentication(TOKEN);
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import de.adorsys.ledgers.middleware.api.domain.account.AccountDetailsTO;
+import de.adorsys.ledgers.middleware.api.domain.account.TransactionTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionCacheServiceImplTest {
+    private static final String LOGIN = "anton.brueckner";
+    private static final String ACCOUNT_ID = "accountId";
+    private static final String IBAN = "DE89370400440532013000";
+    private static final String OTHER_ACCOUNT_ID = "otherAccountId";
+    private static final String OTHER_IBAN = "DE89370400440532013001";
+    private static final LocalDate TODAY = LocalDate.of(2020, 2, 1);
+
+    private final TransactionCacheServiceImpl cache = new TransactionCacheServiceImpl(600, 10_000,
+                                                                                      Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    private final List<String> loads = new ArrayList<>();
+    private final BiFunction<LocalDate, LocalDate, List<TransactionTO>> loader = (from, to) -> {
+        loads.add(from + ".." + to);
+        return from.datesUntil(to.plusDays(1))
+                   .map(this::getTransaction)
+                   .collect(Collectors.toList());
+    };
+
+    @BeforeEach
+    void setUp() {
+        cache.registerAccounts(Collections.singletonList(getAccount(ACCOUNT_ID, IBAN)));
+    }
+
+    @Test
+    void getTransactions_loadsOnlyMissingRanges() {
+        // Given
+        cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 10), LocalDate.of(2020, 1, 20), loader);
+
+        // When
+        List<TransactionTO> result = cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 31), loader);
+
+        // Then
+        assertEquals(Arrays.asList("2020-01-10..2020-01-20", "2020-01-01..2020-01-09", "2020-01-21..2020-01-31"), loads);
+        assertEquals(31, result.size());
+        assertEquals("2020-01-31", result.get(0).getTransactionId());
+        assertEquals("2020-01-01", result.get(30).getTransactionId());
+    }
+
+    @Test
+    void getTransactions_todayNotCached() {
+        // Given
+        cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 30), TODAY, loader);
+
+        // When
+        List<TransactionTO> result = cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 30), TODAY, loader);
+
+        // Then
+        assertEquals(Arrays.asList("2020-01-30..2020-01-31", "2020-02-01..2020-02-01", "2020-02-01..2020-02-01"), loads);
+        assertEquals(Arrays.asList("2020-02-01", "2020-01-31", "2020-01-30"), ids(result));
+    }
+
+    @Test
+    void getTransactions_unregisteredAccount() {
+        // When
+        cache.getTransactions(LOGIN, "otherAccount", LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+        cache.getTransactions(LOGIN, "otherAccount", LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+
+        // Then
+        assertEquals(Arrays.asList("2020-01-01..2020-01-02", "2020-01-01..2020-01-02"), loads);
+    }
+
+    @Test
+    void getTransactions_bookingDateOutsideRange() {
+        // Given
+        BiFunction<LocalDate, LocalDate, List<TransactionTO>> shifted = (from, to) -> {
+            loads.add(from + ".." + to);
+            return Collections.singletonList(getTransaction(to.plusDays(1)));
+        };
+
+        // When
+        List<TransactionTO> result = cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), shifted);
+
+        // Then
+        assertEquals(Arrays.asList("2020-01-01..2020-01-02", "2020-01-01..2020-01-02"), loads);
+        assertEquals(Collections.singletonList("2020-01-03"), ids(result));
+    }
+
+    @Test
+    void getTransactions_notSharedBetweenUsers() {
+        // Given
+        cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+
+        // When
+        cache.getTransactions("max.musterman", ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), (from, to) -> {
+            loads.add("other:" + from + ".." + to);
+            return Collections.emptyList();
+        });
+        List<TransactionTO> result = cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+
+        // Then
+        assertEquals(Arrays.asList("2020-01-01..2020-01-02", "other:2020-01-01..2020-01-02"), loads);
+        assertEquals(Arrays.asList("2020-01-02", "2020-01-01"), ids(result));
+    }
+
+    @Test
+    void evictByIban() {
+        // Given
+        cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+
+        // When
+        cache.evictByIban(Collections.singletonList(IBAN));
+        cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+
+        // Then
+        assertEquals(Arrays.asList("2020-01-01..2020-01-02", "2020-01-01..2020-01-02"), loads);
+    }
+
+    @Test
+    void evictByIban_otherAccountsKept() {
+        // Given
+        cache.registerAccounts(Collections.singletonList(getAccount(OTHER_ACCOUNT_ID, OTHER_IBAN)));
+        cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+        cache.getTransactions(LOGIN, OTHER_ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+
+        // When
+        cache.evictByIban(Collections.singletonList(IBAN));
+        cache.getTransactions(LOGIN, OTHER_ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+        cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+
+        // Then
+        assertEquals(Arrays.asList("2020-01-01..2020-01-02", "2020-01-01..2020-01-02", "2020-01-01..2020-01-02"), loads);
+    }
+
+    @Test
+    void registerAccounts_sameIbanKeepsSegments() {
+        // Given
+        cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+
+        // When
+        cache.registerAccounts(Collections.singletonList(getAccount(ACCOUNT_ID, IBAN)));
+        cache.getTransactions(LOGIN, ACCOUNT_ID, LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), loader);
+
+        // Then
+        assertEquals(Collections.singletonList("2020-01-01..2020-01-02"), loads);
+    }
+
+    private static AccountDetailsTO getAccount(String id, String iban) {
+        AccountDetailsTO account = new AccountDetailsTO();
+        account.setId(id);
+        account.setIban(iban);
+        return account;
+    }
+
+    private TransactionTO getTransaction(LocalDate bookingDate) {
+        TransactionTO transaction = new TransactionTO();
+        transaction.setTransactionId(bookingDate.toString());
+        transaction.setBookingDate(bookingDate);
+        return transaction;
+    }
+
+    private List<String> ids(List<TransactionTO> transactions) {
+        return transactions.stream()
+                   .map(TransactionTO::getTransactionId)
+                   .collect(Collectors.toList());
+    }
+}
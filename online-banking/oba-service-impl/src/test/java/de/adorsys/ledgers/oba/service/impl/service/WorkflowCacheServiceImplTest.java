@@ -0,0 +1,202 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.ledgers.oba.service.impl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.adorsys.ledgers.oba.service.api.domain.ConsentReference;
+import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
+import de.adorsys.psd2.consent.api.ais.CmsAisConsentResponse;
+import de.adorsys.psd2.consent.api.pis.CmsCommonPayment;
+import de.adorsys.psd2.consent.api.pis.CmsPaymentResponse;
+import de.adorsys.psd2.xs2a.core.tpp.TppInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class WorkflowCacheServiceImplTest {
+    private static final String ENCRYPTED_ID = "ENC_123";
+    private static final String REDIRECT_ID = "REDIRECT_1";
+    private static final Function<Object, OffsetDateTime> VALID_REDIRECT = v -> OffsetDateTime.now().plusMinutes(10);
+
+    private final WorkflowCacheServiceImpl cache = new WorkflowCacheServiceImpl(new ObjectMapper().findAndRegisterModules(), 60, 100);
+
+    @Test
+    void getConsent_loadedOnce() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CmsAisConsentResponse response = new CmsAisConsentResponse(getAccountConsent(), REDIRECT_ID, "ok", "nok");
+
+        // When
+        CmsAisConsentResponse first = cache.getConsent(getConsentReference(REDIRECT_ID), r -> countingLoad(loads, response), VALID_REDIRECT::apply);
+        CmsAisConsentResponse second = cache.getConsent(getConsentReference(REDIRECT_ID), r -> countingLoad(loads, response), VALID_REDIRECT::apply);
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getConsent_differentRedirect() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.getConsent(getConsentReference(REDIRECT_ID), r -> countingLoad(loads, new CmsAisConsentResponse(REDIRECT_ID)), VALID_REDIRECT::apply);
+        cache.getConsent(getConsentReference("REDIRECT_2"), r -> countingLoad(loads, new CmsAisConsentResponse(REDIRECT_ID)), VALID_REDIRECT::apply);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getConsent_redirectExpired() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        Function<CmsAisConsentResponse, OffsetDateTime> expired = c -> OffsetDateTime.now().minusSeconds(1);
+
+        // When
+        cache.getConsent(getConsentReference(REDIRECT_ID), r -> countingLoad(loads, new CmsAisConsentResponse(REDIRECT_ID)), expired);
+        cache.getConsent(getConsentReference(REDIRECT_ID), r -> countingLoad(loads, new CmsAisConsentResponse(REDIRECT_ID)), expired);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getConsent_redirectExpiryUnknown() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        Function<CmsAisConsentResponse, OffsetDateTime> failing = c -> {
+            throw new IllegalStateException("CMS unavailable");
+        };
+
+        // When
+        cache.getConsent(getConsentReference(REDIRECT_ID), r -> countingLoad(loads, new CmsAisConsentResponse(REDIRECT_ID)), failing);
+        cache.getConsent(getConsentReference(REDIRECT_ID), r -> countingLoad(loads, new CmsAisConsentResponse(REDIRECT_ID)), c -> null);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getConsent_returnsCopy() {
+        // Given
+        CmsAisConsentResponse response = new CmsAisConsentResponse(getAccountConsent(), REDIRECT_ID, "ok", "nok");
+        CmsAisConsentResponse first = cache.getConsent(getConsentReference(REDIRECT_ID), r -> response, VALID_REDIRECT::apply);
+
+        // When
+        first.getAccountConsent().getTppInfo().setAuthorisationNumber("changed");
+        CmsAisConsentResponse second = cache.getConsent(getConsentReference(REDIRECT_ID), r -> response, VALID_REDIRECT::apply);
+
+        // Then
+        assertNotSame(response, first);
+        assertEquals("12345987", second.getAccountConsent().getTppInfo().getAuthorisationNumber());
+    }
+
+    @Test
+    void getPayment_returnsCopy() {
+        // Given
+        CmsPaymentResponse response = new CmsPaymentResponse(getPayment(), REDIRECT_ID, "ok", "nok");
+        CmsPaymentResponse first = cache.getPayment(getConsentReference(REDIRECT_ID), r -> response, VALID_REDIRECT::apply);
+
+        // When
+        CmsCommonPayment payment = (CmsCommonPayment) first.getPayment();
+        payment.getPaymentData()[0] = 9;
+        payment.getTppInfo().setAuthorisationNumber("changed");
+        CmsPaymentResponse second = cache.getPayment(getConsentReference(REDIRECT_ID), r -> response, VALID_REDIRECT::apply);
+
+        // Then
+        CmsCommonPayment cached = (CmsCommonPayment) second.getPayment();
+        assertNotSame(response.getPayment(), payment);
+        assertEquals("sepa-credit-transfers", cached.getPaymentProduct());
+        assertArrayEquals(new byte[]{1, 2}, cached.getPaymentData());
+        assertEquals("12345987", cached.getTppInfo().getAuthorisationNumber());
+        assertEquals(REDIRECT_ID, second.getAuthorisationId());
+    }
+
+    @Test
+    void evict() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        cache.getPayment(getConsentReference(REDIRECT_ID), r -> countingLoad(loads, new CmsPaymentResponse()), VALID_REDIRECT::apply);
+
+        // When
+        cache.evict(ENCRYPTED_ID, REDIRECT_ID);
+        cache.getPayment(getConsentReference(REDIRECT_ID), r -> countingLoad(loads, new CmsPaymentResponse()), VALID_REDIRECT::apply);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void bindTo() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // When
+        cache.getConsent(getConsentReference(REDIRECT_ID), r -> new CmsAisConsentResponse(REDIRECT_ID), VALID_REDIRECT::apply);
+        cache.getConsent(getConsentReference(REDIRECT_ID), r -> new CmsAisConsentResponse(REDIRECT_ID), VALID_REDIRECT::apply);
+
+        // Then
+        assertEquals(1, registry.get("cache.gets").tags("cache", "oba.workflow.consent", "result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tags("cache", "oba.workflow.consent", "result", "miss").functionCounter().count());
+    }
+
+    private static <T> T countingLoad(AtomicInteger loads, T value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    private static CmsAisAccountConsent getAccountConsent() {
+        CmsAisAccountConsent consent = new CmsAisAccountConsent();
+        consent.setId("consentId");
+        consent.setTppInfo(getTppInfo());
+        consent.setCreationTimestamp(OffsetDateTime.now());
+        return consent;
+    }
+
+    private static CmsCommonPayment getPayment() {
+        CmsCommonPayment payment = new CmsCommonPayment("sepa-credit-transfers");
+        payment.setPaymentId("paymentId");
+        payment.setPaymentData(new byte[]{1, 2});
+        payment.setTppInfo(getTppInfo());
+        return payment;
+    }
+
+    private static TppInfo getTppInfo() {
+        TppInfo tppInfo = new TppInfo();
+        tppInfo.setAuthorisationNumber("12345987");
+        return tppInfo;
+    }
+
+    private static ConsentReference getConsentReference(String redirectId) {
+        ConsentReference reference = new ConsentReference();
+        reference.setEncryptedConsentId(ENCRYPTED_ID);
+        reference.setRedirectId(redirectId);
+        return reference;
+    }
+}
@@ -21,6 +21,7 @@ package de.adorsys.ledgers.oba.app;
 import de.adorsys.ledgers.keycloak.client.KeycloakClientConfiguration;
 import de.adorsys.ledgers.middleware.client.EnableLedgersMiddlewareRestClient;
 import de.adorsys.ledgers.middleware.client.rest.AccountRestClient;
+import de.adorsys.psd2.sandbox.auth.http.EnableHttpClientProfiles;
 import org.adorsys.ledgers.consent.aspsp.rest.client.CmsAspspPiisClient;
 import org.adorsys.ledgers.consent.psu.rest.client.CmsPsuPisClient;
 import org.adorsys.ledgers.consent.xs2a.rest.client.AspspConsentDataClient;
@@ -33,6 +34,7 @@ import org.springframework.context.annotation.Import;
 @EnableFeignClients(basePackageClasses = {AccountRestClient.class, CmsPsuPisClient.class, AspspConsentDataClient.class, CmsAspspPiisClient.class})
 @SpringBootApplication
 @EnableLedgersMiddlewareRestClient
+@EnableHttpClientProfiles
 @ComponentScan(basePackages = {"de.adorsys.ledgers.oba", "de.adorsys.psd2.mapper"})
 @Import(KeycloakClientConfiguration.class)
 public class LedgersXs2aObaApplication {
@@ -19,11 +19,13 @@
 package de.adorsys.psd2.sandbox.auth;
 
 import de.adorsys.ledgers.keycloak.client.api.KeycloakTokenService;
+import de.adorsys.ledgers.keycloak.client.mapper.KeycloakAuthMapper;
 import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
 import de.adorsys.psd2.sandbox.auth.filter.LoginAuthenticationFilter;
 import de.adorsys.psd2.sandbox.auth.filter.RefreshTokenFilter;
 import de.adorsys.psd2.sandbox.auth.filter.TokenAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -33,6 +35,7 @@ public class SandboxSecurityFilterConfig {
     private final KeycloakTokenService tokenService;
     private final LoginAuthorization loginAuthorization;
     private final AuthRequestInterceptor authInterceptor;
+    private final KeycloakAuthMapper authMapper;
 
     @Bean
     public LoginAuthenticationFilter loginAuthenticationFilter() {
@@ -45,7 +48,18 @@ public class SandboxSecurityFilterConfig {
     }
 
     @Bean
-    public TokenAuthenticationFilter tokenAuthenticationFilter() {
-        return new TokenAuthenticationFilter(authInterceptor, tokenService);
+    @ConfigurationProperties(prefix = "sandbox.token-validation")
+    public TokenValidationProperties tokenValidationProperties() {
+        return new TokenValidationProperties();
+    }
+
+    @Bean
+    public TokenValidationService tokenValidationService(TokenValidationProperties tokenValidationProperties) {
+        return new TokenValidationService(tokenService, authMapper, tokenValidationProperties);
+    }
+
+    @Bean
+    public TokenAuthenticationFilter tokenAuthenticationFilter(TokenValidationService tokenValidationService) {
+        return new TokenAuthenticationFilter(authInterceptor, tokenValidationService);
     }
 }
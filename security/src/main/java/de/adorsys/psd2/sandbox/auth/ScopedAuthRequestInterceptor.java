@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth;
+
+import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
+import feign.RequestTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * {@link AuthRequestInterceptor} which keeps the access token bound to the calling thread instead of
+ * a shared field, so concurrent requests can not see each other's token.
+ * <p>
+ * Use {@link #callWithAccessToken(String, Supplier)} to scope a token to a single remote call and
+ * {@link #propagate(Runnable)} to carry the current token over to an executor thread.
+ */
+public class ScopedAuthRequestInterceptor extends AuthRequestInterceptor {
+    private static final ThreadLocal<String> ACCESS_TOKEN = new ThreadLocal<>();
+
+    @Override
+    public void apply(RequestTemplate template) {
+        String accessToken = ACCESS_TOKEN.get();
+        if (accessToken != null) {
+            template.header(SecurityConstant.AUTHORIZATION_HEADER, SecurityConstant.BEARER_TOKEN_PREFIX + accessToken);
+        }
+    }
+
+    @Override
+    public void setAccessToken(String accessToken) {
+        if (accessToken == null) {
+            ACCESS_TOKEN.remove();
+        } else {
+            ACCESS_TOKEN.set(accessToken);
+        }
+    }
+
+    public String getAccessToken() {
+        return ACCESS_TOKEN.get();
+    }
+
+    public <T> T callWithAccessToken(String accessToken, Supplier<T> call) {
+        String previous = ACCESS_TOKEN.get();
+        setAccessToken(accessToken);
+        try {
+            return call.get();
+        } finally {
+            setAccessToken(previous);
+        }
+    }
+
+    public void runWithAccessToken(String accessToken, Runnable call) {
+        callWithAccessToken(accessToken, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public Runnable propagate(Runnable task) {
+        String accessToken = ACCESS_TOKEN.get();
+        return () -> runWithAccessToken(accessToken, task);
+    }
+
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        String accessToken = ACCESS_TOKEN.get();
+        return () -> callWithAccessToken(accessToken, task);
+    }
+}
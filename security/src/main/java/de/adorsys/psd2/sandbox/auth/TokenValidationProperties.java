@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth;
+
+import lombok.Data;
+
+/**
+ * Settings of {@link TokenValidationService}, bound to sandbox.token-validation.
+ */
+@Data
+public class TokenValidationProperties {
+    /**
+     * REMOTE asks Keycloak to introspect every token, LOCAL verifies signature and expiry against the realm keys.
+     */
+    private Mode mode = Mode.REMOTE;
+    private String jwksUri;
+    private String jwsAlgorithm = "RS256";
+    private long jwksRefreshSeconds = 300;
+    private int jwksConnectTimeoutMs = 1000;
+    private int jwksReadTimeoutMs = 1000;
+    private long rejectedCacheSeconds = 10;
+    private long cacheMaxSize = 10000;
+    /**
+     * Whether LOCAL mode asks Keycloak when the realm keys can not be loaded.
+     */
+    private boolean remoteFallback;
+
+    public enum Mode {
+        REMOTE, LOCAL
+    }
+}
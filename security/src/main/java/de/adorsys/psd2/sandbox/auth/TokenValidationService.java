@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.source.DefaultJWKSetCache;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.RemoteJWKSet;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import de.adorsys.ledgers.keycloak.client.api.KeycloakTokenService;
+import de.adorsys.ledgers.keycloak.client.mapper.KeycloakAuthMapper;
+import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.representations.AccessToken;
+import org.keycloak.util.JsonSerialization;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates access tokens either remotely through {@link KeycloakTokenService#validate(String)} or locally.
+ * <p>
+ * In local mode the signature is checked against the realm JWKS, which is cached for the configured period and
+ * reloaded when a token is signed with an unknown key id. Accepted tokens are cached until they expire, rejected
+ * ones for a short period. Logouts are not visible locally, so a token stays valid until its expiry.
+ */
+@Slf4j
+public class TokenValidationService {
+    private static final String INVALID_TOKEN = "Invalid token !";
+
+    private final KeycloakTokenService tokenService;
+    private final KeycloakAuthMapper authMapper;
+    private final boolean remoteFallback;
+    private final ConfigurableJWTProcessor<SecurityContext> jwtProcessor;
+    private final Cache<String, AccessToken> accepted;
+    private final Cache<String, Boolean> rejected;
+
+    public TokenValidationService(KeycloakTokenService tokenService, KeycloakAuthMapper authMapper, TokenValidationProperties properties) {
+        this(tokenService, authMapper, properties,
+             properties.getMode() == TokenValidationProperties.Mode.LOCAL ? remoteKeySource(properties) : null);
+    }
+
+    TokenValidationService(KeycloakTokenService tokenService, KeycloakAuthMapper authMapper, TokenValidationProperties properties,
+                           JWKSource<SecurityContext> keySource) {
+        this.tokenService = tokenService;
+        this.authMapper = authMapper;
+        this.remoteFallback = properties.isRemoteFallback();
+        if (keySource == null) {
+            this.jwtProcessor = null;
+            this.accepted = null;
+            this.rejected = null;
+            return;
+        }
+        this.jwtProcessor = new DefaultJWTProcessor<>();
+        this.jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.parse(properties.getJwsAlgorithm()), keySource));
+        this.accepted = Caffeine.newBuilder()
+                            .maximumSize(properties.getCacheMaxSize())
+                            .expireAfter(new UntilTokenExpiry())
+                            .build();
+        this.rejected = Caffeine.newBuilder()
+                            .maximumSize(properties.getCacheMaxSize())
+                            .expireAfterWrite(Duration.ofSeconds(properties.getRejectedCacheSeconds()))
+                            .build();
+    }
+
+    public BearerTokenTO validate(String accessToken) {
+        if (jwtProcessor == null) {
+            return tokenService.validate(accessToken);
+        }
+        if (rejected.getIfPresent(accessToken) != null) {
+            throw new AccessDeniedException(INVALID_TOKEN);
+        }
+        AccessToken token = accepted.getIfPresent(accessToken);
+        if (token == null) {
+            try {
+                token = verify(accessToken);
+            } catch (KeySourceException e) {
+                if (remoteFallback) {
+                    log.warn("Realm keys not available, validating token remotely: {}", e.getMessage());
+                    return tokenService.validate(accessToken);
+                }
+                throw new AccessDeniedException(e.getMessage(), e);
+            }
+        }
+        return authMapper.toBearer(token, accessToken);
+    }
+
+    private AccessToken verify(String accessToken) throws KeySourceException {
+        try {
+            AccessToken token = JsonSerialization.readValue(jwtProcessor.process(accessToken, null).toString(), AccessToken.class);
+            accepted.put(accessToken, token);
+            return token;
+        } catch (KeySourceException e) {
+            throw e;
+        } catch (ParseException | BadJOSEException | JOSEException | IOException e) {
+            log.debug("Token rejected: {}", e.getMessage());
+            rejected.put(accessToken, Boolean.TRUE);
+            throw new AccessDeniedException(INVALID_TOKEN, e);
+        }
+    }
+
+    private static JWKSource<SecurityContext> remoteKeySource(TokenValidationProperties properties) {
+        try {
+            return new RemoteJWKSet<>(new URL(properties.getJwksUri()),
+                                      new DefaultResourceRetriever(properties.getJwksConnectTimeoutMs(), properties.getJwksReadTimeoutMs()),
+                                      new DefaultJWKSetCache(properties.getJwksRefreshSeconds(), TimeUnit.SECONDS));
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid JWKS uri: " + properties.getJwksUri(), e);
+        }
+    }
+
+    private static class UntilTokenExpiry implements Expiry<String, AccessToken> {
+        @Override
+        public long expireAfterCreate(String key, AccessToken value, long currentTime) {
+            return value.getExp() == null
+                       ? 0
+                       : Math.max(0, TimeUnit.SECONDS.toNanos(value.getExp() - Instant.now().getEpochSecond()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, AccessToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, AccessToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
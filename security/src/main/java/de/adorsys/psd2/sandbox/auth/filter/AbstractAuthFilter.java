@@ -19,13 +19,13 @@
 package de.adorsys.psd2.sandbox.auth.filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nimbusds.jwt.JWTParser;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.util.DateUtils;
 import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.psd2.sandbox.auth.ErrorResponse;
 import de.adorsys.psd2.sandbox.auth.MiddlewareAuthentication;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpHeaders;
@@ -56,7 +56,8 @@ import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 @SuppressWarnings("PMD.TooManyStaticImports")
 @Slf4j
 abstract class AbstractAuthFilter extends OncePerRequestFilter {
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final JwtClaimsCache CLAIMS = new JwtClaimsCache();
+    private static final ObjectWriter ERROR_WRITER = new ObjectMapper().writer();
     public static final String INVALID_REFRESH_TOKEN = "invalid refresh token";
 
     protected void handleAuthenticationFailure(HttpServletResponse response, Exception e) throws IOException {
@@ -66,7 +67,7 @@ abstract class AbstractAuthFilter extends OncePerRequestFilter {
             .buildContent(UNAUTHORIZED.value(), UNAUTHORIZED.getReasonPhrase());
         response.setStatus(UNAUTHORIZED.value());
         response.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-        response.getOutputStream().println(objectMapper.writeValueAsString(data));
+        response.getOutputStream().println(ERROR_WRITER.writeValueAsString(data));
     }
 
     protected String obtainFromHeader(HttpServletRequest request, String headerKey) {
@@ -143,14 +144,12 @@ abstract class AbstractAuthFilter extends OncePerRequestFilter {
             .orElseThrow(() -> new AccessDeniedException(INVALID_REFRESH_TOKEN));
     }
 
-    @SneakyThrows
     public String jwtId(String jwtToken) {
-        return JWTParser.parse(jwtToken).getJWTClaimsSet().getJWTID();
+        return CLAIMS.get(jwtToken).getJWTID();
     }
 
-    @SneakyThrows
     public boolean isExpiredToken(String jwtToken) {
-        Date expirationTime = JWTParser.parse(jwtToken).getJWTClaimsSet().getExpirationTime();
+        Date expirationTime = CLAIMS.get(jwtToken).getExpirationTime();
         return Optional.ofNullable(expirationTime)
             .map(d -> d.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime())
             .map(d -> d.isBefore(LocalDateTime.now()))
@@ -158,10 +157,10 @@ abstract class AbstractAuthFilter extends OncePerRequestFilter {
     }
 
 
-    @SneakyThrows
     public Long expiredTimeInSec(String jwtToken) {
-        Date issueTime = JWTParser.parse(jwtToken).getJWTClaimsSet().getIssueTime();
-        Date expirationTime = JWTParser.parse(jwtToken).getJWTClaimsSet().getExpirationTime();
+        JWTClaimsSet claims = CLAIMS.get(jwtToken);
+        Date issueTime = claims.getIssueTime();
+        Date expirationTime = claims.getExpirationTime();
         return DateUtils.toSecondsSinceEpoch(expirationTime) - DateUtils.toSecondsSinceEpoch(issueTime);
     }
 
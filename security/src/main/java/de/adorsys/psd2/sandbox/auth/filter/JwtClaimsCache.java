@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import lombok.SneakyThrows;
+
+import java.time.Duration;
+
+/**
+ * Parsed claims of recently seen tokens, shared by all filters so one request parses its tokens only once.
+ * Claims are read without signature verification, exactly as {@link JWTParser} does.
+ */
+final class JwtClaimsCache {
+    private static final long MAX_SIZE = 10000;
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private final Cache<String, JWTClaimsSet> claims = Caffeine.newBuilder()
+                                                           .maximumSize(MAX_SIZE)
+                                                           .expireAfterAccess(TTL)
+                                                           .build();
+
+    JWTClaimsSet get(String jwtToken) {
+        return claims.get(jwtToken, JwtClaimsCache::parse);
+    }
+
+    @SneakyThrows
+    private static JWTClaimsSet parse(String jwtToken) {
+        return JWTParser.parse(jwtToken).getJWTClaimsSet();
+    }
+}
@@ -18,6 +18,8 @@
 
 package de.adorsys.psd2.sandbox.auth.filter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import de.adorsys.ledgers.keycloak.client.api.KeycloakTokenService;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.psd2.sandbox.auth.SecurityConstant;
@@ -33,12 +35,23 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Component
 @RequiredArgsConstructor
 public class RefreshTokenFilter extends AbstractAuthFilter {
+    private static final Duration REFRESH_GRACE_PERIOD = Duration.ofSeconds(10);
 
     private final KeycloakTokenService tokenService;
+    /**
+     * Refresh per jwtId, shared by parallel requests carrying the same expired token and kept for a short
+     * grace period so that requests arriving right after the refresh reuse the new token pair.
+     */
+    private final Cache<String, Refresh> refreshes = Caffeine.newBuilder()
+                                                          .expireAfterWrite(REFRESH_GRACE_PERIOD)
+                                                          .build();
 
     @Override
     public void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
@@ -67,11 +80,53 @@ public class RefreshTokenFilter extends AbstractAuthFilter {
             throw new AccessDeniedException("Refresh token is expired !");
         }
 
-        BearerTokenTO bearerTokenTO = tokenService.refreshToken(refreshToken);
+        BearerTokenTO bearerTokenTO = refresh(jwtid, refreshToken);
         removeCookie(response, oldRefreshTokenCookieName, request.isSecure());
         return bearerTokenTO;
     }
 
+    private BearerTokenTO refresh(String jwtid, String refreshToken) {
+        Refresh created = new Refresh(refreshToken);
+        Refresh refresh = refreshes.asMap().putIfAbsent(jwtid, created);
+        if (refresh == null) {
+            return created.execute(jwtid);
+        }
+        return refresh.refreshToken.equals(refreshToken)
+                   ? refresh.await()
+                   : tokenService.refreshToken(refreshToken);
+    }
+
+    private class Refresh {
+        private final String refreshToken;
+        private final CompletableFuture<BearerTokenTO> result = new CompletableFuture<>();
+
+        Refresh(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
+
+        BearerTokenTO execute(String jwtid) {
+            try {
+                BearerTokenTO bearerTokenTO = tokenService.refreshToken(refreshToken);
+                result.complete(bearerTokenTO);
+                return bearerTokenTO;
+            } catch (RuntimeException e) {
+                refreshes.asMap().remove(jwtid, this);
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        BearerTokenTO await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException
+                          ? (RuntimeException) e.getCause()
+                          : e;
+            }
+        }
+    }
+
 
     private static class RefreshTokenRequestWrapper extends HttpServletRequestWrapper {
         private final String accessToken;
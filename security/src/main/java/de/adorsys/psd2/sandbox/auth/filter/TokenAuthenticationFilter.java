@@ -18,9 +18,9 @@
 
 package de.adorsys.psd2.sandbox.auth.filter;
 
-import de.adorsys.ledgers.keycloak.client.api.KeycloakTokenService;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
+import de.adorsys.psd2.sandbox.auth.TokenValidationService;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
@@ -36,35 +36,39 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class TokenAuthenticationFilter extends AbstractAuthFilter {
     private final AuthRequestInterceptor authInterceptor;
-    private final KeycloakTokenService tokenService;
+    private final TokenValidationService tokenValidationService;
 
     @Override
     public void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
 
         authInterceptor.setAccessToken(null);
-        String bearerToken = resolveBearerToken(request);
+        try {
+            String bearerToken = resolveBearerToken(request);
 
-        if (StringUtils.isBlank(bearerToken)) {
-            chain.doFilter(request, response);
-            return;
-        }
+            if (StringUtils.isBlank(bearerToken)) {
+                chain.doFilter(request, response);
+                return;
+            }
 
-        if (authenticationIsRequired()) {
-            try {
-                authInterceptor.setAccessToken(bearerToken);
+            if (authenticationIsRequired()) {
+                try {
+                    authInterceptor.setAccessToken(bearerToken);
 
-                BearerTokenTO validateResponse = tokenService.validate(bearerToken);
+                    BearerTokenTO validateResponse = tokenValidationService.validate(bearerToken);
 
-                BearerTokenTO token = Optional.ofNullable(validateResponse)
-                    .orElseThrow(() -> new AccessDeniedException("Invalid token !"));
+                    BearerTokenTO token = Optional.ofNullable(validateResponse)
+                        .orElseThrow(() -> new AccessDeniedException("Invalid token !"));
 
-                fillSecurityContext(token);
-            } catch (FeignException | AccessDeniedException e) {
-                handleAuthenticationFailure(response, e);
-                return;
+                    fillSecurityContext(token);
+                } catch (FeignException | AccessDeniedException e) {
+                    handleAuthenticationFailure(response, e);
+                    return;
+                }
             }
+            chain.doFilter(request, response);
+        } finally {
+            authInterceptor.setAccessToken(null);
         }
-        chain.doFilter(request, response);
     }
 
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker of one profile. Once open, calls are rejected until the open period ends,
+ * then a single trial call decides whether the circuit closes again.
+ */
+final class CircuitBreaker {
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openStateNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicBoolean open = new AtomicBoolean();
+    private final AtomicBoolean trialRunning = new AtomicBoolean();
+
+    CircuitBreaker(int failureThreshold, long openStateSeconds, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openStateNanos = TimeUnit.SECONDS.toNanos(openStateSeconds);
+        this.nanoClock = nanoClock;
+    }
+
+    boolean tryAcquire() {
+        if (!open.get()) {
+            return true;
+        }
+        return nanoClock.getAsLong() - openedAt.get() >= openStateNanos
+                   && trialRunning.compareAndSet(false, true);
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        open.set(false);
+        trialRunning.set(false);
+    }
+
+    void onFailure() {
+        if (failureThreshold <= 0) {
+            return;
+        }
+        if (trialRunning.get() || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(nanoClock.getAsLong());
+            open.set(true);
+            trialRunning.set(false);
+        }
+    }
+
+    /**
+     * Gives back a granted call that never reached the downstream, without counting it either way.
+     */
+    void cancel() {
+        trialRunning.set(false);
+    }
+
+    State state() {
+        if (!open.get()) {
+            return State.CLOSED;
+        }
+        return nanoClock.getAsLong() - openedAt.get() >= openStateNanos ? State.HALF_OPEN : State.OPEN;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth.http;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.ConnectionPool;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * One downstream profile: an OkHttp client with its own connection pool, guarded by a bulkhead and a circuit breaker.
+ */
+final class HttpClientProfile {
+    private static final String METRIC_PREFIX = "sandbox.http.client";
+    private static final String PROFILE_TAG = "profile";
+
+    private final String name;
+    private final HttpClientProfileProperties.Profile settings;
+    private final ConnectionPool connectionPool;
+    private final Client delegate;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final LongSupplier nanoClock;
+
+    private final Timer queueWait;
+    private final Timer successLatency;
+    private final Timer clientErrorLatency;
+    private final Timer serverErrorLatency;
+    private final Timer ioErrorLatency;
+    private final Counter bulkheadRejections;
+    private final Counter circuitRejections;
+
+    HttpClientProfile(String name, HttpClientProfileProperties.Profile settings, MeterRegistry registry, LongSupplier nanoClock) {
+        this(name, settings, registry, nanoClock, null);
+    }
+
+    HttpClientProfile(String name, HttpClientProfileProperties.Profile settings, MeterRegistry registry, LongSupplier nanoClock, Client delegate) {
+        this.name = name;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.connectionPool = new ConnectionPool(settings.getMaxIdleConnections(), settings.getKeepAliveSeconds(), TimeUnit.SECONDS);
+        this.delegate = delegate != null
+                            ? delegate
+                            : new feign.okhttp.OkHttpClient(okHttpClient(settings, connectionPool));
+        this.bulkhead = new Semaphore(settings.getMaxConcurrentRequests(), true);
+        this.circuitBreaker = new CircuitBreaker(settings.getFailureThreshold(), settings.getOpenStateSeconds(), nanoClock);
+
+        queueWait = Timer.builder(METRIC_PREFIX + ".queue.wait")
+                        .description("Time spent waiting for a free bulkhead slot")
+                        .tag(PROFILE_TAG, name)
+                        .publishPercentileHistogram()
+                        .register(registry);
+        successLatency = latencyTimer(registry, "SUCCESS");
+        clientErrorLatency = latencyTimer(registry, "CLIENT_ERROR");
+        serverErrorLatency = latencyTimer(registry, "SERVER_ERROR");
+        ioErrorLatency = latencyTimer(registry, "IO_ERROR");
+        bulkheadRejections = rejectionCounter(registry, "bulkhead");
+        circuitRejections = rejectionCounter(registry, "circuit_open");
+
+        Gauge.builder(METRIC_PREFIX + ".pool.connections", connectionPool, ConnectionPool::connectionCount)
+            .tag(PROFILE_TAG, name).tag("state", "total")
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".pool.connections", connectionPool, ConnectionPool::idleConnectionCount)
+            .tag(PROFILE_TAG, name).tag("state", "idle")
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".in.flight", this, HttpClientProfile::inFlight)
+            .tag(PROFILE_TAG, name)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".circuit.state", circuitBreaker, b -> b.state().ordinal())
+            .description("0 closed, 1 half open, 2 open")
+            .tag(PROFILE_TAG, name)
+            .register(registry);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Response execute(Request request, Request.Options options) throws IOException {
+        if (!circuitBreaker.tryAcquire()) {
+            circuitRejections.increment();
+            throw new IOException(String.format("Circuit breaker of HTTP client profile %s is open", name));
+        }
+        acquireSlot();
+        long start = nanoClock.getAsLong();
+        try {
+            Response response = delegate.execute(request, profileOptions(options));
+            record(response.status(), start);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            ioErrorLatency.record(nanoClock.getAsLong() - start, TimeUnit.NANOSECONDS);
+            circuitBreaker.onFailure();
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private void acquireSlot() throws IOException {
+        long start = nanoClock.getAsLong();
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(settings.getMaxWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.cancel();
+            throw new InterruptedIOException(String.format("Interrupted while waiting for HTTP client profile %s", name));
+        } finally {
+            queueWait.record(nanoClock.getAsLong() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            circuitBreaker.cancel();
+            bulkheadRejections.increment();
+            throw new IOException(String.format("HTTP client profile %s has no free slot after %d ms", name, settings.getMaxWaitMs()));
+        }
+    }
+
+    private void record(int status, long start) {
+        long elapsed = nanoClock.getAsLong() - start;
+        if (status >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            serverErrorLatency.record(elapsed, TimeUnit.NANOSECONDS);
+            circuitBreaker.onFailure();
+            return;
+        }
+        (status >= HttpStatus.BAD_REQUEST.value() ? clientErrorLatency : successLatency).record(elapsed, TimeUnit.NANOSECONDS);
+        circuitBreaker.onSuccess();
+    }
+
+    // Profile timeouts win over the per-client Feign options, so OkHttp keeps using the profile client as is
+    private Request.Options profileOptions(Request.Options options) {
+        return new Request.Options(settings.getConnectTimeoutMs(), TimeUnit.MILLISECONDS,
+                                   settings.getReadTimeoutMs(), TimeUnit.MILLISECONDS,
+                                   options.isFollowRedirects());
+    }
+
+    private int inFlight() {
+        return settings.getMaxConcurrentRequests() - bulkhead.availablePermits();
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    private Timer latencyTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder(METRIC_PREFIX + ".requests")
+                   .description("Latency of downstream calls")
+                   .tag(PROFILE_TAG, name)
+                   .tag("outcome", outcome)
+                   .publishPercentileHistogram()
+                   .register(registry);
+    }
+
+    private Counter rejectionCounter(MeterRegistry registry, String reason) {
+        return Counter.builder(METRIC_PREFIX + ".rejected")
+                   .tag(PROFILE_TAG, name)
+                   .tag("reason", reason)
+                   .register(registry);
+    }
+
+    private static OkHttpClient okHttpClient(HttpClientProfileProperties.Profile settings, ConnectionPool connectionPool) {
+        return new OkHttpClient.Builder()
+                   .connectionPool(connectionPool)
+                   .connectTimeout(settings.getConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                   .readTimeout(settings.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                   .writeTimeout(settings.getWriteTimeoutMs(), TimeUnit.MILLISECONDS)
+                   .followRedirects(false)
+                   .followSslRedirects(false)
+                   .retryOnConnectionFailure(true)
+                   .addInterceptor(new RedirectInterceptor())
+                   .build();
+    }
+
+    static class RedirectInterceptor implements Interceptor {
+        @Override
+        public okhttp3.Response intercept(Interceptor.Chain chain) throws IOException {
+            var request = chain.request();
+            var response = chain.proceed(request);
+            if (HttpStatus.FOUND.value() == response.code()) {
+                return response.newBuilder().code(HttpStatus.OK.value()).build();
+            }
+            return response;
+        }
+    }
+}
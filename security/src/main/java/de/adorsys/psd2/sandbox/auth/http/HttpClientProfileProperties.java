@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth.http;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of {@link ProfiledFeignClient}, bound to sandbox.http-clients.
+ * Every profile owns its connection pool, bulkhead and circuit breaker; Feign clients are assigned by name.
+ */
+@Data
+public class HttpClientProfileProperties {
+    /**
+     * Profile used by Feign clients not listed in any profile, created with default settings when not configured.
+     */
+    private String defaultProfile = "default";
+    private Map<String, Profile> profiles = new LinkedHashMap<>();
+
+    @Data
+    public static class Profile {
+        /**
+         * Feign client names served by this profile, a trailing '*' matches by prefix.
+         */
+        private List<String> clients = new ArrayList<>();
+        private int maxIdleConnections = 5;
+        private long keepAliveSeconds = 300;
+        private long connectTimeoutMs = 60000;
+        private long readTimeoutMs = 60000;
+        private long writeTimeoutMs = 60000;
+        /**
+         * Bulkhead: requests running at once, further requests wait up to maxWaitMs for a free slot.
+         */
+        private int maxConcurrentRequests = 64;
+        private long maxWaitMs = 1000;
+        /**
+         * Consecutive failures (I/O errors and 5xx responses) opening the circuit, 0 disables the breaker.
+         */
+        private int failureThreshold = 20;
+        private long openStateSeconds = 30;
+    }
+}
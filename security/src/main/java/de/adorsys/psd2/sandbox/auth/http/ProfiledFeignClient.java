@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth.http;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Feign {@link Client} routing every call to the {@link HttpClientProfile} its Feign client name is assigned to,
+ * so a slow or failing downstream only exhausts its own connection pool and bulkhead.
+ */
+@Slf4j
+public class ProfiledFeignClient implements Client {
+    private static final String WILDCARD = "*";
+
+    private final HttpClientProfileProperties properties;
+    private final Map<String, HttpClientProfile> profiles;
+    private final HttpClientProfile defaultProfile;
+    private final Map<String, HttpClientProfile> profileByClient = new ConcurrentHashMap<>();
+
+    public ProfiledFeignClient(HttpClientProfileProperties properties, MeterRegistry registry) {
+        this(properties, name -> new HttpClientProfile(name, profileSettings(properties, name), registry, System::nanoTime));
+    }
+
+    ProfiledFeignClient(HttpClientProfileProperties properties, MeterRegistry registry, LongSupplier nanoClock, Map<String, Client> delegates) {
+        this(properties, name -> new HttpClientProfile(name, profileSettings(properties, name), registry, nanoClock, delegates.get(name)));
+    }
+
+    private ProfiledFeignClient(HttpClientProfileProperties properties, Function<String, HttpClientProfile> profileFactory) {
+        this.properties = properties;
+        this.profiles = properties.getProfiles().keySet().stream()
+                            .collect(Collectors.toMap(Function.identity(), profileFactory));
+        this.defaultProfile = profiles.computeIfAbsent(properties.getDefaultProfile(), profileFactory);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        return profileOf(clientName(request)).execute(request, options);
+    }
+
+    HttpClientProfile profileOf(String clientName) {
+        if (clientName == null) {
+            return defaultProfile;
+        }
+        return profileByClient.computeIfAbsent(clientName, this::resolve);
+    }
+
+    private HttpClientProfile resolve(String clientName) {
+        HttpClientProfile profile = properties.getProfiles().entrySet().stream()
+                                        .filter(e -> e.getValue().getClients().stream().anyMatch(c -> matches(c, clientName)))
+                                        .findFirst()
+                                        .map(e -> profiles.get(e.getKey()))
+                                        .orElse(defaultProfile);
+        log.info("Feign client {} uses HTTP client profile {}", clientName, profile.getName());
+        return profile;
+    }
+
+    private static boolean matches(String pattern, String clientName) {
+        return pattern.endsWith(WILDCARD)
+                   ? clientName.startsWith(pattern.substring(0, pattern.length() - 1))
+                   : pattern.equals(clientName);
+    }
+
+    private static String clientName(Request request) {
+        return Optional.ofNullable(request.requestTemplate())
+                   .map(RequestTemplate::feignTarget)
+                   .map(Target::name)
+                   .orElse(null);
+    }
+
+    private static HttpClientProfileProperties.Profile profileSettings(HttpClientProfileProperties properties, String name) {
+        return properties.getProfiles().getOrDefault(name, new HttpClientProfileProperties.Profile());
+    }
+}
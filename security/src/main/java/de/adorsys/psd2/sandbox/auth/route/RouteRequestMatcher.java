@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+package de.adorsys.psd2.sandbox.auth.route;
+
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+
+/**
+ * Single {@link RequestMatcher} over several groups of ant patterns, replacing one
+ * {@link org.springframework.security.web.util.matcher.AntPathRequestMatcher} per pattern.
+ * The request path is resolved exactly as {@code AntPathRequestMatcher} does.
+ */
+public class RouteRequestMatcher implements RequestMatcher {
+    private final RouteTable<String> routes;
+
+    public RouteRequestMatcher(String[]... patternGroups) {
+        this.routes = RouteTable.of(Arrays.stream(patternGroups)
+                                        .flatMap(Arrays::stream)
+                                        .toArray(String[]::new));
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return routes.matches(requestPath(request));
+    }
+
+    private static String requestPath(HttpServletRequest request) {
+        String url = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        if (pathInfo != null) {
+            url = StringUtils.hasLength(url) ? url + pathInfo : pathInfo;
+        }
+        return url;
+    }
+}
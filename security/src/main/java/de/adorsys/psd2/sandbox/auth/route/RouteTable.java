@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+package de.adorsys.psd2.sandbox.auth.route;
+
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ant-style path patterns compiled once into a segment trie, so a request path is resolved in one walk over its
+ * segments instead of running {@link org.springframework.util.AntPathMatcher} against every pattern in turn.
+ * Matching follows {@code AntPathMatcher} semantics. If several patterns match, the most specific one wins:
+ * literal segments before wildcard segments, {@code *} before {@code **}.
+ */
+public final class RouteTable<T> {
+    private static final String SEPARATOR = "/";
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_PATH = "**";
+    private static final Pattern GLOB = Pattern.compile("\\?|\\*|\\{((?:\\{[^/]+?\\}|[^/{}]|\\\\[{}])+?)\\}");
+
+    private final Node<T> absolute = new Node<>();
+    private final Node<T> relative = new Node<>();
+
+    private RouteTable(Map<String, T> routes) {
+        routes.forEach(this::add);
+    }
+
+    public static RouteTable<String> of(String... patterns) {
+        Map<String, String> routes = new LinkedHashMap<>();
+        Arrays.stream(patterns).forEach(p -> routes.putIfAbsent(p, p));
+        return new RouteTable<>(routes);
+    }
+
+    public static <T> RouteTable<T> of(Map<String, T> routes) {
+        return new RouteTable<>(routes);
+    }
+
+    public boolean matches(String path) {
+        return find(path).isPresent();
+    }
+
+    public Optional<T> find(String path) {
+        if (path == null) {
+            return Optional.empty();
+        }
+        Node<T> root = path.startsWith(SEPARATOR) ? absolute : relative;
+        String[] segments = tokenize(path);
+        return Optional.ofNullable(root.find(segments, 0, path.endsWith(SEPARATOR), false));
+    }
+
+    private void add(String pattern, T value) {
+        Node<T> node = pattern.startsWith(SEPARATOR) ? absolute : relative;
+        for (String segment : tokenize(pattern)) {
+            node = node.child(segment);
+        }
+        if (pattern.endsWith(SEPARATOR)) {
+            node.valueWithSlash = Optional.ofNullable(node.valueWithSlash).orElse(value);
+        } else {
+            node.value = Optional.ofNullable(node.value).orElse(value);
+        }
+    }
+
+    private static String[] tokenize(String path) {
+        return StringUtils.tokenizeToStringArray(path, SEPARATOR, false, true);
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> literals = new HashMap<>();
+        private final Map<String, WildcardSegment<T>> wildcards = new LinkedHashMap<>();
+        private Node<T> anySegment;
+        private Node<T> anyPath;
+        private T value;
+        private T valueWithSlash;
+
+        Node<T> child(String segment) {
+            if (ANY_PATH.equals(segment)) {
+                anyPath = Optional.ofNullable(anyPath).orElseGet(Node::new);
+                return anyPath;
+            }
+            if (ANY_SEGMENT.equals(segment)) {
+                anySegment = Optional.ofNullable(anySegment).orElseGet(Node::new);
+                return anySegment;
+            }
+            if (GLOB.matcher(segment).find()) {
+                return wildcards.computeIfAbsent(segment, WildcardSegment::new).node;
+            }
+            return literals.computeIfAbsent(segment, s -> new Node<>());
+        }
+
+        /**
+         * A trailing separator only has to agree between pattern and path when the pattern holds no {@code **},
+         * and a path ending with a separator also matches a pattern whose last segment is {@code *}.
+         */
+        T find(String[] segments, int index, boolean trailingSlash, boolean afterAnyPath) {
+            if (index == segments.length) {
+                T found = terminal(trailingSlash, afterAnyPath);
+                if (found == null && trailingSlash && !afterAnyPath && anySegment != null) {
+                    found = anySegment.terminal(false, true);
+                }
+                if (found == null && anyPath != null) {
+                    found = anyPath.find(segments, index, trailingSlash, true);
+                }
+                return found;
+            }
+            String segment = segments[index];
+            T found = next(literals.get(segment), segments, index + 1, trailingSlash, afterAnyPath);
+            for (WildcardSegment<T> wildcard : wildcards.values()) {
+                if (found == null && wildcard.matches(segment)) {
+                    found = next(wildcard.node, segments, index + 1, trailingSlash, afterAnyPath);
+                }
+            }
+            if (found == null) {
+                found = next(anySegment, segments, index + 1, trailingSlash, afterAnyPath);
+            }
+            for (int skip = index; found == null && anyPath != null && skip <= segments.length; skip++) {
+                found = anyPath.find(segments, skip, trailingSlash, true);
+            }
+            return found;
+        }
+
+        private T terminal(boolean trailingSlash, boolean afterAnyPath) {
+            if (afterAnyPath) {
+                return value != null ? value : valueWithSlash;
+            }
+            return trailingSlash ? valueWithSlash : value;
+        }
+
+        private static <T> T next(Node<T> node, String[] segments, int index, boolean trailingSlash, boolean afterAnyPath) {
+            return node == null ? null : node.find(segments, index, trailingSlash, afterAnyPath);
+        }
+    }
+
+    private static final class WildcardSegment<T> {
+        private final Pattern pattern;
+        private final Node<T> node = new Node<>();
+
+        WildcardSegment(String segment) {
+            this.pattern = compile(segment);
+        }
+
+        boolean matches(String segment) {
+            return pattern.matcher(segment).matches();
+        }
+
+        private static Pattern compile(String segment) {
+            StringBuilder regex = new StringBuilder();
+            Matcher matcher = GLOB.matcher(segment);
+            int end = 0;
+            while (matcher.find()) {
+                regex.append(quote(segment, end, matcher.start())).append(toRegex(matcher.group()));
+                end = matcher.end();
+            }
+            regex.append(quote(segment, end, segment.length()));
+            return Pattern.compile(regex.toString());
+        }
+
+        private static String toRegex(String glob) {
+            if ("?".equals(glob)) {
+                return ".";
+            }
+            if (ANY_SEGMENT.equals(glob)) {
+                return ".*";
+            }
+            int colon = glob.indexOf(':');
+            return colon < 0
+                       ? "(.*)"
+                       : "(" + glob.substring(colon + 1, glob.length() - 1) + ")";
+        }
+
+        private static String quote(String segment, int start, int end) {
+            return start == end ? "" : Pattern.quote(segment.substring(start, end));
+        }
+    }
+}
@@ -33,12 +33,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.*;
 
@@ -76,6 +84,82 @@ public class RefreshTokenFilterTest {
 
     }
 
+    @Test
+    void doFilterInternal_concurrentRefreshCoalesced() throws Exception {
+        // Given
+        BearerTokenTO bearer = getBearer();
+        stubExpiredAccessToken(bearer);
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        when(tokenService.refreshToken(bearer.getRefresh_token())).thenAnswer(i -> {
+            refreshStarted.countDown();
+            TimeUnit.MILLISECONDS.sleep(200);
+            return bearer;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        List<Future<?>> requests = new ArrayList<>();
+        requests.add(executor.submit(this::filterRequest));
+        refreshStarted.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            requests.add(executor.submit(this::filterRequest));
+        }
+        for (Future<?> f : requests) {
+            f.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        verify(tokenService, times(1)).refreshToken(anyString());
+        verify(chain, times(4)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilterInternal_refreshReusedWithinGracePeriod() throws Exception {
+        // Given
+        BearerTokenTO bearer = getBearer();
+        stubExpiredAccessToken(bearer);
+        when(tokenService.refreshToken(bearer.getRefresh_token())).thenReturn(bearer);
+
+        // When
+        filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        verify(tokenService, times(1)).refreshToken(anyString());
+    }
+
+    @Test
+    void doFilterInternal_failedRefreshNotShared() throws Exception {
+        // Given
+        BearerTokenTO bearer = getBearer();
+        stubExpiredAccessToken(bearer);
+        when(tokenService.refreshToken(bearer.getRefresh_token()))
+            .thenThrow(new AccessDeniedException("Refresh failed"))
+            .thenReturn(bearer);
+
+        // When
+        filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+
+        // Then
+        verify(tokenService, times(2)).refreshToken(anyString());
+        verify(chain, times(1)).doFilter(any(), any());
+    }
+
+    private void stubExpiredAccessToken(BearerTokenTO bearer) {
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn(SecurityConstant.BEARER_TOKEN_PREFIX + bearer.getAccess_token());
+        doReturn(120L).when(filter).expiredTimeInSec(anyString());
+        doReturn(TOKEN_ID).when(filter).jwtId(anyString());
+        doReturn(bearer.getRefresh_token()).when(filter).getCookieValue(request, SecurityConstant.REFRESH_TOKEN_COOKIE_PREFIX + TOKEN_ID);
+        doReturn(true).when(filter).isExpiredToken(bearer.getAccess_token());
+        doReturn(false).when(filter).isExpiredToken(bearer.getRefresh_token());
+    }
+
+    private Void filterRequest() throws Exception {
+        filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+        return null;
+    }
 
     private BearerTokenTO getBearer() {
         AccessTokenTO token = new AccessTokenTO();
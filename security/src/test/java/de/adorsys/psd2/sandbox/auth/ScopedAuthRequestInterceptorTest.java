@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth;
+
+import feign.RequestTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScopedAuthRequestInterceptorTest {
+    private final ScopedAuthRequestInterceptor interceptor = new ScopedAuthRequestInterceptor();
+
+    @AfterEach
+    void tearDown() {
+        interceptor.setAccessToken(null);
+    }
+
+    @Test
+    void apply() {
+        // Given
+        interceptor.setAccessToken("token");
+        RequestTemplate template = new RequestTemplate();
+
+        // When
+        interceptor.apply(template);
+
+        // Then
+        assertEquals(List.of("Bearer token"), List.copyOf(template.headers().get(SecurityConstant.AUTHORIZATION_HEADER)));
+    }
+
+    @Test
+    void apply_noToken() {
+        // Given
+        RequestTemplate template = new RequestTemplate();
+
+        // When
+        interceptor.apply(template);
+
+        // Then
+        assertFalse(template.headers().containsKey(SecurityConstant.AUTHORIZATION_HEADER));
+    }
+
+    @Test
+    void callWithAccessToken_restoresPreviousToken() {
+        // Given
+        interceptor.setAccessToken("outer");
+
+        // When
+        String result = interceptor.callWithAccessToken("inner", interceptor::getAccessToken);
+
+        // Then
+        assertEquals("inner", result);
+        assertEquals("outer", interceptor.getAccessToken());
+    }
+
+    @Test
+    void callWithAccessToken_failure() {
+        // When
+        assertThrows(IllegalStateException.class, () -> interceptor.runWithAccessToken("token", () -> {
+            throw new IllegalStateException();
+        }));
+
+        // Then
+        assertNull(interceptor.getAccessToken());
+    }
+
+    @Test
+    void concurrentRequests_doNotShareToken() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch bothSet = new CountDownLatch(2);
+
+        // When
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> interceptor.callWithAccessToken("first", () -> awaitAndRead(bothSet)), executor);
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> interceptor.callWithAccessToken("second", () -> awaitAndRead(bothSet)), executor);
+
+        // Then
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        executor.shutdownNow();
+    }
+
+    @Test
+    void propagate() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        interceptor.setAccessToken("token");
+
+        // When
+        String result = CompletableFuture.supplyAsync(interceptor.propagate(interceptor::getAccessToken), executor).get(5, TimeUnit.SECONDS);
+        String afterwards = CompletableFuture.supplyAsync(interceptor::getAccessToken, executor).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("token", result);
+        assertNull(afterwards);
+        executor.shutdownNow();
+    }
+
+    private String awaitAndRead(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return interceptor.getAccessToken();
+    }
+}
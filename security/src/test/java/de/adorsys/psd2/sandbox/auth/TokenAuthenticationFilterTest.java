@@ -20,7 +20,6 @@ package de.adorsys.psd2.sandbox.auth;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import de.adorsys.ledgers.keycloak.client.api.KeycloakTokenService;
 import de.adorsys.ledgers.middleware.api.domain.um.AccessTokenTO;
 import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
 import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
@@ -64,7 +63,7 @@ class TokenAuthenticationFilterTest {
     private FilterChain chain;
 
     @Mock
-    private KeycloakTokenService tokenService;
+    private TokenValidationService tokenValidationService;
     @Mock
     private AuthRequestInterceptor authInterceptor;
 
@@ -73,13 +72,13 @@ class TokenAuthenticationFilterTest {
         // Given
         SecurityContextHolder.clearContext();
         when(request.getHeader("Authorization")).thenReturn("Bearer bearerToken");
-        when(tokenService.validate(anyString())).thenReturn(getBearer());
+        when(tokenValidationService.validate(anyString())).thenReturn(getBearer());
 
         // When
         filter.doFilter(request, response, chain);
 
         // Then
-        verify(tokenService, times(1)).validate(anyString());
+        verify(tokenValidationService, times(1)).validate(anyString());
         verify(chain, times(1)).doFilter(any(), any());
     }
 
@@ -93,7 +92,7 @@ class TokenAuthenticationFilterTest {
         filter.doFilter(request, response, chain);
 
         // Then
-        verify(tokenService, times(0)).validate(anyString());
+        verify(tokenValidationService, times(0)).validate(anyString());
         verify(chain, times(1)).doFilter(any(), any());
     }
 
@@ -103,14 +102,14 @@ class TokenAuthenticationFilterTest {
         SecurityContextHolder.clearContext();
         when(request.getHeader("Authorization")).thenReturn("Bearer bearerToken");
         when(response.getOutputStream()).thenReturn(new MockHttpServletResponse().getOutputStream());
-        when(tokenService.validate(anyString())).thenThrow(FeignException.errorStatus("method", getResponse()));
+        when(tokenValidationService.validate(anyString())).thenThrow(FeignException.errorStatus("method", getResponse()));
         response.getOutputStream().println(123);
 
         // When
         filter.doFilter(request, response, chain);
 
         // Then
-        verify(tokenService, times(1)).validate(anyString());
+        verify(tokenValidationService, times(1)).validate(anyString());
         verify(chain, times(0)).doFilter(any(), any());
     }
 
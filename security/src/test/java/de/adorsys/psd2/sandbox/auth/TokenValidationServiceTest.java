@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.DefaultJWKSetCache;
+import com.nimbusds.jose.jwk.source.RemoteJWKSet;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import de.adorsys.ledgers.keycloak.client.api.KeycloakTokenService;
+import de.adorsys.ledgers.keycloak.client.mapper.KeycloakAuthMapper;
+import de.adorsys.ledgers.middleware.api.domain.um.BearerTokenTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.representations.AccessToken;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenValidationServiceTest {
+    private static final String USER_ID = "user-id";
+
+    @Mock
+    private KeycloakTokenService tokenService;
+    @Mock
+    private KeycloakAuthMapper authMapper;
+
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+    private final TokenValidationProperties properties = new TokenValidationProperties();
+    private RSAKey signingKey;
+    private JWKSet servedKeys;
+    private boolean jwksAvailable = true;
+
+    @BeforeEach
+    void setUp() throws JOSEException {
+        signingKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        servedKeys = new JWKSet(signingKey);
+        properties.setMode(TokenValidationProperties.Mode.LOCAL);
+    }
+
+    @Test
+    void validate_remoteMode() {
+        // Given
+        properties.setMode(TokenValidationProperties.Mode.REMOTE);
+        TokenValidationService service = new TokenValidationService(tokenService, authMapper, properties);
+        BearerTokenTO bearer = new BearerTokenTO();
+        when(tokenService.validate("token")).thenReturn(bearer);
+
+        // When
+        BearerTokenTO result = service.validate("token");
+
+        // Then
+        assertSame(bearer, result);
+    }
+
+    @Test
+    void validate_local_cachedUntilExpiry() throws Exception {
+        // Given
+        TokenValidationService service = localService();
+        String token = sign(signingKey, Instant.now().plusSeconds(300));
+        when(authMapper.toBearer(any(), anyString())).thenReturn(new BearerTokenTO());
+
+        // When
+        service.validate(token);
+        service.validate(token);
+
+        // Then
+        ArgumentCaptor<AccessToken> captor = ArgumentCaptor.forClass(AccessToken.class);
+        verify(authMapper, times(2)).toBearer(captor.capture(), any());
+        List<AccessToken> tokens = captor.getAllValues();
+        assertEquals(USER_ID, tokens.get(0).getSubject());
+        assertSame(tokens.get(0), tokens.get(1));
+        assertEquals(1, jwksRequests.get());
+        verify(tokenService, never()).validate(anyString());
+    }
+
+    @Test
+    void validate_local_expired() throws Exception {
+        // Given
+        TokenValidationService service = localService();
+        String token = sign(signingKey, Instant.now().minusSeconds(300));
+
+        // Then
+        assertThrows(AccessDeniedException.class, () -> service.validate(token));
+        verify(authMapper, never()).toBearer(any(), any());
+    }
+
+    @Test
+    void validate_local_unknownSignerCachedAsRejected() throws Exception {
+        // Given
+        TokenValidationService service = localService();
+        RSAKey foreignKey = new RSAKeyGenerator(2048).keyID("foreign").generate();
+        String token = sign(foreignKey, Instant.now().plusSeconds(300));
+
+        // When
+        assertThrows(AccessDeniedException.class, () -> service.validate(token));
+        int requestsAfterFirstAttempt = jwksRequests.get();
+        assertThrows(AccessDeniedException.class, () -> service.validate(token));
+
+        // Then
+        assertEquals(requestsAfterFirstAttempt, jwksRequests.get());
+    }
+
+    @Test
+    void validate_local_keyRotation() throws Exception {
+        // Given
+        TokenValidationService service = localService();
+        when(authMapper.toBearer(any(), anyString())).thenReturn(new BearerTokenTO());
+        service.validate(sign(signingKey, Instant.now().plusSeconds(300)));
+        RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        servedKeys = new JWKSet(List.of(signingKey, rotatedKey));
+
+        // When
+        service.validate(sign(rotatedKey, Instant.now().plusSeconds(300)));
+
+        // Then
+        assertEquals(2, jwksRequests.get());
+        verify(authMapper, times(2)).toBearer(any(), anyString());
+    }
+
+    @Test
+    void validate_local_keysUnavailable() throws Exception {
+        // Given
+        TokenValidationService service = localService();
+        jwksAvailable = false;
+        String token = sign(signingKey, Instant.now().plusSeconds(300));
+
+        // Then
+        assertThrows(AccessDeniedException.class, () -> service.validate(token));
+        verify(tokenService, never()).validate(anyString());
+    }
+
+    @Test
+    void validate_local_keysUnavailable_remoteFallback() throws Exception {
+        // Given
+        properties.setRemoteFallback(true);
+        TokenValidationService service = localService();
+        jwksAvailable = false;
+        String token = sign(signingKey, Instant.now().plusSeconds(300));
+        BearerTokenTO bearer = new BearerTokenTO();
+        when(tokenService.validate(token)).thenReturn(bearer);
+
+        // When
+        BearerTokenTO result = service.validate(token);
+
+        // Then
+        assertSame(bearer, result);
+    }
+
+    private TokenValidationService localService() throws Exception {
+        RemoteJWKSet<SecurityContext> keySource = new RemoteJWKSet<>(new URL("http://localhost/certs"), url -> {
+            jwksRequests.incrementAndGet();
+            if (!jwksAvailable) {
+                throw new IOException("Connection refused");
+            }
+            return new Resource(servedKeys.toPublicJWKSet().toString(), "application/json");
+        }, new DefaultJWKSetCache(5, TimeUnit.MINUTES));
+        return new TokenValidationService(tokenService, authMapper, properties, keySource);
+    }
+
+    private String sign(RSAKey key, Instant expiry) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                                  .subject(USER_ID)
+                                  .issueTime(new Date())
+                                  .expirationTime(Date.from(expiry))
+                                  .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
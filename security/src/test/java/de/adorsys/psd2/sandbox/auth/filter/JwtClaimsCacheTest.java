@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth.filter;
+
+import com.nimbusds.jose.PlainHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtClaimsCacheTest {
+    private final JwtClaimsCache cache = new JwtClaimsCache();
+
+    @Test
+    void get_parsedOnce() {
+        // Given
+        String token = new PlainJWT(new PlainHeader(), new JWTClaimsSet.Builder().jwtID("jwt-id").build()).serialize();
+
+        // When
+        JWTClaimsSet first = cache.get(token);
+        JWTClaimsSet second = cache.get(token);
+
+        // Then
+        assertEquals("jwt-id", first.getJWTID());
+        assertSame(first, second);
+    }
+
+    @Test
+    void get_invalidToken() {
+        assertThrows(ParseException.class, () -> cache.get("not a token"));
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.auth.http;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProfiledFeignClientTest {
+    private static final Request.Options OPTIONS = new Request.Options();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void execute_routedByClientName() throws IOException {
+        // Given
+        AtomicInteger cmsCalls = new AtomicInteger();
+        AtomicInteger defaultCalls = new AtomicInteger();
+        ProfiledFeignClient client = client(properties("cms", profile(List.of("cms*"), 10, 1)),
+                                            Map.of("cms", counting(cmsCalls, 200), "default", counting(defaultCalls, 200)));
+
+        // When
+        client.execute(request("cmsPsuAis"), OPTIONS);
+        client.execute(request("cmsPsuPis"), OPTIONS);
+        client.execute(request("ledgersAccount"), OPTIONS);
+
+        // Then
+        assertEquals(2, cmsCalls.get());
+        assertEquals(1, defaultCalls.get());
+        assertEquals("cms", client.profileOf("cmsAspspAisClient").getName());
+        assertEquals(2, registry.get("sandbox.http.client.requests").tag("profile", "cms").tag("outcome", "SUCCESS").timer().count());
+        assertEquals(1, registry.get("sandbox.http.client.queue.wait").tag("profile", "default").timer().count());
+    }
+
+    @Test
+    void execute_bulkheadFull() throws Exception {
+        // Given
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Client blocking = (request, options) -> {
+            entered.countDown();
+            await(release);
+            return response(request, 200);
+        };
+        ProfiledFeignClient client = client(properties("cms", profile(List.of("cms*"), 10, 1)), Map.of("cms", blocking));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<Response> first = executor.submit(() -> client.execute(request("cmsPsuAis"), OPTIONS));
+            entered.await(5, TimeUnit.SECONDS);
+
+            // When
+            IOException e = assertThrows(IOException.class, () -> client.execute(request("cmsPsuAis"), OPTIONS));
+            release.countDown();
+
+            // Then
+            assertEquals(200, first.get(5, TimeUnit.SECONDS).status());
+            assertEquals("HTTP client profile cms has no free slot after 10 ms", e.getMessage());
+            assertEquals(1, registry.get("sandbox.http.client.rejected").tag("profile", "cms").tag("reason", "bulkhead").counter().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_circuitOpensAndRecovers() throws IOException {
+        // Given
+        AtomicInteger status = new AtomicInteger(503);
+        AtomicInteger calls = new AtomicInteger();
+        Client downstream = (request, options) -> {
+            calls.incrementAndGet();
+            return response(request, status.get());
+        };
+        ProfiledFeignClient client = client(properties("keycloak", profile(List.of("keycloakTokenRestClient"), 10, 4)), Map.of("keycloak", downstream));
+
+        // When
+        client.execute(request("keycloakTokenRestClient"), OPTIONS);
+        client.execute(request("keycloakTokenRestClient"), OPTIONS);
+        IOException e = assertThrows(IOException.class, () -> client.execute(request("keycloakTokenRestClient"), OPTIONS));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        status.set(200);
+        Response trial = client.execute(request("keycloakTokenRestClient"), OPTIONS);
+
+        // Then
+        assertEquals("Circuit breaker of HTTP client profile keycloak is open", e.getMessage());
+        assertEquals(200, trial.status());
+        assertEquals(3, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, client.profileOf("keycloakTokenRestClient").circuitState());
+        assertEquals(2, registry.get("sandbox.http.client.requests").tag("profile", "keycloak").tag("outcome", "SERVER_ERROR").timer().count());
+    }
+
+    @Test
+    void execute_ioErrorCounted() {
+        // Given
+        Client failing = (request, options) -> {
+            throw new IOException("connection refused");
+        };
+        ProfiledFeignClient client = client(properties("ledgers", profile(List.of("ledgers*"), 10, 4)), Map.of("ledgers", failing));
+
+        // When
+        assertThrows(IOException.class, () -> client.execute(request("ledgersAccount"), OPTIONS));
+
+        // Then
+        assertEquals(1, registry.get("sandbox.http.client.requests").tag("profile", "ledgers").tag("outcome", "IO_ERROR").timer().count());
+        assertEquals(0.0, registry.get("sandbox.http.client.in.flight").tag("profile", "ledgers").gauge().value());
+    }
+
+    private ProfiledFeignClient client(HttpClientProfileProperties properties, Map<String, Client> delegates) {
+        return new ProfiledFeignClient(properties, registry, clock::get, delegates);
+    }
+
+    private static HttpClientProfileProperties properties(String name, HttpClientProfileProperties.Profile profile) {
+        HttpClientProfileProperties properties = new HttpClientProfileProperties();
+        properties.getProfiles().put(name, profile);
+        return properties;
+    }
+
+    private static HttpClientProfileProperties.Profile profile(List<String> clients, long maxWaitMs, int maxConcurrentRequests) {
+        HttpClientProfileProperties.Profile profile = new HttpClientProfileProperties.Profile();
+        profile.setClients(clients);
+        profile.setMaxWaitMs(maxWaitMs);
+        profile.setMaxConcurrentRequests(maxConcurrentRequests);
+        profile.setFailureThreshold(2);
+        profile.setOpenStateSeconds(30);
+        return profile;
+    }
+
+    private static Client counting(AtomicInteger calls, int status) {
+        return (request, options) -> {
+            calls.incrementAndGet();
+            return response(request, status);
+        };
+    }
+
+    private static Request request(String clientName) {
+        RequestTemplate template = new RequestTemplate();
+        template.feignTarget(new Target.HardCodedTarget<>(Object.class, clientName, "http://localhost"));
+        return Request.create(Request.HttpMethod.GET, "http://localhost/accounts", Collections.emptyMap(),
+                              Request.Body.empty(), template);
+    }
+
+    private static Response response(Request request, int status) {
+        return Response.builder()
+                   .status(status)
+                   .request(request)
+                   .headers(Collections.emptyMap())
+                   .body(new byte[0])
+                   .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
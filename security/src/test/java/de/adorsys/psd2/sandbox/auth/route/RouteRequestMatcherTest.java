@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+package de.adorsys.psd2.sandbox.auth.route;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteRequestMatcherTest {
+    private final RouteRequestMatcher matcher = new RouteRequestMatcher(new String[]{"/actuator/health"}, new String[]{"/img/*"});
+
+    @Test
+    void matches_servletPathAndPathInfo() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServletPath("/img");
+        request.setPathInfo("/logo.png");
+
+        // Then
+        assertTrue(matcher.matches(request));
+    }
+
+    @Test
+    void matches_anyGroup() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServletPath("/actuator/health");
+
+        // Then
+        assertTrue(matcher.matches(request));
+    }
+
+    @Test
+    void matches_unknownPath() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setPathInfo("/actuator/env");
+
+        // Then
+        assertFalse(matcher.matches(request));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+package de.adorsys.psd2.sandbox.auth.route;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteTableTest {
+    private static final String[] PATTERNS = {
+        "/swagger-resources/**", "/swagger-resources", "/swagger-ui.html**", "/v2/api-docs", "/webjars/**",
+        "favicon.ico", "/error", "/", "/index.css", "/img/*", "/favicon.ico", "/pis/auth/**",
+        "/pis/*/authorisation/*/login", "/ais/*/authorisation/*/login", "/api/v1/consents/confirm/*/*/*/*",
+        "/api/v1//users/reset/password/*", "/oauth/token/**", "/tpp/country/**", "/**/auth", "/**/login",
+        "/a/**/b/*.json", "/files/{name:[a-z]+}.txt", "/doc?/*/", "/x/**/**"
+    };
+    private static final List<String> PATHS = List.of(
+        "", "/", "//", "favicon.ico", "/favicon.ico", "/favicon.ico/", "/error", "/error/", "/errors",
+        "/swagger-resources", "/swagger-resources/", "/swagger-resources/configuration/ui", "/swagger-ui.html",
+        "/swagger-ui.html/x", "/swagger-ui.htmlabc", "/v2/api-docs", "/webjars", "/webjars/", "/webjars/a/b.js",
+        "/index.css", "/img", "/img/", "/img/logo.png", "/img/a/b", "/pis/auth", "/pis/auth/x/y",
+        "/pis/1/authorisation/2/login", "/pis/1/authorisation/2/login/", "/pis/1/authorisation/login",
+        "/ais/1/authorisation/2/login", "/api/v1/consents/confirm/1/2/3/4", "/api/v1/consents/confirm/1/2/3",
+        "/api/v1/users/reset/password/x", "/api/v1//users/reset/password/x", "/oauth/token", "/oauth/tokens",
+        "/tpp/country/codes", "/tpp/login", "/login", "/auth", "/a/b/c/auth", "/a/b/c/auth/", "/a/login/x",
+        "/a/b/x.json", "/a/q/r/b/x.json", "/a/b/x.xml", "/files/abc.txt", "/files/ab1.txt", "/doc1/x/",
+        "/doc1/x", "/docs/x/", "/x", "/x/", "/x/y/z", "relative/login"
+    );
+
+    @Test
+    void matches_sameAsAntPathMatcher() {
+        // Given
+        AntPathMatcher matcher = new AntPathMatcher();
+        RouteTable<String> table = RouteTable.of(PATTERNS);
+
+        for (String path : PATHS) {
+            // When
+            boolean expected = false;
+            for (String pattern : PATTERNS) {
+                expected |= matcher.match(pattern, path);
+            }
+
+            // Then
+            assertEquals(expected, table.matches(path), path);
+        }
+    }
+
+    @Test
+    void find_mostSpecificWins() {
+        // Given
+        Map<String, String> routes = new LinkedHashMap<>();
+        routes.put("/api/**", "any-path");
+        routes.put("/api/*/login", "any-segment");
+        routes.put("/api/v*/login", "wildcard");
+        routes.put("/api/v1/login", "literal");
+        RouteTable<String> table = RouteTable.of(routes);
+
+        // Then
+        assertEquals(Optional.of("literal"), table.find("/api/v1/login"));
+        assertEquals(Optional.of("wildcard"), table.find("/api/v2/login"));
+        assertEquals(Optional.of("any-segment"), table.find("/api/x/login"));
+        assertEquals(Optional.of("any-path"), table.find("/api/x/y/login"));
+    }
+
+    @Test
+    void find_firstDuplicateWins() {
+        // Given
+        Map<String, Integer> routes = new LinkedHashMap<>();
+        routes.put("/a//b", 1);
+        routes.put("/a/b", 2);
+
+        // When
+        Optional<Integer> result = RouteTable.of(routes).find("/a/b");
+
+        // Then
+        assertEquals(Optional.of(1), result);
+    }
+
+    @Test
+    void matches_patternIsNotTakenFromPath() {
+        // Given
+        RouteTable<String> table = RouteTable.of("/tpp/register");
+
+        // Then
+        assertTrue(table.matches("/tpp/register"));
+        assertFalse(table.matches("/tpp/*"));
+        assertFalse(table.matches("/tpp/**"));
+        assertFalse(table.matches(null));
+    }
+}
@@ -18,14 +18,14 @@
 
 package de.adorsys.psd2.sandbox.tpp.rest.server.auth;
 
-import de.adorsys.ledgers.middleware.client.rest.AuthRequestInterceptor;
+import de.adorsys.psd2.sandbox.auth.ScopedAuthRequestInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class AuthConfig {
 	@Bean
-	public AuthRequestInterceptor getClientAuth() {
-		return new AuthRequestInterceptor();
+	public ScopedAuthRequestInterceptor getClientAuth() {
+		return new ScopedAuthRequestInterceptor();
 	}
 }
@@ -19,6 +19,7 @@
 package de.adorsys.psd2.sandbox.tpp.rest.server.auth;
 
 
+import de.adorsys.psd2.sandbox.auth.route.RouteTable;
 import de.adorsys.psd2.sandbox.tpp.rest.api.resource.TppRestApi;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,7 +27,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import javax.servlet.FilterChain;
@@ -40,28 +40,25 @@ import java.util.Optional;
 @Slf4j
 @RequiredArgsConstructor
 public class DisableEndpointFilter extends OncePerRequestFilter {
-    private static final Map<String, Pair<String, String>> DISABLED_MAP;
-    private static final AntPathMatcher matcher = new AntPathMatcher();
+    private static final RouteTable<Pair<String, String>> DISABLED_ROUTES;
     private final Environment env;
 
     static {
         /*
-          DISABLED_MAP STRUCTURE:
+          DISABLED_ROUTES STRUCTURE:
           |RequestUri to block| Pair of <Application properties variable, Message to send> |
           Adding only RequestUri and Message will block by Uri, adding all 3 parameter will only block uri if application property is set to true.
          */
-        DISABLED_MAP = Map.of(
+        DISABLED_ROUTES = RouteTable.of(Map.of(
             TppRestApi.BASE_PATH + "/register", Pair.of("app.endpoints.tpp.self.registration.disabled", "Self Registration is Disabled by Administration.")
-        );
+        ));
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws IOException, ServletException {
-        Optional<String> isDisabled = DISABLED_MAP.keySet().stream()
-                                          .filter(u -> matcher.match(request.getServletPath(), u)).findFirst();
+        Optional<Pair<String, String>> isDisabled = DISABLED_ROUTES.find(request.getServletPath());
         if (isDisabled.isPresent()) {
-            String u = isDisabled.get();
-            Pair<String, String> o = DISABLED_MAP.get(u);
+            Pair<String, String> o = isDisabled.get();
             if (isDisabled(o.getKey())) {
                 String msg = Optional.ofNullable(o.getValue()).orElse("This feature is Disabled by Administration!");
                 response.sendError(HttpStatus.FORBIDDEN.value(), msg);
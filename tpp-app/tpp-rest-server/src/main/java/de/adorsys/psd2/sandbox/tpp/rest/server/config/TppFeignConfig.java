@@ -19,27 +19,17 @@
 package de.adorsys.psd2.sandbox.tpp.rest.server.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import de.adorsys.ledgers.middleware.api.domain.um.ScaUserDataTO;
-import de.adorsys.psd2.sandbox.tpp.rest.server.model.ScaUserDataMixedIn;
-import feign.Client;
 import feign.codec.Encoder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.Interceptor;
-import okhttp3.Response;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.cloud.openfeign.support.SpringEncoder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 
-import java.io.IOException;
-import java.util.concurrent.TimeUnit;
-
 @Slf4j
 @Configuration
 @RequiredArgsConstructor
@@ -48,40 +38,8 @@ public class TppFeignConfig {
 
     @Bean
     public Encoder feignEncoder() {
-        objectMapper.addMixIn(ScaUserDataTO.class, ScaUserDataMixedIn.class)
-            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
         HttpMessageConverter<?> jacksonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
         ObjectFactory<HttpMessageConverters> objectFactory = () -> new HttpMessageConverters(jacksonConverter);
         return new SpringEncoder(objectFactory);
     }
-
-    @Bean
-    public Client feignClient(okhttp3.OkHttpClient client) {
-        return new feign.okhttp.OkHttpClient(client);
-    }
-
-    @Bean
-    public okhttp3.OkHttpClient okHttpClient() {
-        return new okhttp3.OkHttpClient.Builder()
-                   .connectTimeout(60, TimeUnit.SECONDS)
-                   .readTimeout(60, TimeUnit.SECONDS)
-                   .writeTimeout(60, TimeUnit.SECONDS)
-                   .followRedirects(false)
-                   .followSslRedirects(false)
-                   .retryOnConnectionFailure(true)
-                   .addInterceptor(new RedirectInterceptor())
-                   .build();
-    }
-
-    static class RedirectInterceptor implements Interceptor {
-        @Override
-        public Response intercept(Interceptor.Chain chain) throws IOException {
-            var request = chain.request();
-            var response = chain.proceed(request);
-            if (HttpStatus.FOUND.value() == response.code()) {
-                return response.newBuilder().code(HttpStatus.OK.value()).build();
-            }
-            return response;
-        }
-    }
 }
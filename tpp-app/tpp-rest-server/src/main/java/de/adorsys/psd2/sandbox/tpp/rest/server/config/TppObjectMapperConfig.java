@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018-2022 adorsys GmbH & Co KG
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version. This program is distributed in the hope that
+ * it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ *
+ * This project is also available under a separate commercial license. You can
+ * contact us at psd2@adorsys.com.
+ */
+
+package de.adorsys.psd2.sandbox.tpp.rest.server.config;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.adorsys.ledgers.middleware.api.domain.um.ScaUserDataTO;
+import de.adorsys.psd2.sandbox.tpp.rest.server.model.ScaUserDataMixedIn;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the application ObjectMapper once at creation, instead of every Feign client context mutating it.
+ */
+@Configuration
+public class TppObjectMapperConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer tppObjectMapperCustomizer() {
+        return builder -> builder.mixIn(ScaUserDataTO.class, ScaUserDataMixedIn.class)
+                              .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
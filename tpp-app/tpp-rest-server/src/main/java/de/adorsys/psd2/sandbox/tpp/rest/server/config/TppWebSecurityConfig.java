@@ -23,6 +23,7 @@ import de.adorsys.psd2.sandbox.tpp.rest.server.auth.DisableEndpointFilter;
 import de.adorsys.psd2.sandbox.auth.filter.LoginAuthenticationFilter;
 import de.adorsys.psd2.sandbox.auth.filter.RefreshTokenFilter;
 import de.adorsys.psd2.sandbox.auth.filter.TokenAuthenticationFilter;
+import de.adorsys.psd2.sandbox.auth.route.RouteRequestMatcher;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
@@ -50,13 +51,8 @@ public class TppWebSecurityConfig extends WebSecurityConfigurerAdapter {
         http.csrf().disable()
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and()
-            .authorizeRequests().antMatchers(INDEX_WHITELIST).permitAll()
-            .and()
-            .authorizeRequests().antMatchers(APP_WHITELIST).permitAll()
-            .and()
-            .authorizeRequests().antMatchers(ACTUATOR_WHITELIST).permitAll()
-            .and()
-            .authorizeRequests().antMatchers(SWAGGER_WHITELIST).permitAll()
+            .authorizeRequests()
+            .requestMatchers(new RouteRequestMatcher(INDEX_WHITELIST, APP_WHITELIST, ACTUATOR_WHITELIST, SWAGGER_WHITELIST)).permitAll()
             .and()
             .cors()
             .and()
@@ -108,4 +108,18 @@ class DisableEndpointFilterTest {
         // Then
         verify(chain, times(0)).doFilter(any(), any());
     }
+
+    @Test
+    void doFilterInternal_wildcard_uri_does_not_match_disabled_endpoint() throws IOException, ServletException {
+        // Given
+        SecurityContextHolder.clearContext();
+        when(request.getServletPath()).thenReturn(TppRestApi.BASE_PATH + "/**");
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(chain, times(1)).doFilter(any(), any());
+        verifyNoInteractions(env);
+    }
 }
@@ -23,14 +23,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.ledgers.middleware.api.domain.um.ScaMethodTypeTO;
 import de.adorsys.ledgers.middleware.api.domain.um.ScaUserDataTO;
 import de.adorsys.ledgers.middleware.api.domain.um.UserTO;
+import de.adorsys.psd2.sandbox.tpp.rest.server.config.TppObjectMapperConfig;
 import de.adorsys.psd2.sandbox.tpp.rest.server.model.ScaUserDataMixedIn;
 import org.json.JSONException;
 import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class ObjectMapperMixInTest {
 
     @Test
@@ -49,6 +53,20 @@ class ObjectMapperMixInTest {
         JSONAssert.assertEquals(result, expected, true);
     }
 
+    @Test
+    void scaUserDataMixIn_applicationObjectMapper() throws JsonProcessingException {
+        // Given
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new TppObjectMapperConfig().tppObjectMapperCustomizer().customize(builder);
+        ObjectMapper objectMapper = builder.build();
+
+        // When
+        String result = objectMapper.writeValueAsString(getUser());
+
+        // Then
+        assertTrue(result.contains("\"staticTan\":\"STATIC TAN\""));
+    }
+
     private UserTO getUser() {
         return new UserTO("id", "login", "email", "pin", getScaUserData(), Collections.emptyList(), Collections.emptyList(), "branch", false, false);
     }